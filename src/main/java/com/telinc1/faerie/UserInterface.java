@@ -73,7 +73,7 @@ public abstract class UserInterface {
      */
     public boolean setProvider(Provider provider){
         if(provider == null){
-            this.provider = null;
+            this.replaceProvider(null);
             return true;
         }
 
@@ -88,10 +88,24 @@ public abstract class UserInterface {
             this.getNotifier().notify(warning);
         }
 
-        this.provider = provider;
+        this.replaceProvider(provider);
         return true;
     }
 
+    /**
+     * Replaces the current provider with a new one, closing the old provider
+     * if it's no longer used.
+     *
+     * @param provider the new provider, or {@code null}
+     */
+    private void replaceProvider(Provider provider){
+        if(this.provider != null && this.provider != provider){
+            this.provider.close();
+        }
+
+        this.provider = provider;
+    }
+
     /**
      * Returns the {@code Application} which owns this user interface.
      */
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.display;
+
+import com.telinc1.faerie.rom.ROMImage;
+import com.telinc1.faerie.util.LRUCache;
+
+/**
+ * A {@code LevelPaletteExtractor} reads the palettes of levels straight out
+ * of a {@link ROMImage}. Vanilla palettes are assembled row by row from the
+ * palette tables in bank $00, as chosen by the header of each level, while
+ * custom palettes saved by Lunar Magic are read as a whole.
+ * <p>
+ * Extracted palettes are kept in a bounded cache keyed by the level and the
+ * source of the palette, so each one is only decoded once. The palettes are
+ * shared by everyone who requests them and must not be changed.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class LevelPaletteExtractor {
+    /**
+     * The amount of levels in the game.
+     */
+    public static final int LEVELS = 0x200;
+
+    /**
+     * The default amount of palettes kept in memory.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 16;
+
+    /**
+     * The SNES address of the table of pointers to the layer 1 data of each
+     * level, which starts with the level header.
+     */
+    private static final int LEVEL_POINTERS = 0x05E000;
+
+    /**
+     * The SNES address of the table of pointers to the custom palette of
+     * each level, written by Lunar Magic.
+     */
+    private static final int CUSTOM_PALETTE_POINTERS = 0x0EF600;
+
+    /**
+     * The SNES address of the back area colors.
+     */
+    private static final int BACK_AREA_COLORS = 0x00B0A0;
+
+    /**
+     * The SNES address of the background palettes.
+     */
+    private static final int BACKGROUND_PALETTES = 0x00B0B0;
+
+    /**
+     * The SNES address of the layer 3 palette.
+     */
+    private static final int LAYER_3_PALETTE = 0x00B170;
+
+    /**
+     * The SNES address of the foreground palettes.
+     */
+    private static final int FOREGROUND_PALETTES = 0x00B190;
+
+    /**
+     * The SNES address of the palette shared by every level.
+     */
+    private static final int GLOBAL_PALETTE = 0x00B250;
+
+    /**
+     * The SNES address of the player palettes.
+     */
+    private static final int PLAYER_PALETTES = 0x00B2C8;
+
+    /**
+     * The SNES address of the sprite palettes.
+     */
+    private static final int SPRITE_PALETTES = 0x00B318;
+
+    /**
+     * The size of a single background, foreground or sprite palette, in
+     * bytes. Each one covers colors 2 to 7 of two rows.
+     */
+    private static final int PALETTE_SIZE = 0x18;
+
+    /**
+     * The size of a custom palette, in bytes. It holds every color followed
+     * by the back area color.
+     */
+    private static final int CUSTOM_PALETTE_SIZE = Palette.SIZE * 2 + 2;
+
+    /**
+     * The image which palettes are read from.
+     */
+    private final ROMImage image;
+
+    /**
+     * The most recently used palettes.
+     */
+    private final LRUCache<Integer, Palette> cache;
+
+    /**
+     * Constructs an extractor with the default cache size.
+     *
+     * @param image the image to read palettes from
+     */
+    public LevelPaletteExtractor(ROMImage image){
+        this(image, LevelPaletteExtractor.DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs an extractor.
+     *
+     * @param image the image to read palettes from
+     * @param cacheSize the amount of palettes kept in memory
+     */
+    public LevelPaletteExtractor(ROMImage image, int cacheSize){
+        this.image = image;
+        this.cache = new LRUCache<>(cacheSize);
+    }
+
+    /**
+     * Returns the image which palettes are read from.
+     */
+    public ROMImage getImage(){
+        return this.image;
+    }
+
+    /**
+     * Returns the palette which the game uses for a level. This is the custom
+     * palette if Lunar Magic saved one for the level, and the vanilla palette
+     * otherwise.
+     *
+     * @param level the number of the level, from {@code 0x000} to
+     * {@code 0x1FF}
+     * @return the shared palette of the level
+     * @throws IllegalArgumentException if the level doesn't exist
+     */
+    public Palette getPalette(int level){
+        if(this.hasCustomPalette(level)){
+            return this.getPalette(level, EnumPaletteSource.LUNAR_MAGIC);
+        }
+
+        return this.getPalette(level, EnumPaletteSource.VANILLA);
+    }
+
+    /**
+     * Returns a palette of a level from the given source.
+     *
+     * @param level the number of the level, from {@code 0x000} to
+     * {@code 0x1FF}
+     * @param source where to read the palette from
+     * @return the shared palette of the level, or {@code null} if the level
+     * has no palette from the source
+     * @throws IllegalArgumentException if the level doesn't exist
+     * @throws IndexOutOfBoundsException if the level header points outside
+     * of the image
+     */
+    public synchronized Palette getPalette(int level, EnumPaletteSource source){
+        LevelPaletteExtractor.checkLevel(level);
+
+        Integer key = (level << 1) | source.ordinal();
+        Palette palette = this.cache.get(key);
+
+        if(palette == null && !this.cache.containsKey(key)){
+            palette = source == EnumPaletteSource.LUNAR_MAGIC ? this.extractCustom(level) : this.extractVanilla(level);
+            this.cache.put(key, palette);
+        }
+
+        return palette;
+    }
+
+    /**
+     * Checks whether Lunar Magic saved a custom palette for a level.
+     *
+     * @param level the number of the level, from {@code 0x000} to
+     * {@code 0x1FF}
+     * @return whether the level has a custom palette
+     * @throws IllegalArgumentException if the level doesn't exist
+     */
+    public boolean hasCustomPalette(int level){
+        LevelPaletteExtractor.checkLevel(level);
+        return this.getCustomPalettePointer(level) != -1;
+    }
+
+    /**
+     * Forgets every cached palette.
+     */
+    public synchronized void clear(){
+        this.cache.clear();
+    }
+
+    /**
+     * Returns the pointer to the custom palette of a level.
+     *
+     * @param level the number of the level
+     * @return the SNES address of the palette, or {@code -1} if there is
+     * none
+     */
+    private int getCustomPalettePointer(int level){
+        if(!this.image.hasLunarMagic()){
+            return -1;
+        }
+
+        int pointer = this.image.readLong(LevelPaletteExtractor.CUSTOM_PALETTE_POINTERS + level * 3);
+
+        if(pointer == 0 || pointer == 0xFFFFFF || !this.image.contains(pointer, LevelPaletteExtractor.CUSTOM_PALETTE_SIZE)){
+            return -1;
+        }
+
+        return pointer;
+    }
+
+    /**
+     * Reads the custom palette of a level.
+     *
+     * @param level the number of the level
+     * @return the custom palette, or {@code null} if there is none
+     */
+    private Palette extractCustom(int level){
+        int pointer = this.getCustomPalettePointer(level);
+
+        if(pointer == -1){
+            return null;
+        }
+
+        short[] colors = new short[Palette.SIZE];
+
+        for(int i = 0; i < colors.length; i++){
+            colors[i] = (short)this.image.readWord(pointer + i * 2);
+        }
+
+        colors[0] = (short)this.image.readWord(pointer + Palette.SIZE * 2);
+        return new Palette().setColors(0, colors);
+    }
+
+    /**
+     * Assembles the vanilla palette of a level from the palette tables. The
+     * global palette is loaded first, and the palettes chosen by the level
+     * header are loaded over it.
+     *
+     * @param level the number of the level
+     * @return the vanilla palette
+     */
+    private Palette extractVanilla(int level){
+        int header = this.image.readLong(LevelPaletteExtractor.LEVEL_POINTERS + level * 3);
+
+        int background = this.image.readByte(header) >> 5;
+        int backArea = this.image.readByte(header + 1) >> 5;
+        int sprite = (this.image.readByte(header + 3) >> 3) & 7;
+        int foreground = this.image.readByte(header + 3) & 7;
+
+        int[] colors = new int[Palette.SIZE];
+
+        this.readRows(colors, LevelPaletteExtractor.GLOBAL_PALETTE, 0x4, 10, 2, 6);
+        this.readRows(colors, LevelPaletteExtractor.LAYER_3_PALETTE, 0x0, 2, 8, 8);
+        this.readRows(colors, LevelPaletteExtractor.BACKGROUND_PALETTES + background * LevelPaletteExtractor.PALETTE_SIZE, 0x0, 2, 2, 6);
+        this.readRows(colors, LevelPaletteExtractor.FOREGROUND_PALETTES + foreground * LevelPaletteExtractor.PALETTE_SIZE, 0x2, 2, 2, 6);
+        this.readRows(colors, LevelPaletteExtractor.SPRITE_PALETTES + sprite * LevelPaletteExtractor.PALETTE_SIZE, 0xE, 2, 2, 6);
+        this.readRows(colors, LevelPaletteExtractor.PLAYER_PALETTES, 0x8, 1, 6, 10);
+
+        colors[0] = this.image.readWord(LevelPaletteExtractor.BACK_AREA_COLORS + backArea * 2);
+        return new Palette().setColors(0, colors);
+    }
+
+    /**
+     * Copies a rectangle of colors out of a palette table. The table stores
+     * the colors row by row with no gaps.
+     *
+     * @param colors the colors of the palette being assembled
+     * @param address the SNES address of the table
+     * @param row the first row of the palette to write to
+     * @param rows the amount of rows to write
+     * @param column the first color of each row to write to
+     * @param columns the amount of colors to write to each row
+     */
+    private void readRows(int[] colors, int address, int row, int rows, int column, int columns){
+        for(int y = 0; y < rows; y++){
+            for(int x = 0; x < columns; x++){
+                colors[(row + y) * 16 + column + x] = this.image.readWord(address);
+                address += 2;
+            }
+        }
+    }
+
+    /**
+     * Verifies that a level exists.
+     *
+     * @param level the number of the level
+     * @throws IllegalArgumentException if the level doesn't exist
+     */
+    private static void checkLevel(int level){
+        if(level < 0 || level >= LevelPaletteExtractor.LEVELS){
+            throw new IllegalArgumentException("Level out of bounds: " + level + ".");
+        }
+    }
+}
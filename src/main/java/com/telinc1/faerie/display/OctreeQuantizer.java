@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.display;
+
+import com.telinc1.faerie.util.ColorUtils;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code OctreeQuantizer} reduces the colors of an image to a limited
+ * amount of SNES colors.
+ * <p>
+ * Colors are first converted to BGR555 and counted in a histogram, so every
+ * distinct SNES color is only processed once regardless of the size of the
+ * image. If there are few enough distinct colors, they are returned in the
+ * order in which they first appeared. Otherwise, they are inserted into an
+ * octree five levels deep, one level per bit of each component, and the
+ * least used branches of the deepest level are merged until few enough
+ * leaves remain. Each color then belongs to the leaf of its branch, found
+ * by walking the tree down along its bits, and each leaf stands for the
+ * average of its colors. A color near the edge of a branch may therefore be
+ * closer to the average of another leaf than to its own.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class OctreeQuantizer {
+    /**
+     * The depth of the octree, which is the amount of bits per component.
+     */
+    private static final int DEPTH = 5;
+
+    /**
+     * The amount of pixels of each SNES color.
+     */
+    private final int[] counts;
+
+    /**
+     * The distinct SNES colors, in the order in which they were first added.
+     */
+    private final int[] order;
+
+    /**
+     * The amount of distinct SNES colors which have been added.
+     */
+    private int distinct;
+
+    /**
+     * Constructs an empty {@code OctreeQuantizer}.
+     */
+    public OctreeQuantizer(){
+        this.counts = new int[ColorUtils.SNES_COLORS];
+        this.order = new int[ColorUtils.SNES_COLORS];
+        this.distinct = 0;
+    }
+
+    /**
+     * Adds a single pixel. Fully transparent pixels are ignored.
+     *
+     * @param argb the color in the format of {@link java.awt.Color#getRGB()}
+     * @return the quantizer, for chaining
+     */
+    public OctreeQuantizer add(int argb){
+        if((argb >>> 24) == 0){
+            return this;
+        }
+
+        int color = ColorUtils.toBGR555(argb);
+
+        if(this.counts[color]++ == 0){
+            this.order[this.distinct++] = color;
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds every pixel of an image. The pixels are read one row at a time.
+     *
+     * @param image the image to add
+     * @return the quantizer, for chaining
+     */
+    public OctreeQuantizer add(BufferedImage image){
+        int width = image.getWidth();
+        int[] row = new int[width];
+
+        for(int y = 0; y < image.getHeight(); y++){
+            image.getRGB(0, y, width, 1, row, 0, width);
+
+            for(int argb : row){
+                this.add(argb);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of distinct SNES colors which have been added.
+     *
+     * @return the amount of distinct colors
+     */
+    public int getColorCount(){
+        return this.distinct;
+    }
+
+    /**
+     * Reduces the added colors to at most the given amount.
+     *
+     * @param maximum the maximum amount of colors to return
+     * @return the 5-bit SNES RGB colors, ordered by the first appearance of
+     * any color which they represent
+     * @throws IllegalArgumentException if the maximum isn't positive
+     */
+    public int[] quantize(int maximum){
+        if(maximum < 1){
+            throw new IllegalArgumentException("Invalid maximum amount of colors: " + maximum + ".");
+        }
+
+        if(this.distinct <= maximum){
+            return Arrays.copyOf(this.order, this.distinct);
+        }
+
+        Node root = new Node();
+        List<List<Node>> levels = new ArrayList<>(OctreeQuantizer.DEPTH);
+
+        for(int level = 0; level < OctreeQuantizer.DEPTH; level++){
+            levels.add(new ArrayList<>());
+        }
+
+        levels.get(0).add(root);
+
+        for(int i = 0; i < this.distinct; i++){
+            this.insert(root, levels, this.order[i]);
+        }
+
+        int leaves = this.distinct;
+
+        for(int level = OctreeQuantizer.DEPTH - 1; level >= 0 && leaves > maximum; level--){
+            List<Node> nodes = levels.get(level);
+            nodes.sort((first, second) -> Long.compare(first.pixels, second.pixels));
+
+            for(int i = 0; i < nodes.size() && leaves > maximum; i++){
+                leaves -= nodes.get(i).merge() - 1;
+            }
+        }
+
+        int[] result = new int[leaves];
+        int found = 0;
+
+        for(int i = 0; i < this.distinct; i++){
+            Node leaf = OctreeQuantizer.find(root, this.order[i]);
+
+            if(leaf.index < 0){
+                leaf.index = found;
+                result[found++] = leaf.getColor();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Inserts a distinct color into the octree, creating every node along its
+     * path.
+     *
+     * @param root the root of the octree
+     * @param levels the inner nodes at each level of the octree
+     * @param color the BGR555 color to insert
+     */
+    private void insert(Node root, List<List<Node>> levels, int color){
+        int count = this.counts[color];
+        Node node = root;
+
+        for(int level = 0; level < OctreeQuantizer.DEPTH; level++){
+            node.add(color, count);
+
+            int child = OctreeQuantizer.getChild(color, level);
+
+            if(node.children[child] == null){
+                node.children[child] = new Node();
+
+                if(level + 1 < OctreeQuantizer.DEPTH){
+                    levels.get(level + 1).add(node.children[child]);
+                }
+            }
+
+            node = node.children[child];
+        }
+
+        node.add(color, count);
+        node.leaf = true;
+    }
+
+    /**
+     * Finds the leaf which represents a color.
+     *
+     * @param root the root of the octree
+     * @param color the BGR555 color to look up
+     * @return the leaf of the branch which contains the color
+     */
+    private static Node find(Node root, int color){
+        Node node = root;
+
+        for(int level = 0; !node.leaf; level++){
+            node = node.children[OctreeQuantizer.getChild(color, level)];
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns the index of the child which contains a color at a level of
+     * the octree.
+     *
+     * @param color the BGR555 color
+     * @param level the level of the parent node
+     * @return the index of the child, from 0 to 7
+     */
+    private static int getChild(int color, int level){
+        int bit = OctreeQuantizer.DEPTH - 1 - level;
+
+        return ((ColorUtils.getRed(color) >> bit) & 1) << 2
+            | ((ColorUtils.getGreen(color) >> bit) & 1) << 1
+            | ((ColorUtils.getBlue(color) >> bit) & 1);
+    }
+
+    /**
+     * A single node of the octree, which accumulates every color below it.
+     */
+    private static class Node {
+        /**
+         * The child nodes, indexed by one bit of each component.
+         */
+        private final Node[] children = new Node[8];
+
+        /**
+         * The amount of pixels below this node.
+         */
+        private long pixels;
+
+        /**
+         * The sum of the red components of every pixel below this node.
+         */
+        private long red;
+
+        /**
+         * The sum of the green components of every pixel below this node.
+         */
+        private long green;
+
+        /**
+         * The sum of the blue components of every pixel below this node.
+         */
+        private long blue;
+
+        /**
+         * Whether this node is a leaf, either at the bottom of the octree or
+         * because its children were merged into it.
+         */
+        private boolean leaf;
+
+        /**
+         * The index of the color of this leaf in the result, or -1.
+         */
+        private int index = -1;
+
+        /**
+         * Adds the pixels of a color to this node.
+         *
+         * @param color the BGR555 color
+         * @param count the amount of pixels of that color
+         */
+        private void add(int color, int count){
+            this.pixels += count;
+            this.red += (long)ColorUtils.getRed(color) * count;
+            this.green += (long)ColorUtils.getGreen(color) * count;
+            this.blue += (long)ColorUtils.getBlue(color) * count;
+        }
+
+        /**
+         * Turns this node into a leaf which represents every color below it.
+         *
+         * @return the amount of leaves which were replaced
+         */
+        private int merge(){
+            int merged = 0;
+
+            for(Node child : this.children){
+                if(child != null){
+                    merged++;
+                }
+            }
+
+            Arrays.fill(this.children, null);
+            this.leaf = true;
+
+            return merged;
+        }
+
+        /**
+         * Returns the average color of every pixel below this node.
+         *
+         * @return the BGR555 color
+         */
+        private int getColor(){
+            long half = this.pixels / 2;
+
+            return (int)((this.red + half) / this.pixels)
+                | (int)((this.green + half) / this.pixels) << 5
+                | (int)((this.blue + half) / this.pixels) << 10;
+        }
+    }
+}
@@ -22,28 +22,79 @@
 
 package com.telinc1.faerie.display;
 
+import com.telinc1.faerie.util.ColorUtils;
+import com.telinc1.faerie.util.FileUtils;
 import com.telinc1.faerie.util.TypeUtils;
 
+import javax.imageio.ImageIO;
 import javax.swing.event.EventListenerList;
 import java.awt.Color;
-import java.io.BufferedInputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 /**
  * This class represents a loaded palette file.
+ * <p>
+ * Alongside the 15-bit SNES colors, the palette keeps their ARGB values,
+ * which are looked up through {@link ColorUtils} whenever a color changes, and lazily creates a
+ * single {@link Color} for each index. Many colors can be changed at once
+ * through {@code setColors}, which only fires a single {@link UpdateEvent}.
+ * <p>
+ * Palette files are read in one go and decoded from a {@link ByteBuffer},
+ * and the palette can be written back into any of the formats it can load.
+ * Palettes can also be imported from images, whose colors are reduced to
+ * at most 256 SNES colors by an {@link OctreeQuantizer} unless the image
+ * is already indexed.
  *
  * @author Telinc1
  * @since 1.0.0
  */
 public class Palette {
+    /**
+     * The amount of colors in a palette.
+     */
+    public static final int SIZE = 256;
+
+    /**
+     * The length of the colors of a PAL file, in bytes.
+     */
+    private static final int PAL_LENGTH = Palette.SIZE * 3;
+
+    /**
+     * The length of the colors of a TPL or MW3 file, in bytes.
+     */
+    private static final int SNES_LENGTH = Palette.SIZE * 2;
+
+    /**
+     * The header of a TPL file.
+     */
+    private static final byte[] TPL_HEADER = {0x54, 0x50, 0x4C, 0x02};
+
     /**
      * The colors in this palette.
      */
     private int[] colors;
 
+    /**
+     * The ARGB value of every color, kept in sync with {@link #colors}.
+     */
+    private final int[] argb;
+
+    /**
+     * The {@code Color} object of every color, or {@code null} for colors
+     * which haven't been requested since they last changed.
+     */
+    private final Color[] colorObjects;
+
     /**
      * The list of all registered event listeners.
      */
@@ -54,7 +105,11 @@ public class Palette {
      */
     public Palette(){
         this.colors = new int[512];
+        this.argb = new int[Palette.SIZE];
+        this.colorObjects = new Color[Palette.SIZE];
         this.listenerList = new EventListenerList();
+
+        Arrays.fill(this.argb, 0xFF000000);
     }
 
     /**
@@ -65,8 +120,26 @@ public class Palette {
      * @throws ArrayIndexOutOfBoundsException if the index is outside the palette
      */
     public Color getColor(int index){
-        int color = this.getSNESColor(index);
-        return new Color(((color << 19) & 0xF80000) | ((color << 6) & 0xF800) | ((color >> 7) & 0xF8));
+        Color color = this.colorObjects[index];
+
+        if(color == null){
+            color = new Color(this.argb[index]);
+            this.colorObjects[index] = color;
+        }
+
+        return color;
+    }
+
+    /**
+     * Returns the RGB color at the given index as a packed integer, without
+     * creating a {@link Color}.
+     *
+     * @param index the index to get
+     * @return the opaque color in the format of {@link Color#getRGB()}
+     * @throws ArrayIndexOutOfBoundsException if the index is outside the palette
+     */
+    public int getRGB(int index){
+        return this.argb[index];
     }
 
     /**
@@ -86,36 +159,6 @@ public class Palette {
         this.listenerList.remove(UpdateListener.class, listener);
     }
 
-    /**
-     * Loads the given PAL file into the internal color array.
-     *
-     * @param input the data to load
-     * @return the palette, for chaining
-     * @throws IOException if an I/O error occurs
-     */
-    public Palette loadPALFile(InputStream input) throws IOException{
-        try(BufferedInputStream stream = new BufferedInputStream(input)) {
-            byte[] palette = new byte[768];
-            int bytes = stream.read(palette);
-
-            if(bytes < 768){
-                throw new IOException("The given palette file is too short.");
-            }
-
-            for(int i = 0; i < 256; i++){
-                this.setColor(i, new Color(
-                    palette[i * 3] & 0xFF,
-                    palette[i * 3 + 1] & 0xFF,
-                    palette[i * 3 + 2] & 0xFF
-                ), true);
-            }
-
-            this.firePaletteUpdate();
-        }
-
-        return this;
-    }
-
     /**
      * Returns the SNES color at the given index.
      *
@@ -137,18 +180,7 @@ public class Palette {
      * @throws ArrayIndexOutOfBoundsException if the index is outside the palette
      */
     private Palette setColor(int index, Color color, boolean quiet){
-        this.setSNESColor(
-            index,
-            ((color.getRed() >> 3) & 31)
-                | (((color.getGreen() >> 3) & 31) << 5)
-                | (((color.getBlue() >> 3) & 31) << 10)
-        );
-
-        if(quiet){
-            return this;
-        }
-
-        return this.firePaletteUpdate();
+        return this.setSNESColor(index, ColorUtils.toBGR555(color.getRGB()), quiet);
     }
 
     /**
@@ -194,6 +226,8 @@ public class Palette {
      */
     private Palette setSNESColor(int index, int color, boolean quiet){
         this.colors[index * 2] = color & 0x7FFF;
+        this.argb[index] = ColorUtils.toARGB(color);
+        this.colorObjects[index] = null;
 
         if(quiet){
             return this;
@@ -215,35 +249,79 @@ public class Palette {
     }
 
     /**
-     * Loads the given TPL file into the internal color array.
+     * Sets many consecutive SNES colors at once. Only a single
+     * {@link UpdateEvent} is fired, after every color has been set.
      *
-     * @param input the data to load
+     * @param from the index of the first color to set
+     * @param values the 5-bit SNES RGB colors to set
      * @return the palette, for chaining
-     * @throws IOException if an I/O error occurs
+     * @throws ArrayIndexOutOfBoundsException if any of the colors would be
+     * outside the palette, in which case nothing is changed
      */
-    public Palette loadTPLFile(InputStream input) throws IOException{
-        try(BufferedInputStream stream = new BufferedInputStream(input)) {
-            byte[] header = new byte[4];
-            byte[] palette = new byte[512];
-            int headerBytes = stream.read(header);
-            int paletteBytes = stream.read(palette);
-
-            if(headerBytes < 4 || paletteBytes < 512){
-                throw new IOException("The given palette file is too short.");
-            }
+    public Palette setColors(int from, int[] values){
+        Palette.checkRange(from, values.length);
 
-            if(header[0] != 0x54 || header[1] != 0x50 || header[2] != 0x4C || header[3] != 0x02){
-                throw new IOException("The given palette file is malformed.");
-            }
+        for(int i = 0; i < values.length; i++){
+            this.setSNESColor(from + i, values[i], true);
+        }
 
-            for(int i = 0; i < 256; i++){
-                this.setSNESColor(i, (palette[i * 2] & 0xFF) | ((palette[i * 2 + 1] & 0xFF) << 8), true);
-            }
+        return this.firePaletteUpdate();
+    }
+
+    /**
+     * Sets many consecutive SNES colors at once, such as the words of a
+     * palette read straight from a ROM image. Only a single
+     * {@link UpdateEvent} is fired, after every color has been set.
+     *
+     * @param from the index of the first color to set
+     * @param values the 5-bit SNES RGB colors to set
+     * @return the palette, for chaining
+     * @throws ArrayIndexOutOfBoundsException if any of the colors would be
+     * outside the palette, in which case nothing is changed
+     */
+    public Palette setColors(int from, short[] values){
+        Palette.checkRange(from, values.length);
 
-            this.firePaletteUpdate();
+        for(int i = 0; i < values.length; i++){
+            this.setSNESColor(from + i, values[i], true);
         }
 
-        return this;
+        return this.firePaletteUpdate();
+    }
+
+    /**
+     * Verifies that a range of colors is inside the palette.
+     *
+     * @param from the index of the first color
+     * @param length the amount of colors
+     * @throws ArrayIndexOutOfBoundsException if the range is outside the palette
+     */
+    private static void checkRange(int from, int length){
+        if(from < 0 || from + length > Palette.SIZE){
+            throw new ArrayIndexOutOfBoundsException("Colors out of bounds: " + from + " to " + (from + length - 1) + ".");
+        }
+    }
+
+    /**
+     * Loads the given PAL file into the internal color array.
+     *
+     * @param input the data to load
+     * @return the palette, for chaining
+     * @throws IOException if an I/O error occurs or the file is too short
+     */
+    public Palette loadPALFile(InputStream input) throws IOException{
+        return this.decodePALFile(Palette.read(input, Palette.PAL_LENGTH));
+    }
+
+    /**
+     * Loads the given TPL file into the internal color array.
+     *
+     * @param input the data to load
+     * @return the palette, for chaining
+     * @throws IOException if an I/O error occurs or the file is malformed
+     */
+    public Palette loadTPLFile(InputStream input) throws IOException{
+        return this.decodeTPLFile(Palette.read(input, Palette.TPL_HEADER.length + Palette.SNES_LENGTH));
     }
 
     /**
@@ -251,51 +329,290 @@ public class Palette {
      *
      * @param input the data to load
      * @return the palette, for chaining
-     * @throws IOException if an I/O error occurs
+     * @throws IOException if an I/O error occurs or the file is too short
      */
     public Palette loadMW3File(InputStream input) throws IOException{
-        try(BufferedInputStream stream = new BufferedInputStream(input)) {
-            byte[] palette = new byte[512];
-            int bytes = stream.read(palette);
+        return this.decodeMW3File(Palette.read(input, Palette.SNES_LENGTH));
+    }
 
-            if(bytes < 512){
-                throw new IOException("The given palette file is too short.");
-            }
+    /**
+     * Imports the colors of an image into the internal color array. The
+     * colors of an indexed image are used in order. Otherwise, the colors of
+     * every pixel which isn't fully transparent are quantized, and ordered by
+     * their first appearance. Any remaining colors are set to black.
+     *
+     * @param image the image to import
+     * @return the palette, for chaining
+     */
+    public Palette loadImage(BufferedImage image){
+        int[] colors;
 
-            for(int i = 0; i < 256; i++){
-                this.setSNESColor(i, (palette[i * 2] & 0xFF) | ((palette[i * 2 + 1] & 0xFF) << 8), true);
-            }
+        if(image.getColorModel() instanceof IndexColorModel){
+            IndexColorModel model = (IndexColorModel)image.getColorModel();
+            int[] rgb = new int[model.getMapSize()];
+            model.getRGBs(rgb);
 
-            this.firePaletteUpdate();
+            colors = new int[Math.min(rgb.length, Palette.SIZE)];
+
+            for(int i = 0; i < colors.length; i++){
+                colors[i] = ColorUtils.toBGR555(rgb[i]);
+            }
+        }else{
+            colors = new OctreeQuantizer().add(image).quantize(Palette.SIZE);
         }
 
-        return this;
+        return this.setColors(0, Arrays.copyOf(colors, Palette.SIZE));
     }
 
     /**
-     * Attempts to load the given file into the internal color array.
+     * Attempts to load the given file into the internal color array. The
+     * whole file is read at once.
      *
      * @param file the data to load
      * @return the palette, for chaining
      * @throws IOException if an I/O error occurs or the file is invalid
      */
     public Palette loadFile(File file) throws IOException{
+        if(TypeUtils.isImage(file)){
+            BufferedImage image = ImageIO.read(file);
+
+            if(image == null){
+                throw new IOException("The image couldn't be decoded.");
+            }
+
+            return this.loadImage(image);
+        }
+
         if(!TypeUtils.isPalette(file)){
             throw new IOException("The file is not a palette file.");
         }
 
-        try(FileInputStream stream = new FileInputStream(file)) {
-            String extension = TypeUtils.getExtension(file);
-
-            if(extension.equalsIgnoreCase(TypeUtils.TYPE_RGB_PALETTE)){
-                return this.loadPALFile(stream);
-            }else if(extension.equalsIgnoreCase(TypeUtils.TYPE_TPL_PALETTE)){
-                return this.loadTPLFile(stream);
-            }else if(extension.equalsIgnoreCase(TypeUtils.TYPE_SNES_PALETTE)){
-                return this.loadMW3File(stream);
-            }else{
-                throw new IOException("The file is not a palette file.");
+        String extension = TypeUtils.getExtension(file);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+        if(extension.equalsIgnoreCase(TypeUtils.TYPE_RGB_PALETTE)){
+            return this.decodePALFile(buffer);
+        }else if(extension.equalsIgnoreCase(TypeUtils.TYPE_TPL_PALETTE)){
+            return this.decodeTPLFile(buffer);
+        }else if(extension.equalsIgnoreCase(TypeUtils.TYPE_SNES_PALETTE)){
+            return this.decodeMW3File(buffer);
+        }else{
+            throw new IOException("The file is not a palette file.");
+        }
+    }
+
+    /**
+     * Reads exactly the given amount of bytes from a stream, which is closed
+     * afterwards.
+     *
+     * @param input the stream to read from
+     * @param length the amount of bytes to read
+     * @return a buffer with the bytes which were read
+     * @throws IOException if an I/O error occurs or the stream ends too early
+     */
+    private static ByteBuffer read(InputStream input, int length) throws IOException{
+        try(InputStream stream = input) {
+            byte[] bytes = new byte[length];
+            int offset = 0;
+
+            while(offset < length){
+                int read = stream.read(bytes, offset, length - offset);
+
+                if(read == -1){
+                    throw new IOException("The given palette file is too short.");
+                }
+
+                offset += read;
             }
+
+            return ByteBuffer.wrap(bytes);
+        }
+    }
+
+    /**
+     * Decodes the RGB triples of a PAL file and sets every color at once.
+     *
+     * @param buffer the contents of the file
+     * @return the palette, for chaining
+     * @throws IOException if the file is too short
+     */
+    private Palette decodePALFile(ByteBuffer buffer) throws IOException{
+        if(buffer.remaining() < Palette.PAL_LENGTH){
+            throw new IOException("The given palette file is too short.");
+        }
+
+        int[] colors = new int[Palette.SIZE];
+
+        for(int i = 0; i < colors.length; i++){
+            colors[i] = ColorUtils.toBGR555(buffer.get() & 0xFF, buffer.get() & 0xFF, buffer.get() & 0xFF);
+        }
+
+        return this.setColors(0, colors);
+    }
+
+    /**
+     * Verifies the header of a TPL file and decodes its colors.
+     *
+     * @param buffer the contents of the file
+     * @return the palette, for chaining
+     * @throws IOException if the file is too short or malformed
+     */
+    private Palette decodeTPLFile(ByteBuffer buffer) throws IOException{
+        if(buffer.remaining() < Palette.TPL_HEADER.length + Palette.SNES_LENGTH){
+            throw new IOException("The given palette file is too short.");
+        }
+
+        byte[] header = new byte[Palette.TPL_HEADER.length];
+        buffer.get(header);
+
+        if(!Arrays.equals(header, Palette.TPL_HEADER)){
+            throw new IOException("The given palette file is malformed.");
+        }
+
+        return this.decodeMW3File(buffer);
+    }
+
+    /**
+     * Decodes the little-endian SNES colors of a MW3 file and sets every
+     * color at once.
+     *
+     * @param buffer the contents of the file
+     * @return the palette, for chaining
+     * @throws IOException if the file is too short
+     */
+    private Palette decodeMW3File(ByteBuffer buffer) throws IOException{
+        if(buffer.remaining() < Palette.SNES_LENGTH){
+            throw new IOException("The given palette file is too short.");
+        }
+
+        short[] colors = new short[Palette.SIZE];
+        buffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(colors);
+
+        return this.setColors(0, colors);
+    }
+
+    /**
+     * Writes the palette as a PAL file, which holds a triple of 8-bit RGB
+     * components for every color.
+     *
+     * @param output the stream to write to, which is left open
+     * @throws IOException if an I/O error occurs
+     */
+    public void savePALFile(OutputStream output) throws IOException{
+        output.write(this.encodePALFile().array());
+    }
+
+    /**
+     * Writes the palette as a TPL file, which holds a header followed by
+     * every SNES color.
+     *
+     * @param output the stream to write to, which is left open
+     * @throws IOException if an I/O error occurs
+     */
+    public void saveTPLFile(OutputStream output) throws IOException{
+        output.write(this.encodeTPLFile().array());
+    }
+
+    /**
+     * Writes the palette as a MW3 file, which holds every SNES color
+     * followed by the back area color. The palette has no back area color of
+     * its own, so the first color is used.
+     *
+     * @param output the stream to write to, which is left open
+     * @throws IOException if an I/O error occurs
+     */
+    public void saveMW3File(OutputStream output) throws IOException{
+        output.write(this.encodeMW3File().array());
+    }
+
+    /**
+     * Saves the palette into a file whose format matches its extension. The
+     * file is written to a temporary file first, which then replaces it.
+     *
+     * @param file the file to save to
+     * @throws IOException if an I/O error occurs or the extension isn't a
+     * palette format
+     */
+    public void saveFile(File file) throws IOException{
+        String extension = TypeUtils.getExtension(file);
+        ByteBuffer buffer;
+
+        if(extension.equalsIgnoreCase(TypeUtils.TYPE_RGB_PALETTE)){
+            buffer = this.encodePALFile();
+        }else if(extension.equalsIgnoreCase(TypeUtils.TYPE_TPL_PALETTE)){
+            buffer = this.encodeTPLFile();
+        }else if(extension.equalsIgnoreCase(TypeUtils.TYPE_SNES_PALETTE)){
+            buffer = this.encodeMW3File();
+        }else{
+            throw new IOException("The file is not a palette file.");
+        }
+
+        File temporary = FileUtils.createTemporary(file);
+
+        try {
+            Files.write(temporary.toPath(), buffer.array());
+            FileUtils.replace(temporary, file);
+        }finally{
+            temporary.delete();
+        }
+    }
+
+    /**
+     * Encodes the palette as the contents of a PAL file.
+     *
+     * @return a buffer which wraps the contents
+     */
+    private ByteBuffer encodePALFile(){
+        ByteBuffer buffer = ByteBuffer.allocate(Palette.PAL_LENGTH);
+
+        for(int i = 0; i < Palette.SIZE; i++){
+            int rgb = this.argb[i];
+            buffer.put((byte)(rgb >> 16)).put((byte)(rgb >> 8)).put((byte)rgb);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Encodes the palette as the contents of a TPL file.
+     *
+     * @return a buffer which wraps the contents
+     */
+    private ByteBuffer encodeTPLFile(){
+        ByteBuffer buffer = ByteBuffer.allocate(Palette.TPL_HEADER.length + Palette.SNES_LENGTH);
+        buffer.put(Palette.TPL_HEADER);
+        this.encodeSNESColors(buffer.slice());
+
+        return buffer;
+    }
+
+    /**
+     * Encodes the palette as the contents of a MW3 file.
+     *
+     * @return a buffer which wraps the contents
+     */
+    private ByteBuffer encodeMW3File(){
+        ByteBuffer buffer = ByteBuffer.allocate(Palette.SNES_LENGTH + 2);
+        ShortBuffer colors = this.encodeSNESColors(buffer);
+        colors.put((short)this.getSNESColor(0));
+
+        return buffer;
+    }
+
+    /**
+     * Writes every SNES color as little-endian words at the position of a
+     * buffer.
+     *
+     * @param buffer the buffer to write to
+     * @return a view of the buffer positioned after the colors
+     */
+    private ShortBuffer encodeSNESColors(ByteBuffer buffer){
+        ShortBuffer colors = buffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+
+        for(int i = 0; i < Palette.SIZE; i++){
+            colors.put((short)this.getSNESColor(i));
         }
+
+        return colors;
     }
 }
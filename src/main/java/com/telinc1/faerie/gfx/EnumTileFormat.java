@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gfx;
+
+/**
+ * {@code EnumTileFormat} contains the planar tile formats which graphics can
+ * be stored in. Every format describes 8x8 tiles whose rows are split into
+ * bit planes, with the first two planes of each row interleaved.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public enum EnumTileFormat {
+    /**
+     * Defines 3 bits per pixel tiles, as used by the compressed graphics
+     * files of the original game. The third plane of each row follows the
+     * first sixteen bytes of the tile.
+     */
+    BPP_3(3),
+
+    /**
+     * Defines 4 bits per pixel tiles, as used by sprites in VRAM and by
+     * ExGFX files. The third and fourth planes of each row are interleaved
+     * after the first sixteen bytes of the tile.
+     */
+    BPP_4(4);
+
+    /**
+     * The amount of bit planes of each tile.
+     */
+    private final int planes;
+
+    /**
+     * Constructs an enumeration element.
+     *
+     * @param planes the amount of bit planes of each tile
+     */
+    EnumTileFormat(int planes){
+        this.planes = planes;
+    }
+
+    /**
+     * Returns the amount of bits per pixel.
+     *
+     * @return the amount of bit planes of each tile
+     */
+    public int getPlanes(){
+        return this.planes;
+    }
+
+    /**
+     * Returns the size of a single tile in bytes.
+     *
+     * @return eight bytes for every bit plane
+     */
+    public int getTileSize(){
+        return this.planes * 8;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gfx;
+
+import com.telinc1.faerie.rom.ROMImage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * A {@code GFXFile} holds the raw, uncompressed data of a graphics file,
+ * such as an ExGFX {@code .bin} file or a sheet of tiles read out of a ROM
+ * image.
+ * <p>
+ * The data is never changed after construction, so tiles decoded from the
+ * same {@code GFXFile} can be cached for as long as the file is in use.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class GFXFile {
+    /**
+     * The name of the file, which is only used to describe it.
+     */
+    private final String name;
+
+    /**
+     * The format of the tiles in the file.
+     */
+    private final EnumTileFormat format;
+
+    /**
+     * The raw data of the file.
+     */
+    private final byte[] data;
+
+    /**
+     * Constructs a {@code GFXFile} around existing data. The data is used
+     * directly and must not be changed afterwards.
+     *
+     * @param name a description of the file
+     * @param format the format of the tiles
+     * @param data the raw data
+     */
+    public GFXFile(String name, EnumTileFormat format, byte[] data){
+        this.name = name;
+        this.format = format;
+        this.data = data;
+    }
+
+    /**
+     * Reads an uncompressed 4bpp graphics file, such as an ExGFX
+     * {@code .bin} file.
+     *
+     * @param file the file to read
+     * @return the graphics in the file
+     * @throws IOException if the file can't be read
+     */
+    public static GFXFile read(File file) throws IOException{
+        return new GFXFile(file.getName(), EnumTileFormat.BPP_4, Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Copies uncompressed graphics out of a ROM image.
+     *
+     * @param image the image to read from
+     * @param address the SNES address of the first tile
+     * @param tiles the amount of tiles to read
+     * @param format the format of the tiles
+     * @return the graphics at the address
+     * @throws IndexOutOfBoundsException if the tiles aren't inside the image
+     */
+    public static GFXFile read(ROMImage image, int address, int tiles, EnumTileFormat format){
+        byte[] data = new byte[tiles * format.getTileSize()];
+        image.read(address, data, 0, data.length);
+
+        return new GFXFile(String.format("$%06X", address), format, data);
+    }
+
+    /**
+     * Returns the description of the file.
+     */
+    public String getName(){
+        return this.name;
+    }
+
+    /**
+     * Returns the format of the tiles in the file.
+     */
+    public EnumTileFormat getFormat(){
+        return this.format;
+    }
+
+    /**
+     * Returns the amount of whole tiles in the file.
+     */
+    public int getTileCount(){
+        return this.data.length / this.format.getTileSize();
+    }
+
+    /**
+     * Decodes a single tile of the file.
+     *
+     * @param tile the index of the tile in the file
+     * @param row the palette row to offset the pixels by, from 0 to 15
+     * @param pixels the array of at least 64 pixels to decode into
+     * @throws IndexOutOfBoundsException if the tile isn't in the file
+     * @see TileDecoder#decode(EnumTileFormat, byte[], int, int, byte[])
+     */
+    public void decode(int tile, int row, byte[] pixels){
+        if(tile < 0 || tile >= this.getTileCount()){
+            throw new IndexOutOfBoundsException("Tile out of bounds: " + tile + ".");
+        }
+
+        TileDecoder.decode(this.format, this.data, tile * this.format.getTileSize(), row, pixels);
+    }
+
+    @Override
+    public String toString(){
+        return this.name;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gfx;
+
+import com.telinc1.faerie.rom.EnumCompression;
+import com.telinc1.faerie.rom.LZDecompressor;
+import com.telinc1.faerie.rom.ROMImage;
+import com.telinc1.faerie.util.LRUCache;
+
+import java.io.IOException;
+
+/**
+ * A {@code ROMGraphics} reads the compressed graphics files of a
+ * {@link ROMImage}, both the original {@code GFX00} to {@code GFX31} and the
+ * ExGFX files {@code 80} to {@code FF} which Lunar Magic inserts.
+ * <p>
+ * Decompressed files are kept in a bounded cache keyed by the pointer to
+ * their compressed data, so paging through sprites which share graphics
+ * only decompresses each file once. Files which decompress to exactly
+ * {@code 0xC00} bytes are treated as 3bpp, like the original graphics, and
+ * every other file as 4bpp.
+ * <p>
+ * Lunar Magic can store every graphics file as LZ3 instead of LZ2. Since it
+ * recompresses all of them when the format is changed, the format of the
+ * whole image is detected from {@code GFX00}, which always decompresses to
+ * a full 3bpp file.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class ROMGraphics {
+    /**
+     * The amount of original graphics files which are loaded through the
+     * pointer tables.
+     */
+    public static final int VANILLA_FILES = 0x32;
+
+    /**
+     * The number of the first ExGFX file.
+     */
+    public static final int FIRST_EXGFX = 0x80;
+
+    /**
+     * The number of the last ExGFX file.
+     */
+    public static final int LAST_EXGFX = 0xFF;
+
+    /**
+     * The default amount of decompressed files kept in memory.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 32;
+
+    /**
+     * The SNES address of the low bytes of the pointers to the original
+     * graphics files.
+     */
+    private static final int POINTERS_LOW = 0x00B992;
+
+    /**
+     * The SNES address of the high bytes of the pointers to the original
+     * graphics files.
+     */
+    private static final int POINTERS_HIGH = 0x00B9C4;
+
+    /**
+     * The SNES address of the banks of the pointers to the original graphics
+     * files.
+     */
+    private static final int POINTERS_BANK = 0x00B9F6;
+
+    /**
+     * The SNES address of the table of pointers to the ExGFX files, written
+     * by Lunar Magic.
+     */
+    private static final int EXGFX_POINTERS = 0x0FF600;
+
+    /**
+     * The decompressed size of a full 3bpp graphics file.
+     */
+    private static final int BPP_3_SIZE = 0x80 * 24;
+
+    /**
+     * The image which graphics are read from.
+     */
+    private final ROMImage image;
+
+    /**
+     * The compression format of the graphics in the image.
+     */
+    private final EnumCompression compression;
+
+    /**
+     * The most recently used files, keyed by their SNES address.
+     */
+    private final LRUCache<Integer, GFXFile> cache;
+
+    /**
+     * Constructs a {@code ROMGraphics} with the default cache size, which
+     * detects the compression format of the image.
+     *
+     * @param image the image to read graphics from
+     * @see #detectCompression(ROMImage)
+     */
+    public ROMGraphics(ROMImage image){
+        this(image, ROMGraphics.detectCompression(image), ROMGraphics.DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a {@code ROMGraphics}.
+     *
+     * @param image the image to read graphics from
+     * @param compression the compression format of every graphics file
+     * @param cacheSize the amount of decompressed files kept in memory
+     */
+    public ROMGraphics(ROMImage image, EnumCompression compression, int cacheSize){
+        this.image = image;
+        this.compression = compression;
+        this.cache = new LRUCache<>(cacheSize);
+    }
+
+    /**
+     * Detects the compression format of the graphics in an image by
+     * decompressing {@code GFX00} in each format.
+     *
+     * @param image the image to inspect
+     * @return the format which {@code GFX00} decompresses to a full 3bpp
+     * file in, or {@link EnumCompression#LZ2} if it's neither
+     */
+    public static EnumCompression detectCompression(ROMImage image){
+        int pointer = ROMGraphics.readVanillaPointer(image, 0);
+
+        for(EnumCompression compression : EnumCompression.values()){
+            try {
+                if(LZDecompressor.decompress(image, pointer, compression).length == ROMGraphics.BPP_3_SIZE){
+                    return compression;
+                }
+            }catch(IOException exception){
+                // not compressed in this format
+            }
+        }
+
+        return EnumCompression.LZ2;
+    }
+
+    /**
+     * Reads the pointer to an original graphics file from the pointer
+     * tables.
+     *
+     * @param image the image to read from
+     * @param number the number of the file, below {@link #VANILLA_FILES}
+     * @return the SNES address of the compressed file
+     */
+    private static int readVanillaPointer(ROMImage image, int number){
+        return image.readByte(ROMGraphics.POINTERS_LOW + number)
+            | image.readByte(ROMGraphics.POINTERS_HIGH + number) << 8
+            | image.readByte(ROMGraphics.POINTERS_BANK + number) << 16;
+    }
+
+    /**
+     * Returns the image which graphics are read from.
+     */
+    public ROMImage getImage(){
+        return this.image;
+    }
+
+    /**
+     * Returns the compression format of the graphics in the image.
+     */
+    public EnumCompression getCompression(){
+        return this.compression;
+    }
+
+    /**
+     * Returns the pointer to a graphics file.
+     *
+     * @param number the number of the file
+     * @return the SNES address of the compressed file, or {@code -1} if
+     * there is no such file in the image
+     */
+    public int getPointer(int number){
+        int pointer;
+
+        if(number >= 0 && number < ROMGraphics.VANILLA_FILES){
+            pointer = ROMGraphics.readVanillaPointer(this.image, number);
+        }else if(number >= ROMGraphics.FIRST_EXGFX && number <= ROMGraphics.LAST_EXGFX && this.image.hasLunarMagic()){
+            pointer = this.image.readLong(ROMGraphics.EXGFX_POINTERS + (number - ROMGraphics.FIRST_EXGFX) * 3);
+        }else{
+            return -1;
+        }
+
+        if(pointer == 0 || pointer == 0xFFFFFF || !this.image.contains(pointer, 1)){
+            return -1;
+        }
+
+        return pointer;
+    }
+
+    /**
+     * Returns a graphics file by its number.
+     *
+     * @param number the number of the file
+     * @return the shared decompressed file, or {@code null} if there is no
+     * such file in the image
+     * @throws IOException if the file is malformed
+     */
+    public GFXFile getFile(int number) throws IOException{
+        int pointer = this.getPointer(number);
+        return pointer == -1 ? null : this.getFileAt(pointer);
+    }
+
+    /**
+     * Returns the graphics file whose compressed data is at an address.
+     *
+     * @param pointer the SNES address of the compressed data
+     * @return the shared decompressed file
+     * @throws IOException if the address is outside the image or the file
+     * is malformed
+     */
+    public synchronized GFXFile getFileAt(int pointer) throws IOException{
+        GFXFile file = this.cache.get(pointer);
+
+        if(file == null){
+            byte[] data = LZDecompressor.decompress(this.image, pointer, this.compression);
+            EnumTileFormat format = data.length == ROMGraphics.BPP_3_SIZE ? EnumTileFormat.BPP_3 : EnumTileFormat.BPP_4;
+
+            file = new GFXFile(String.format("$%06X", pointer), format, data);
+            this.cache.put(pointer, file);
+        }
+
+        return file;
+    }
+
+    /**
+     * Forgets every decompressed file.
+     */
+    public synchronized void clear(){
+        this.cache.clear();
+    }
+}
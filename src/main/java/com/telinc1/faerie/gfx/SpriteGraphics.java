@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gfx;
+
+import com.telinc1.faerie.rom.ROMImage;
+import com.telinc1.faerie.util.TypeUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A {@code SpriteGraphics} holds the four graphics files which sprites can
+ * use at once, {@code SP1} to {@code SP4}, and resolves sprite tile numbers
+ * into decoded tiles through a {@link TileCache}.
+ * <p>
+ * Sprite tile numbers go from {@code 0x000} to {@code 0x1FF}. Every file
+ * covers a block of {@code 0x80} consecutive tiles, so the tiles of a file
+ * are laid out as eight rows of sixteen tiles each.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class SpriteGraphics {
+    /**
+     * The amount of graphics files which sprites can use at once.
+     */
+    public static final int FILES = 4;
+
+    /**
+     * The amount of tiles in each graphics file.
+     */
+    public static final int TILES_PER_FILE = 0x80;
+
+    /**
+     * The graphics files which the first sprite set of the original game
+     * uses, from {@code SP1} to {@code SP4}.
+     */
+    private static final int[] DEFAULT_FILES = {0x00, 0x01, 0x13, 0x02};
+
+    /**
+     * The graphics files, some of which may be {@code null}.
+     */
+    private final GFXFile[] files;
+
+    /**
+     * The cache of decoded tiles.
+     */
+    private final TileCache cache;
+
+    /**
+     * Constructs a {@code SpriteGraphics} from already loaded files.
+     *
+     * @param files the files from {@code SP1} to {@code SP4}, any of which
+     * may be {@code null}
+     * @throws IllegalArgumentException if there aren't exactly four files
+     */
+    public SpriteGraphics(GFXFile... files){
+        if(files.length != SpriteGraphics.FILES){
+            throw new IllegalArgumentException("Exactly " + SpriteGraphics.FILES + " graphics files are required.");
+        }
+
+        this.files = files.clone();
+        this.cache = new TileCache();
+    }
+
+    /**
+     * Loads the graphics files of the first sprite set out of a ROM image.
+     *
+     * @param graphics the graphics of the ROM image
+     * @return the sprite graphics
+     * @throws IOException if any of the files is malformed
+     */
+    public static SpriteGraphics load(ROMGraphics graphics) throws IOException{
+        GFXFile[] files = new GFXFile[SpriteGraphics.FILES];
+
+        for(int i = 0; i < files.length; i++){
+            files[i] = graphics.getFile(SpriteGraphics.DEFAULT_FILES[i]);
+        }
+
+        return new SpriteGraphics(files);
+    }
+
+    /**
+     * Loads sprite graphics from files. A single ROM image provides the
+     * files of its first sprite set, while uncompressed graphics files are
+     * used as {@code SP1} to {@code SP4} in the given order.
+     *
+     * @param files a ROM image or up to four graphics files
+     * @return the sprite graphics
+     * @throws IOException if any of the files can't be read or is malformed
+     * @throws IllegalArgumentException if there are no files, too many
+     * files, or a ROM image alongside other files
+     */
+    public static SpriteGraphics read(File... files) throws IOException{
+        if(files.length == 0 || files.length > SpriteGraphics.FILES){
+            throw new IllegalArgumentException("Between one and " + SpriteGraphics.FILES + " graphics files are required.");
+        }
+
+        if(Arrays.stream(files).anyMatch(TypeUtils::isROM)){
+            if(files.length > 1){
+                throw new IllegalArgumentException("A ROM image can't be combined with other graphics files.");
+            }
+
+            return SpriteGraphics.load(new ROMGraphics(ROMImage.read(files[0])));
+        }
+
+        GFXFile[] graphics = new GFXFile[SpriteGraphics.FILES];
+
+        for(int i = 0; i < files.length; i++){
+            graphics[i] = GFXFile.read(files[i]);
+        }
+
+        return new SpriteGraphics(graphics);
+    }
+
+    /**
+     * Returns one of the graphics files.
+     *
+     * @param index the index of the file, from 0 for {@code SP1} to 3 for
+     * {@code SP4}
+     * @return the file, or {@code null} if it isn't loaded
+     */
+    public GFXFile getFile(int index){
+        return this.files[index];
+    }
+
+    /**
+     * Returns the decoded pixels of a single 8x8 tile.
+     *
+     * @param tile the sprite tile number, from {@code 0x000} to
+     * {@code 0x1FF}
+     * @param row the palette row to offset the pixels by, from 0 to 15
+     * @return the shared pixels of the tile, or {@code null} if its file
+     * isn't loaded or is too short
+     * @see TileCache#getTile(GFXFile, int, int)
+     */
+    public byte[] getTile(int tile, int row){
+        int index = (tile >> 7) & 3;
+        int offset = tile & (SpriteGraphics.TILES_PER_FILE - 1);
+
+        GFXFile file = this.files[index];
+
+        if(file == null || offset >= file.getTileCount()){
+            return null;
+        }
+
+        return this.cache.getTile(file, offset, row);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gfx;
+
+import com.telinc1.faerie.util.LRUCache;
+
+/**
+ * A {@code TileCache} keeps the most recently used decoded tiles in memory,
+ * so that redrawing the same tiles never decodes them again.
+ * <p>
+ * Tiles are keyed by the {@link GFXFile} they come from, their index in
+ * that file and the palette row they were decoded with. Files are compared
+ * by identity, as their data never changes. The returned pixels are shared
+ * by everyone who requests the same tile and must not be changed.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class TileCache {
+    /**
+     * The default amount of tiles kept in memory, which is enough for four
+     * full sprite graphics files in every palette row.
+     */
+    public static final int DEFAULT_CAPACITY = 0x2000;
+
+    /**
+     * The most recently used tiles.
+     */
+    private final LRUCache<Key, byte[]> tiles;
+
+    /**
+     * Constructs a cache with the default capacity.
+     */
+    public TileCache(){
+        this(TileCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param capacity the maximum amount of tiles kept in memory
+     * @throws IllegalArgumentException if the capacity isn't positive
+     */
+    public TileCache(int capacity){
+        this.tiles = new LRUCache<>(capacity);
+    }
+
+    /**
+     * Returns the decoded pixels of a tile, decoding it if it isn't cached.
+     *
+     * @param source the file which holds the tile
+     * @param tile the index of the tile in the file
+     * @param row the palette row to offset the pixels by, from 0 to 15
+     * @return the shared pixels of the tile
+     * @throws IndexOutOfBoundsException if the tile isn't in the file
+     * @see TileDecoder#decode(EnumTileFormat, byte[], int, int, byte[])
+     */
+    public synchronized byte[] getTile(GFXFile source, int tile, int row){
+        Key key = new Key(source, tile, row & 0xF);
+        byte[] pixels = this.tiles.get(key);
+
+        if(pixels == null){
+            pixels = new byte[TileDecoder.PIXELS];
+            source.decode(tile, row, pixels);
+            this.tiles.put(key, pixels);
+        }
+
+        return pixels;
+    }
+
+    /**
+     * Returns the amount of cached tiles.
+     */
+    public synchronized int size(){
+        return this.tiles.size();
+    }
+
+    /**
+     * Forgets every cached tile.
+     */
+    public synchronized void clear(){
+        this.tiles.clear();
+    }
+
+    /**
+     * The key of a cached tile.
+     */
+    private static final class Key {
+        /**
+         * The file which holds the tile.
+         */
+        private final GFXFile source;
+
+        /**
+         * The index of the tile in the file and the palette row, packed
+         * together.
+         */
+        private final int tile;
+
+        /**
+         * Constructs a key.
+         *
+         * @param source the file which holds the tile
+         * @param tile the index of the tile in the file
+         * @param row the palette row
+         */
+        private Key(GFXFile source, int tile, int row){
+            this.source = source;
+            this.tile = (tile << 4) | row;
+        }
+
+        @Override
+        public boolean equals(Object object){
+            if(!(object instanceof Key)){
+                return false;
+            }
+
+            Key key = (Key)object;
+            return this.source == key.source && this.tile == key.tile;
+        }
+
+        @Override
+        public int hashCode(){
+            return System.identityHashCode(this.source) * 31 + this.tile;
+        }
+    }
+}
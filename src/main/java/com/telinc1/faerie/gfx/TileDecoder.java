@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gfx;
+
+/**
+ * The {@code TileDecoder} static class decodes planar SNES tiles into
+ * indexed pixels.
+ * <p>
+ * Every possible byte of a bit plane is spread out once into a lookup
+ * table, which puts each of its eight bits into the lowest bit of its own
+ * nibble. A whole row of a tile is then decoded by shifting and combining
+ * one table entry per plane, so no pixel is assembled bit by bit.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public final class TileDecoder {
+    /**
+     * The width and height of a tile in pixels.
+     */
+    public static final int TILE_SIZE = 8;
+
+    /**
+     * The amount of pixels in a tile.
+     */
+    public static final int PIXELS = TileDecoder.TILE_SIZE * TileDecoder.TILE_SIZE;
+
+    /**
+     * The amount of colors in a palette row.
+     */
+    public static final int ROW_SIZE = 16;
+
+    /**
+     * Each byte of a bit plane with every bit moved into its own nibble. The
+     * leftmost pixel, which is the highest bit, ends up in the lowest nibble.
+     */
+    private static final int[] SPREAD = new int[0x100];
+
+    static {
+        for(int value = 0; value < TileDecoder.SPREAD.length; value++){
+            int spread = 0;
+
+            for(int x = 0; x < TileDecoder.TILE_SIZE; x++){
+                spread |= ((value >> (7 - x)) & 1) << (x * 4);
+            }
+
+            TileDecoder.SPREAD[value] = spread;
+        }
+    }
+
+    /**
+     * Decodes a single tile.
+     * <p>
+     * Each decoded pixel is the index of its color in the whole palette,
+     * which is the color inside the tile offset by the palette row. Pixels
+     * whose lower four bits are zero are transparent.
+     *
+     * @param format the format of the tile
+     * @param data the raw graphics data
+     * @param offset the offset of the tile in the data
+     * @param row the palette row to offset the pixels by, from 0 to 15
+     * @param pixels the array of at least 64 pixels to decode into, row by
+     * row
+     * @throws ArrayIndexOutOfBoundsException if the tile isn't inside the
+     * data or there's not enough space for its pixels
+     */
+    public static void decode(EnumTileFormat format, byte[] data, int offset, int row, byte[] pixels){
+        int base = (row & 0xF) * TileDecoder.ROW_SIZE;
+
+        for(int y = 0; y < TileDecoder.TILE_SIZE; y++){
+            int planes = TileDecoder.SPREAD[data[offset + y * 2] & 0xFF]
+                | TileDecoder.SPREAD[data[offset + y * 2 + 1] & 0xFF] << 1;
+
+            if(format == EnumTileFormat.BPP_4){
+                planes |= TileDecoder.SPREAD[data[offset + 16 + y * 2] & 0xFF] << 2
+                    | TileDecoder.SPREAD[data[offset + 17 + y * 2] & 0xFF] << 3;
+            }else{
+                planes |= TileDecoder.SPREAD[data[offset + 16 + y] & 0xFF] << 2;
+            }
+
+            int start = y * TileDecoder.TILE_SIZE;
+
+            for(int x = 0; x < TileDecoder.TILE_SIZE; x++){
+                pixels[start + x] = (byte)(base | ((planes >>> (x * 4)) & 0xF));
+            }
+        }
+    }
+
+    /**
+     * Checks whether a decoded pixel is transparent.
+     *
+     * @param pixel the decoded pixel
+     * @return whether the pixel uses the first color of its palette row
+     */
+    public static boolean isTransparent(byte pixel){
+        return (pixel & 0xF) == 0;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gui;
+
+import com.telinc1.faerie.Resources;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.RasterFormatException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * A {@code ClippingAtlas} holds the images of every object and sprite
+ * clipping. The images are packed into a single atlas, which is decoded
+ * once, and each clipping is a sub-image which shares the pixels of the
+ * atlas.
+ * <p>
+ * The atlas is accompanied by an index with the bounds of each image, one
+ * {@code x,y,width,height} line per clipping, starting with the object
+ * clippings and followed by the sprite clippings. Both are generated from
+ * the source images by {@link ClippingPacker}.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class ClippingAtlas {
+    /**
+     * The amount of object clippings.
+     */
+    public static final int OBJECT_CLIPPINGS = 0x10;
+
+    /**
+     * The amount of sprite clippings.
+     */
+    public static final int SPRITE_CLIPPINGS = 0x40;
+
+    /**
+     * The image of each object clipping.
+     */
+    private final BufferedImage[] objectClippings;
+
+    /**
+     * The image of each sprite clipping.
+     */
+    private final BufferedImage[] spriteClippings;
+
+    /**
+     * Constructs a {@code ClippingAtlas} from already split images.
+     *
+     * @param objectClippings the image of each object clipping
+     * @param spriteClippings the image of each sprite clipping
+     */
+    private ClippingAtlas(BufferedImage[] objectClippings, BufferedImage[] spriteClippings){
+        this.objectClippings = objectClippings;
+        this.spriteClippings = spriteClippings;
+    }
+
+    /**
+     * Loads the atlas and its index from the application's resources.
+     *
+     * @return the loaded atlas
+     * @throws IOException if either resource can't be read or the index is
+     * malformed
+     */
+    public static ClippingAtlas load() throws IOException{
+        BufferedImage atlas;
+
+        try(InputStream input = Resources.getResource("images/clipping.png")) {
+            atlas = ImageIO.read(input);
+        }
+
+        if(atlas == null){
+            throw new IOException("The clipping atlas couldn't be decoded.");
+        }
+
+        BufferedImage[] objectClippings = new BufferedImage[ClippingAtlas.OBJECT_CLIPPINGS];
+        BufferedImage[] spriteClippings = new BufferedImage[ClippingAtlas.SPRITE_CLIPPINGS];
+
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(Resources.getResource("data/clipping.txt")))) {
+            for(int i = 0; i < objectClippings.length; i++){
+                objectClippings[i] = ClippingAtlas.readImage(reader, atlas);
+            }
+
+            for(int i = 0; i < spriteClippings.length; i++){
+                spriteClippings[i] = ClippingAtlas.readImage(reader, atlas);
+            }
+        }
+
+        return new ClippingAtlas(objectClippings, spriteClippings);
+    }
+
+    /**
+     * Reads the bounds of the next image from the index and cuts it out of
+     * the atlas.
+     *
+     * @param reader the reader of the index
+     * @param atlas the whole atlas
+     * @return the image, which shares the pixels of the atlas
+     * @throws IOException if the index ends early or the bounds are
+     * malformed
+     */
+    private static BufferedImage readImage(BufferedReader reader, BufferedImage atlas) throws IOException{
+        String line = reader.readLine();
+
+        if(line == null){
+            throw new IOException("The clipping index ends early.");
+        }
+
+        String[] bounds = line.split(",");
+
+        if(bounds.length != 4){
+            throw new IOException("Malformed clipping bounds: " + line + ".");
+        }
+
+        try {
+            return atlas.getSubimage(
+                Integer.parseInt(bounds[0].trim()),
+                Integer.parseInt(bounds[1].trim()),
+                Integer.parseInt(bounds[2].trim()),
+                Integer.parseInt(bounds[3].trim())
+            );
+        }catch(IllegalArgumentException | RasterFormatException exception){
+            throw new IOException("Malformed clipping bounds: " + line + ".", exception);
+        }
+    }
+
+    /**
+     * Returns the image of an object clipping.
+     *
+     * @param index the object clipping, from {@code 0x0} to {@code 0xF}
+     * @return the image of the clipping
+     * @throws ArrayIndexOutOfBoundsException if the clipping doesn't exist
+     */
+    public BufferedImage getObjectClipping(int index){
+        return this.objectClippings[index];
+    }
+
+    /**
+     * Returns the image of a sprite clipping.
+     *
+     * @param index the sprite clipping, from {@code 0x00} to {@code 0x3F}
+     * @return the image of the clipping
+     * @throws ArrayIndexOutOfBoundsException if the clipping doesn't exist
+     */
+    public BufferedImage getSpriteClipping(int index){
+        return this.spriteClippings[index];
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gui;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A {@code ClippingPacker} packs the source image of every clipping into the
+ * atlas and index which are read by {@link ClippingAtlas}. It's only used
+ * while building, through the {@code clipping} profile:
+ * <pre>mvn -P clipping process-classes</pre>
+ * <p>
+ * The sources are {@code object/XX.png} and {@code sprite/XX.png} in
+ * {@code src/main/clipping}, named after the hexadecimal clipping number.
+ * They're placed on shelves from the tallest to the shortest, in an atlas
+ * which is {@value #WIDTH} pixels wide.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class ClippingPacker {
+    /**
+     * The width of the atlas in pixels.
+     */
+    public static final int WIDTH = 256;
+
+    /**
+     * Packs the clippings and writes the atlas and its index.
+     *
+     * @param args the source directory, the atlas image to write and the
+     * index to write
+     * @throws IOException if a source can't be read or an output can't be
+     * written
+     */
+    public static void main(String[] args) throws IOException{
+        if(args.length != 3){
+            throw new IllegalArgumentException("Usage: ClippingPacker <source directory> <atlas> <index>");
+        }
+
+        File source = new File(args[0]);
+        BufferedImage[] images = new BufferedImage[ClippingAtlas.OBJECT_CLIPPINGS + ClippingAtlas.SPRITE_CLIPPINGS];
+
+        for(int i = 0; i < images.length; i++){
+            boolean object = i < ClippingAtlas.OBJECT_CLIPPINGS;
+            int number = object ? i : i - ClippingAtlas.OBJECT_CLIPPINGS;
+
+            images[i] = ClippingPacker.readImage(new File(source, String.format("%s/%02X.png", object ? "object" : "sprite", number)));
+        }
+
+        int[][] bounds = ClippingPacker.pack(images);
+        BufferedImage atlas = ClippingPacker.draw(images, bounds);
+
+        if(!ImageIO.write(atlas, "png", new File(args[1]))){
+            throw new IOException("No PNG writer is available.");
+        }
+
+        try(PrintWriter writer = new PrintWriter(new File(args[2]), StandardCharsets.UTF_8.name())) {
+            for(int[] rectangle : bounds){
+                writer.print(rectangle[0] + "," + rectangle[1] + "," + rectangle[2] + "," + rectangle[3] + "\n");
+            }
+        }
+    }
+
+    /**
+     * Reads a single source image.
+     *
+     * @param file the image to read
+     * @return the decoded image
+     * @throws IOException if the image can't be read or decoded
+     */
+    private static BufferedImage readImage(File file) throws IOException{
+        BufferedImage image = ImageIO.read(file);
+
+        if(image == null){
+            throw new IOException("The clipping " + file + " couldn't be decoded.");
+        }
+
+        return image;
+    }
+
+    /**
+     * Places every image on a shelf of the atlas. Images are sorted from the
+     * tallest to the shortest and each shelf is as tall as its first image.
+     *
+     * @param images the images to place
+     * @return the {@code x, y, width, height} bounds of each image, in the
+     * order of the given images
+     */
+    private static int[][] pack(BufferedImage[] images){
+        Integer[] order = new Integer[images.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> images[i].getHeight()).reversed());
+
+        int[][] bounds = new int[images.length][];
+        int x = 0;
+        int y = 0;
+        int shelf = 0;
+
+        for(int i : order){
+            BufferedImage image = images[i];
+
+            if(image.getWidth() > ClippingPacker.WIDTH){
+                throw new IllegalArgumentException("A clipping is wider than the atlas.");
+            }
+
+            if(x + image.getWidth() > ClippingPacker.WIDTH){
+                x = 0;
+                y += shelf;
+                shelf = 0;
+            }
+
+            bounds[i] = new int[]{x, y, image.getWidth(), image.getHeight()};
+            x += image.getWidth();
+            shelf = Math.max(shelf, image.getHeight());
+        }
+
+        return bounds;
+    }
+
+    /**
+     * Draws every image into a new atlas.
+     *
+     * @param images the images to draw
+     * @param bounds the bounds of each image
+     * @return the atlas
+     */
+    private static BufferedImage draw(BufferedImage[] images, int[][] bounds){
+        int height = Arrays.stream(bounds).mapToInt(rectangle -> rectangle[1] + rectangle[3]).max().orElse(1);
+        BufferedImage atlas = new BufferedImage(ClippingPacker.WIDTH, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = atlas.createGraphics();
+
+        // copy transparent pixels as they are instead of blending them
+        graphics.setComposite(AlphaComposite.Src);
+
+        for(int i = 0; i < images.length; i++){
+            graphics.drawImage(images[i], bounds[i][0], bounds[i][1], null);
+        }
+
+        graphics.dispose();
+        return atlas;
+    }
+}
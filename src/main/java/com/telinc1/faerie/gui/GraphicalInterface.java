@@ -26,23 +26,40 @@ import com.telinc1.faerie.Application;
 import com.telinc1.faerie.Notifier;
 import com.telinc1.faerie.Resources;
 import com.telinc1.faerie.UserInterface;
+import com.telinc1.faerie.display.LevelPaletteExtractor;
 import com.telinc1.faerie.display.Palette;
+import com.telinc1.faerie.gfx.ROMGraphics;
+import com.telinc1.faerie.gfx.SpriteGraphics;
 import com.telinc1.faerie.gui.main.MainWindow;
+import com.telinc1.faerie.rom.ROMImage;
 import com.telinc1.faerie.sprite.Sprite;
 import com.telinc1.faerie.sprite.SpriteBehavior;
+import com.telinc1.faerie.sprite.history.EditHistory;
 import com.telinc1.faerie.sprite.provider.ConfigurationProvider;
+import com.telinc1.faerie.sprite.provider.DirectoryProvider;
+import com.telinc1.faerie.sprite.provider.ListProvider;
 import com.telinc1.faerie.sprite.provider.LoadingException;
 import com.telinc1.faerie.sprite.provider.Provider;
+import com.telinc1.faerie.sprite.provider.ProvisionException;
 import com.telinc1.faerie.sprite.provider.ROMProvider;
 import com.telinc1.faerie.sprite.provider.SavingException;
+import com.telinc1.faerie.sprite.provider.SpriteLoader;
+import com.telinc1.faerie.sprite.provider.ZipProvider;
 import com.telinc1.faerie.util.TypeUtils;
 import com.telinc1.faerie.util.locale.LocalizedException;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * This class manages the {@link MainWindow}, a Swing-based graphical user
@@ -62,6 +79,50 @@ public class GraphicalInterface extends UserInterface {
      */
     private Palette palette;
 
+    /**
+     * The images of the object and sprite clippings, which are loaded once
+     * while the interface is initialized.
+     */
+    private ClippingAtlas clippingAtlas;
+
+    /**
+     * The graphics which the sprite preview draws with, if any.
+     */
+    private SpriteGraphics spriteGraphics;
+
+    /**
+     * The files which the user picked as the source of the sprite graphics,
+     * or {@code null} to use the graphics of the loaded ROM.
+     */
+    private File[] graphicsFiles;
+
+    /**
+     * A counter of graphics loads, used to discard graphics which finish
+     * loading after another source has been picked.
+     */
+    private int graphicsRequest;
+
+    /**
+     * The extractor of level palettes from the image of the loaded ROM, if
+     * a palette was loaded from it.
+     */
+    private volatile LevelPaletteExtractor levelPalettes;
+
+    /**
+     * The edit history of the currently loaded provider.
+     */
+    private EditHistory history;
+
+    /**
+     * The background loader of the currently loaded provider.
+     */
+    private SpriteLoader loader;
+
+    /**
+     * The save which is currently running, if any.
+     */
+    private SaveWorker saving;
+
     /**
      * Creates a new {@code GraphicalInterface} for the given application.
      */
@@ -83,12 +144,31 @@ public class GraphicalInterface extends UserInterface {
             this.getNotifier().warn("core", "launch.lookAndFeel", exception);
         }
 
+        // decode the atlas while the rest of the interface is being set up
+        CompletableFuture<ClippingAtlas> clippingAtlas = CompletableFuture.supplyAsync(() -> {
+            try {
+                return ClippingAtlas.load();
+            }catch(IOException exception){
+                throw new LocalizedException(exception, "core", "launch.clipping");
+            }
+        });
+
         this.palette = new Palette();
         this.loadDefaultPalette();
 
         ROMProvider.populateSpriteList();
 
         this.window = new MainWindow(this);
+
+        try {
+            this.clippingAtlas = clippingAtlas.join();
+        }catch(CompletionException exception){
+            if(exception.getCause() instanceof LocalizedException){
+                throw (LocalizedException)exception.getCause();
+            }
+
+            throw exception;
+        }
     }
 
     @Override
@@ -115,23 +195,26 @@ public class GraphicalInterface extends UserInterface {
     }
 
     /**
-     * Starts a modification on the current sprite.
+     * Modifies the current sprite.
      *
-     * @return the {@link Sprite} which can be modified
+     * @param modification the function which changes the {@link Sprite}
      * @throws NullPointerException if there is no active provider
+     * @see Provider#modify(Consumer)
      */
-    public Sprite startModification(){
-        return this.getProvider().startModification();
+    public void modify(Consumer<Sprite> modification){
+        this.getProvider().modify(modification);
     }
 
     /**
-     * Starts a modification on the current sprite's behavior.
+     * Modifies the current sprite's behavior.
      *
-     * @return the {@link SpriteBehavior} which can be modified
+     * @param modification the function which changes the
+     * {@link SpriteBehavior}
      * @throws NullPointerException if there is no active provider
+     * @see Provider#modify(Consumer)
      */
-    public SpriteBehavior modifyBehavior(){
-        return this.getProvider().startModification().getBehavior();
+    public void modifyBehavior(Consumer<SpriteBehavior> modification){
+        this.getProvider().modify(sprite -> modification.accept(sprite.getBehavior()));
     }
 
     /**
@@ -141,10 +224,10 @@ public class GraphicalInterface extends UserInterface {
      * @param index the new object clipping
      */
     public void setObjectClipping(int index){
-        index = Math.max(Math.min(index, 0xF), 0x0);
+        int clipping = Math.max(Math.min(index, 0xF), 0x0);
 
-        if(this.getProvider() != null && this.getProvider().getCurrentSprite().getBehavior().objectClipping != index){
-            this.modifyBehavior().objectClipping = (byte)index;
+        if(this.getProvider() != null && this.getProvider().getCurrentSprite().getBehavior().getObjectClipping() != clipping){
+            this.modifyBehavior(behavior -> behavior.setObjectClipping(clipping));
         }
 
         this.getWindow().updateObjectClipping();
@@ -157,10 +240,10 @@ public class GraphicalInterface extends UserInterface {
      * @param index the new sprite clipping
      */
     public void setSpriteClipping(int index){
-        index = Math.max(Math.min(index, 0x3F), 0x0);
+        int clipping = Math.max(Math.min(index, 0x3F), 0x0);
 
-        if(this.getProvider() != null && this.getProvider().getCurrentSprite().getBehavior().spriteClipping != index){
-            this.modifyBehavior().spriteClipping = (byte)index;
+        if(this.getProvider() != null && this.getProvider().getCurrentSprite().getBehavior().getSpriteClipping() != clipping){
+            this.modifyBehavior(behavior -> behavior.setSpriteClipping(clipping));
         }
 
         this.getWindow().updateSpriteClipping();
@@ -173,10 +256,10 @@ public class GraphicalInterface extends UserInterface {
      * @param palette the new palette
      */
     public void setSpritePalette(int palette){
-        palette = Math.max(Math.min(palette, 0x7), 0x0);
+        int clamped = Math.max(Math.min(palette, 0x7), 0x0);
 
-        if(this.getProvider() != null && this.getProvider().getCurrentSprite().getBehavior().palette != palette){
-            this.modifyBehavior().palette = (byte)palette;
+        if(this.getProvider() != null && this.getProvider().getCurrentSprite().getBehavior().getPalette() != clamped){
+            this.modifyBehavior(behavior -> behavior.setPalette(clamped));
         }
 
         this.getWindow().updatePalette();
@@ -189,9 +272,166 @@ public class GraphicalInterface extends UserInterface {
         return this.palette;
     }
 
+    /**
+     * Returns the images of the object and sprite clippings.
+     *
+     * @return the clipping atlas
+     */
+    public ClippingAtlas getClippingAtlas(){
+        return this.clippingAtlas;
+    }
+
+    /**
+     * Checks whether level palettes can be loaded, which is the case while
+     * a ROM is loaded.
+     *
+     * @return whether {@link #loadLevelPalette(int)} can be used
+     */
+    public boolean hasLevelPalettes(){
+        return this.getProvider() instanceof ROMProvider;
+    }
+
+    /**
+     * Extracts the palette of a level from the loaded ROM in the background
+     * and copies it into the interface's internal palette once it's ready.
+     * Errors are shown to the user.
+     *
+     * @param level the number of the level, from {@code 0x000} to
+     * {@code 0x1FF}
+     * @throws IllegalStateException if no ROM is loaded
+     */
+    public void loadLevelPalette(int level){
+        if(!this.hasLevelPalettes()){
+            throw new IllegalStateException("Level palettes can only be loaded from a ROM.");
+        }
+
+        ROMProvider provider = (ROMProvider)this.getProvider();
+
+        CompletableFuture.supplyAsync(() -> {
+            LevelPaletteExtractor extractor = this.levelPalettes;
+
+            try {
+                // the image is read again after the ROM is saved
+                ROMImage image = provider.getImage();
+
+                if(extractor == null || extractor.getImage() != image){
+                    extractor = new LevelPaletteExtractor(image);
+                    this.levelPalettes = extractor;
+                }
+            }catch(ProvisionException exception){
+                throw new CompletionException(exception);
+            }
+
+            // the extracted palette is shared, so only its colors are taken
+            Palette palette = extractor.getPalette(level);
+            int[] colors = new int[Palette.SIZE];
+
+            for(int i = 0; i < colors.length; i++){
+                colors[i] = palette.getSNESColor(i);
+            }
+
+            return colors;
+        }).whenComplete((colors, throwable) -> SwingUtilities.invokeLater(() -> {
+            if(throwable != null){
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                this.getApplication().getExceptionHandler().report(cause, true);
+                this.getNotifier().error(this.getWindow(), "palette", "level", "message", cause.getMessage());
+                return;
+            }
+
+            this.getPalette().setColors(0, colors);
+        }));
+    }
+
+    /**
+     * Returns the graphics which the sprite preview draws with, or
+     * {@code null} if none have been loaded.
+     */
+    public SpriteGraphics getSpriteGraphics(){
+        return this.spriteGraphics;
+    }
+
+    /**
+     * Loads the sprite graphics from files which the user picked, which are
+     * used for every provider from now on. Uncompressed graphics files are
+     * used as {@code SP1} to {@code SP4} in the order of their names.
+     *
+     * @param files a ROM image or up to four graphics files
+     * @see SpriteGraphics#read(File...)
+     */
+    public void loadSpriteGraphics(File... files){
+        File[] sorted = files.clone();
+        Arrays.sort(sorted, Comparator.comparing(File::getName, String.CASE_INSENSITIVE_ORDER));
+
+        this.graphicsFiles = sorted;
+        this.reloadSpriteGraphics(null);
+    }
+
+    /**
+     * Loads the sprite graphics in the background and displays them once
+     * they're ready. The files picked by the user take precedence over the
+     * graphics of a ROM provider. Errors are only shown for files which the
+     * user picked and are reported silently otherwise.
+     *
+     * @param provider the provider which was just loaded, if any
+     */
+    private void reloadSpriteGraphics(Provider provider){
+        File[] files = this.graphicsFiles;
+        int request = ++this.graphicsRequest;
+
+        if(files == null){
+            // the graphics of the previous ROM don't apply anymore
+            this.spriteGraphics = null;
+
+            if(!(provider instanceof ROMProvider)){
+                return;
+            }
+        }
+
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                if(files == null){
+                    return SpriteGraphics.load(new ROMGraphics(((ROMProvider)provider).getImage()));
+                }
+
+                return SpriteGraphics.read(files);
+            }catch(ProvisionException | IOException exception){
+                throw new CompletionException(exception);
+            }
+        }).whenComplete((graphics, throwable) -> SwingUtilities.invokeLater(() -> {
+            if(request != this.graphicsRequest){
+                return;
+            }
+
+            if(throwable != null){
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                this.getApplication().getExceptionHandler().report(cause, true);
+
+                if(files != null){
+                    this.getNotifier().error(this.getWindow(), "chooser", "graphics", "message", cause.getMessage());
+                }
+
+                return;
+            }
+
+            this.spriteGraphics = graphics;
+
+            if(this.getProvider() != null){
+                this.getWindow().updateDisplay();
+            }
+        }));
+    }
+
     @Override
     public void openFile(File file){
-        if(TypeUtils.isConfiguration(file)){
+        if(file.isDirectory()){
+            try {
+                DirectoryProvider provider = new DirectoryProvider(file);
+                this.setProvider(provider);
+            }catch(LoadingException exception){
+                this.getApplication().getExceptionHandler().handle(exception);
+            }
+        }else if(TypeUtils.isConfiguration(file)){
             ConfigurationProvider provider = new ConfigurationProvider(file);
             this.setProvider(provider);
         }else if(TypeUtils.isROM(file)){
@@ -201,6 +441,20 @@ public class GraphicalInterface extends UserInterface {
             }catch(LoadingException exception){
                 this.getApplication().getExceptionHandler().handle(exception);
             }
+        }else if(TypeUtils.isArchive(file)){
+            try {
+                ZipProvider provider = new ZipProvider(file);
+                this.setProvider(provider);
+            }catch(LoadingException exception){
+                this.getApplication().getExceptionHandler().handle(exception);
+            }
+        }else if(TypeUtils.isSpriteList(file)){
+            try {
+                ListProvider provider = new ListProvider(file);
+                this.setProvider(provider);
+            }catch(LoadingException exception){
+                this.getApplication().getExceptionHandler().handle(exception);
+            }
         }else{
             this.getNotifier().error(this.getWindow(), "file", "load.type");
         }
@@ -215,41 +469,89 @@ public class GraphicalInterface extends UserInterface {
             return;
         }
 
-        Provider replacement = null;
+        if(this.isSaving()){
+            return;
+        }
+
+        if(file == null){
+            file = provider.getInput();
+        }
+
+        if(file == null){
+            file = this.getWindow().showSaveDialog();
 
-        try {
             if(file == null){
-                File input = provider.getInput();
-
-                if(input != null){
-                    replacement = provider.save(input);
-                }else{
-                    File save = this.getWindow().showSaveDialog();
-
-                    if(save != null){
-                        replacement = provider.save(save);
-                    }else{
-                        return;
-                    }
-                }
-            }else{
-                replacement = provider.save(file);
+                return;
             }
-        }catch(SavingException exception){
-            this.getApplication().getExceptionHandler().report(exception);
+        }
 
-            String message = exception.getMessage();
+        // the provider can't be edited until the save is done
+        this.getWindow().lockInput();
 
-            if(exception.getCause() != null){
-                message += " (" + exception.getCause().getClass().getName() + ")";
-            }
+        this.saving = new SaveWorker(this, provider, file);
+        this.saving.execute();
+    }
+
+    /**
+     * Finishes a save once its worker is done. Any errors are shown to the
+     * user, and the interface switches to the replacement provider if the
+     * save created one.
+     *
+     * @param worker the worker which has finished
+     */
+    void finishSave(SaveWorker worker){
+        this.saving = null;
+
+        Provider replacement = null;
 
-            this.getNotifier().error(this.getWindow(), "chooser", "save", "message", message);
+        try {
+            replacement = worker.get();
+        }catch(InterruptedException exception){
+            Thread.currentThread().interrupt();
+        }catch(ExecutionException exception){
+            Throwable cause = exception.getCause();
+
+            if(!(cause instanceof SavingException)){
+                this.getApplication().getExceptionHandler().handle(cause);
+            }else if(!worker.wasCancelled()){
+                this.getApplication().getExceptionHandler().report(cause);
+
+                String message = cause.getMessage();
+
+                if(cause.getCause() != null){
+                    message += " (" + cause.getCause().getClass().getName() + ")";
+                }
+
+                this.getNotifier().error(this.getWindow(), "chooser", "save", "message", message);
+            }
         }
 
-        if(replacement != null && this.unloadProvider()){
+        if(replacement != null && worker.getProvider() == this.getProvider() && this.unloadProvider()){
             this.setProvider(replacement);
         }
+
+        if(this.getProvider() != null){
+            this.getWindow().updateInput();
+        }
+
+        this.getWindow().repaintSpriteSelection();
+    }
+
+    /**
+     * Checks whether a provider is currently being saved.
+     */
+    public boolean isSaving(){
+        return this.saving != null;
+    }
+
+    /**
+     * Waits for the current save to finish, if there is one. Events are
+     * still processed while waiting.
+     */
+    public void waitForSave(){
+        if(this.saving != null){
+            this.saving.waitFor();
+        }
     }
 
     @Override
@@ -264,7 +566,30 @@ public class GraphicalInterface extends UserInterface {
 
     @Override
     public boolean setProvider(Provider provider){
+        this.waitForSave();
+
         if(super.setProvider(provider)){
+            if(this.history != null){
+                this.history.detach();
+            }
+
+            if(this.loader != null){
+                this.loader.close();
+            }
+
+            this.history = provider == null ? null : new EditHistory(provider);
+            this.loader = provider == null ? null : new SpriteLoader(provider);
+            this.levelPalettes = null;
+
+            if(this.graphicsFiles == null){
+                this.reloadSpriteGraphics(provider);
+            }
+
+            if(provider != null){
+                // the event is fired before the change is made
+                provider.addModificationListener(event -> SwingUtilities.invokeLater(this.getWindow()::repaintSpriteSelection));
+            }
+
             this.getWindow().updateInput();
             return true;
         }
@@ -272,6 +597,50 @@ public class GraphicalInterface extends UserInterface {
         return false;
     }
 
+    /**
+     * Returns the background loader of the current provider, or
+     * {@code null} if no provider is loaded.
+     */
+    public SpriteLoader getLoader(){
+        return this.loader;
+    }
+
+    /**
+     * Undoes the most recent edit to the current provider and displays the
+     * edited sprite.
+     */
+    public void undo(){
+        if(this.history == null || this.isSaving()){
+            return;
+        }
+
+        try {
+            if(this.history.undo()){
+                this.getWindow().updateInput();
+            }
+        }catch(ProvisionException exception){
+            this.getApplication().getExceptionHandler().handle(exception);
+        }
+    }
+
+    /**
+     * Redoes the most recently undone edit to the current provider and
+     * displays the edited sprite.
+     */
+    public void redo(){
+        if(this.history == null || this.isSaving()){
+            return;
+        }
+
+        try {
+            if(this.history.redo()){
+                this.getWindow().updateInput();
+            }
+        }catch(ProvisionException exception){
+            this.getApplication().getExceptionHandler().handle(exception);
+        }
+    }
+
     @Override
     public boolean stop(){
         return this.unloadProvider();
@@ -280,11 +649,14 @@ public class GraphicalInterface extends UserInterface {
     /**
      * If a provider is currently loaded and is modified, this method will ask
      * the user to save their changes to it before loading another provider.
-     * The user is also given the option to cancel the operation.
+     * The user is also given the option to cancel the operation. If the save
+     * fails or is cancelled, the new provider isn't loaded either.
      *
      * @return if the new provider should be loaded
      */
     public boolean prepareToLoad(){
+        this.waitForSave();
+
         Provider provider = this.getProvider();
 
         if(provider == null || !provider.isModified()){
@@ -310,6 +682,11 @@ public class GraphicalInterface extends UserInterface {
 
         if(option == 0){
             this.saveProvider(provider.getInput());
+            this.waitForSave();
+
+            // the save may have failed, been cancelled or never started
+            Provider saved = this.getProvider();
+            return saved == null || !saved.isModified();
         }
 
         return true;
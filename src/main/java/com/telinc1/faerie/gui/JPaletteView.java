@@ -29,11 +29,19 @@ import javax.swing.JComponent;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 
 /**
  * {@code JPaletteView} is a Swing component which displays a rectangular
  * region of a 256-color SNES palette. It will automatically listen for updates
  * to the palettes and repaint itself if they happen.
+ * <p>
+ * The region is rendered into a cached image with a single pixel per cell,
+ * which is only rebuilt when the palette or the region changes. Painting the
+ * component just scales the cached image up to the size of the cells.
  *
  * @author Telinc1
  * @since 1.0.0
@@ -67,6 +75,12 @@ public class JPaletteView extends JComponent {
      */
     private final UpdateListener updateListener;
 
+    /**
+     * The cached rendering of the region, or {@code null} if it has to be
+     * rebuilt.
+     */
+    private BufferedImage image;
+
     /**
      * Constructs a palette view with 16x16 cells and a 1x1 display area at the
      * very top left of the palette. This can be changed later.
@@ -100,7 +114,7 @@ public class JPaletteView extends JComponent {
         this.firstIndex = firstIndex;
         this.regionSize = regionSize;
 
-        this.updateListener = event -> this.repaint();
+        this.updateListener = event -> this.invalidateImage();
 
         this.updateSize();
     }
@@ -151,7 +165,7 @@ public class JPaletteView extends JComponent {
             this.getPalette().addUpdateListener(this.updateListener);
         }
 
-        this.repaint();
+        this.invalidateImage();
         return this;
     }
 
@@ -231,7 +245,7 @@ public class JPaletteView extends JComponent {
         }
 
         this.firstIndex = firstIndex;
-        this.repaint();
+        this.invalidateImage();
         return this;
     }
 
@@ -275,6 +289,43 @@ public class JPaletteView extends JComponent {
         return this.setFirstIndex(firstIndex).setRegionSize(width, height);
     }
 
+    /**
+     * Discards the cached rendering of the region and repaints the
+     * component.
+     */
+    private void invalidateImage(){
+        this.image = null;
+        this.repaint();
+    }
+
+    /**
+     * Renders the region into an image with a single pixel per cell. Cells
+     * outside of the palette are left black.
+     *
+     * @param palette the palette to render
+     * @return the rendered region
+     */
+    private BufferedImage renderImage(Palette palette){
+        int width = this.getRegionSize().width;
+        int height = this.getRegionSize().height;
+        int firstIndex = this.getFirstIndex();
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x < width; x++){
+                int index = firstIndex + x + y * 16;
+
+                if(index < Palette.SIZE){
+                    pixels[x + y * width] = palette.getRGB(index);
+                }
+            }
+        }
+
+        return image;
+    }
+
     @Override
     protected void paintComponent(Graphics destination){
         destination.setColor(Color.BLACK);
@@ -286,22 +337,25 @@ public class JPaletteView extends JComponent {
             return;
         }
 
-        int cellWidth = this.getCellSize().width;
-        int cellHeight = this.getCellSize().height;
-        int firstIndex = this.getFirstIndex();
-        int regionWidth = this.getRegionSize().width;
-        int regionHeight = this.getRegionSize().height;
-
-        for(int x = 0; x < regionWidth; x++){
-            for(int y = 0; y < regionHeight; y++){
-                try {
-                    Color color = palette.getColor(firstIndex + x + y * 16);
-                    destination.setColor(color);
-                    destination.fillRect(x * cellWidth, y * cellHeight, cellWidth, cellHeight);
-                }catch(ArrayIndexOutOfBoundsException exception){
-                    // do nothing, leave slot black
-                }
-            }
+        // the region size is live, so it may have changed without a setter
+        if(this.image == null || this.image.getWidth() != this.getRegionSize().width || this.image.getHeight() != this.getRegionSize().height){
+            this.image = this.renderImage(palette);
         }
+
+        Graphics2D graphics = (Graphics2D)destination;
+
+        graphics.setRenderingHint(
+            RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+        );
+
+        graphics.drawImage(
+            this.image,
+            0,
+            0,
+            this.image.getWidth() * this.getCellSize().width,
+            this.image.getHeight() * this.getCellSize().height,
+            null
+        );
     }
 }
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gui;
+
+import com.telinc1.faerie.display.Palette;
+import com.telinc1.faerie.display.UpdateListener;
+import com.telinc1.faerie.gfx.SpriteGraphics;
+import com.telinc1.faerie.gfx.TileDecoder;
+import com.telinc1.faerie.sprite.display.TileDisplayData;
+import com.telinc1.faerie.util.LRUCache;
+
+import javax.swing.JComponent;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * {@code JSpritePreview} is a Swing component which renders the tiles of a
+ * sprite's {@link TileDisplayData} the way Lunar Magic displays them. Each
+ * tile is 16x16 pixels and made up of four 8x8 tiles from the
+ * {@link SpriteGraphics}, colored by a single row of a {@link Palette}.
+ * <p>
+ * Every 16x16 tile is rendered once into an image, which is cached until the
+ * palette or the graphics change, so painting only blits cached images. The
+ * positions and numbers of the displayed tiles are remembered, so when new
+ * display data is set only the tiles which moved or changed are repainted.
+ * Tiles whose graphics aren't available are drawn as outlines.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class JSpritePreview extends JComponent {
+    /**
+     * The width and height of the displayed area, in unscaled pixels.
+     */
+    public static final int VIEW_SIZE = 96;
+
+    /**
+     * The unscaled position of the sprite's origin inside the displayed
+     * area.
+     */
+    private static final int ORIGIN = 40;
+
+    /**
+     * The width and height of a displayed tile.
+     */
+    private static final int TILE_SIZE = 16;
+
+    /**
+     * The amount of integers which describe a single displayed tile.
+     */
+    private static final int STRIDE = 3;
+
+    /**
+     * The maximum amount of rendered tiles kept in memory.
+     */
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * The color of tiles whose graphics aren't available.
+     */
+    private static final Color MISSING = Color.GRAY;
+
+    /**
+     * The amount of screen pixels per pixel of the sprite.
+     */
+    private int scale;
+
+    /**
+     * The palette to render with.
+     */
+    private Palette palette;
+
+    /**
+     * The palette row which the sprite uses, from 0 to 15.
+     */
+    private int paletteRow;
+
+    /**
+     * The graphics to render tiles from.
+     */
+    private SpriteGraphics spriteGraphics;
+
+    /**
+     * The position and number of each displayed tile.
+     */
+    private int[] tiles;
+
+    /**
+     * The rendered 16x16 tiles of the current palette, keyed by the palette
+     * row and tile number.
+     */
+    private final LRUCache<Integer, BufferedImage> images;
+
+    /**
+     * An {@code UpdateListener} which discards every rendered tile.
+     */
+    private final UpdateListener updateListener;
+
+    /**
+     * Constructs an empty sprite preview with every pixel doubled.
+     */
+    public JSpritePreview(){
+        this.scale = 2;
+        this.paletteRow = 8;
+        this.tiles = new int[0];
+        this.images = new LRUCache<>(JSpritePreview.CACHE_SIZE);
+        this.updateListener = event -> this.invalidateImages();
+
+        this.updateSize();
+    }
+
+    /**
+     * Updates the size of the component based on the scale.
+     *
+     * @return the component, for chaining
+     */
+    public JSpritePreview updateSize(){
+        Dimension size = new Dimension(JSpritePreview.VIEW_SIZE * this.scale, JSpritePreview.VIEW_SIZE * this.scale);
+
+        this.setMinimumSize(size);
+        this.setPreferredSize(size);
+
+        this.revalidate();
+        this.repaint();
+        return this;
+    }
+
+    /**
+     * Returns the amount of screen pixels per pixel of the sprite.
+     */
+    public int getScale(){
+        return this.scale;
+    }
+
+    /**
+     * Sets the amount of screen pixels per pixel of the sprite.
+     *
+     * @param scale the new scale
+     * @return the component, for chaining
+     * @throws IllegalArgumentException if the scale isn't positive
+     */
+    public JSpritePreview setScale(int scale){
+        if(scale <= 0){
+            throw new IllegalArgumentException("The scale must be positive!");
+        }
+
+        this.scale = scale;
+        return this.updateSize();
+    }
+
+    /**
+     * Returns the palette to render with. It can be {@code null}.
+     */
+    public Palette getPalette(){
+        return this.palette;
+    }
+
+    /**
+     * Sets a new palette to render with. The component listens for updates
+     * to the palette and re-renders every tile when it changes.
+     *
+     * @param palette the new palette, or {@code null}
+     * @return the component, for chaining
+     */
+    public JSpritePreview setPalette(Palette palette){
+        if(this.getPalette() != null){
+            this.getPalette().removeUpdateListener(this.updateListener);
+        }
+
+        this.palette = palette;
+
+        if(this.getPalette() != null){
+            this.getPalette().addUpdateListener(this.updateListener);
+        }
+
+        this.invalidateImages();
+        return this;
+    }
+
+    /**
+     * Returns the palette row which the sprite uses.
+     */
+    public int getPaletteRow(){
+        return this.paletteRow;
+    }
+
+    /**
+     * Sets the palette row which the sprite uses.
+     *
+     * @param paletteRow the new palette row, from 0 to 15
+     * @return the component, for chaining
+     */
+    public JSpritePreview setPaletteRow(int paletteRow){
+        if(this.paletteRow != (paletteRow & 0xF)){
+            this.paletteRow = paletteRow & 0xF;
+            this.repaint();
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the graphics to render tiles from. It can be {@code null}.
+     */
+    public SpriteGraphics getSpriteGraphics(){
+        return this.spriteGraphics;
+    }
+
+    /**
+     * Sets new graphics to render tiles from. If the graphics are
+     * {@code null}, every tile is drawn as an outline.
+     *
+     * @param graphics the new graphics, or {@code null}
+     * @return the component, for chaining
+     */
+    public JSpritePreview setSpriteGraphics(SpriteGraphics graphics){
+        if(this.spriteGraphics != graphics){
+            this.spriteGraphics = graphics;
+            this.invalidateImages();
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets the tiles to display. Only the tiles which differ from the
+     * previously displayed ones are repainted.
+     *
+     * @param displayData the display data of the sprite, or {@code null} to
+     * display nothing
+     * @return the component, for chaining
+     */
+    public JSpritePreview setDisplayData(TileDisplayData displayData){
+        int[] tiles = new int[displayData == null ? 0 : displayData.getTileCount() * JSpritePreview.STRIDE];
+
+        if(displayData != null){
+            int[] index = {0};
+
+            displayData.forEachTile((x, y, tile) -> {
+                tiles[index[0]] = x;
+                tiles[index[0] + 1] = y;
+                tiles[index[0] + 2] = tile;
+                index[0] += JSpritePreview.STRIDE;
+            });
+        }
+
+        int[] previous = this.tiles;
+        this.tiles = tiles;
+
+        for(int i = 0; i < Math.max(previous.length, tiles.length); i += JSpritePreview.STRIDE){
+            boolean old = i < previous.length;
+            boolean current = i < tiles.length;
+
+            if(old && current && previous[i] == tiles[i] && previous[i + 1] == tiles[i + 1] && previous[i + 2] == tiles[i + 2]){
+                continue;
+            }
+
+            if(old){
+                this.repaint(this.getTileBounds(previous[i], previous[i + 1]));
+            }
+
+            if(current){
+                this.repaint(this.getTileBounds(tiles[i], tiles[i + 1]));
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the area of the component which a tile covers.
+     *
+     * @param x the horizontal position of the tile relative to the origin
+     * @param y the vertical position of the tile relative to the origin
+     * @return the bounds of the tile, in screen pixels
+     */
+    private Rectangle getTileBounds(int x, int y){
+        return new Rectangle(
+            (JSpritePreview.ORIGIN + x) * this.scale,
+            (JSpritePreview.ORIGIN + y) * this.scale,
+            JSpritePreview.TILE_SIZE * this.scale,
+            JSpritePreview.TILE_SIZE * this.scale
+        );
+    }
+
+    /**
+     * Discards every rendered tile and repaints the component.
+     */
+    private void invalidateImages(){
+        this.images.clear();
+        this.repaint();
+    }
+
+    /**
+     * Returns the rendered image of a 16x16 tile, rendering it if it isn't
+     * cached.
+     *
+     * @param tile the number of the top left 8x8 tile
+     * @return the rendered tile, or {@code null} if its graphics aren't
+     * available
+     */
+    private BufferedImage getImage(int tile){
+        Integer key = (this.paletteRow << 9) | (tile & 0x1FF);
+        BufferedImage image = this.images.get(key);
+
+        if(image == null && !this.images.containsKey(key)){
+            image = this.renderImage(tile);
+            this.images.put(key, image);
+        }
+
+        return image;
+    }
+
+    /**
+     * Renders a 16x16 tile out of four 8x8 tiles. Transparent pixels are
+     * left transparent.
+     *
+     * @param tile the number of the top left 8x8 tile
+     * @return the rendered tile, or {@code null} if any of the 8x8 tiles
+     * isn't available
+     */
+    private BufferedImage renderImage(int tile){
+        BufferedImage image = new BufferedImage(JSpritePreview.TILE_SIZE, JSpritePreview.TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        int[] destination = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+
+        for(int part = 0; part < 4; part++){
+            int column = part & 1;
+            int row = part >> 1;
+            byte[] pixels = this.spriteGraphics.getTile(tile + column + row * 0x10, this.paletteRow);
+
+            if(pixels == null){
+                return null;
+            }
+
+            int start = row * TileDecoder.TILE_SIZE * JSpritePreview.TILE_SIZE + column * TileDecoder.TILE_SIZE;
+
+            for(int i = 0; i < TileDecoder.PIXELS; i++){
+                if(!TileDecoder.isTransparent(pixels[i])){
+                    int y = i / TileDecoder.TILE_SIZE;
+                    int x = i % TileDecoder.TILE_SIZE;
+
+                    destination[start + y * JSpritePreview.TILE_SIZE + x] = this.palette.getRGB(pixels[i] & 0xFF);
+                }
+            }
+        }
+
+        return image;
+    }
+
+    @Override
+    protected void paintComponent(Graphics destination){
+        Palette palette = this.getPalette();
+        Rectangle clip = destination.getClipBounds();
+
+        if(clip == null){
+            clip = new Rectangle(0, 0, this.getWidth(), this.getHeight());
+        }
+
+        destination.setColor(palette == null ? Color.BLACK : new Color(palette.getRGB(0)));
+        destination.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        Graphics2D graphics = (Graphics2D)destination;
+
+        graphics.setRenderingHint(
+            RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+        );
+
+        for(int i = 0; i < this.tiles.length; i += JSpritePreview.STRIDE){
+            Rectangle bounds = this.getTileBounds(this.tiles[i], this.tiles[i + 1]);
+
+            if(!bounds.intersects(clip)){
+                continue;
+            }
+
+            BufferedImage image = palette == null || this.spriteGraphics == null ? null : this.getImage(this.tiles[i + 2]);
+
+            if(image == null){
+                graphics.setColor(JSpritePreview.MISSING);
+                graphics.drawRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
+                continue;
+            }
+
+            graphics.drawImage(image, bounds.x, bounds.y, bounds.width, bounds.height, null);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gui;
+
+import com.telinc1.faerie.Resources;
+import com.telinc1.faerie.sprite.provider.Provider;
+import com.telinc1.faerie.sprite.provider.SaveProgress;
+import com.telinc1.faerie.sprite.provider.SavingException;
+
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import java.awt.SecondaryLoop;
+import java.awt.Toolkit;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@code SaveWorker} saves a {@link Provider} on a background thread while
+ * the window shows its progress. The user can cancel the save from the
+ * progress dialog, in which case the provider stops at the next step.
+ * <p>
+ * Once the save is done, the worker hands itself back to the
+ * {@link GraphicalInterface} on the event dispatch thread.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class SaveWorker extends SwingWorker<Provider, Void> {
+    /**
+     * The interval at which the progress dialog is polled, in milliseconds.
+     */
+    private static final int POLL_INTERVAL = 100;
+
+    /**
+     * The interface which started the save.
+     */
+    private final GraphicalInterface graphicalInterface;
+
+    /**
+     * The provider which is being saved.
+     */
+    private final Provider provider;
+
+    /**
+     * The file which the provider is saved to.
+     */
+    private final File file;
+
+    /**
+     * The dialog which shows the progress of the save.
+     */
+    private final ProgressMonitor monitor;
+
+    /**
+     * The timer which polls the progress dialog while the save runs. The
+     * dialog can only pop up and notice the cancel button when it's asked,
+     * and providers might not report progress for a long time.
+     */
+    private final Timer timer;
+
+    /**
+     * Whether the user has cancelled the save.
+     */
+    private final AtomicBoolean cancelled;
+
+    /**
+     * Whether the interface has been notified of the result.
+     */
+    private boolean finished;
+
+    /**
+     * The event loops which wait for the save to finish. Waiting again from
+     * an event handled by one of them enters another, nested loop.
+     */
+    private final List<SecondaryLoop> loops;
+
+    /**
+     * Creates a worker which saves a provider. This has to be called on the
+     * event dispatch thread.
+     *
+     * @param graphicalInterface the interface which starts the save
+     * @param provider the provider to save
+     * @param file the file to save to
+     */
+    SaveWorker(GraphicalInterface graphicalInterface, Provider provider, File file){
+        this.graphicalInterface = graphicalInterface;
+        this.provider = provider;
+        this.file = file;
+        this.cancelled = new AtomicBoolean();
+        this.loops = new ArrayList<>();
+
+        this.monitor = new ProgressMonitor(
+            graphicalInterface.getWindow(),
+            Resources.getString("main", "dialog.save.content", "path", file.getAbsolutePath()),
+            null,
+            0,
+            100
+        );
+
+        this.timer = new Timer(SaveWorker.POLL_INTERVAL, event -> {
+            this.monitor.setProgress(this.getProgress());
+
+            if(this.monitor.isCanceled()){
+                this.cancelled.set(true);
+            }
+        });
+
+        this.timer.start();
+    }
+
+    /**
+     * Returns the provider which is being saved.
+     */
+    public Provider getProvider(){
+        return this.provider;
+    }
+
+    /**
+     * Checks whether the user has cancelled the save.
+     */
+    public boolean wasCancelled(){
+        return this.cancelled.get();
+    }
+
+    @Override
+    protected Provider doInBackground() throws SavingException{
+        return this.provider.save(this.file, new SaveProgress() {
+            @Override
+            public void setProgress(int done, int total){
+                SaveWorker.this.setProgress(total <= 0 ? 0 : Math.min(done * 100 / total, 100));
+            }
+
+            @Override
+            public boolean isCancelled(){
+                return SaveWorker.this.cancelled.get();
+            }
+        });
+    }
+
+    @Override
+    protected void done(){
+        this.timer.stop();
+        this.monitor.close();
+        this.graphicalInterface.finishSave(this);
+        this.finished = true;
+
+        // every nested loop has to be exited so that each caller returns
+        for(SecondaryLoop loop : this.loops){
+            loop.exit();
+        }
+
+        this.loops.clear();
+    }
+
+    /**
+     * Blocks until the save is done, while still processing events. This has
+     * to be called on the event dispatch thread.
+     */
+    public void waitFor(){
+        if(this.finished){
+            return;
+        }
+
+        SecondaryLoop loop = Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+        this.loops.add(loop);
+        loop.enter();
+    }
+}
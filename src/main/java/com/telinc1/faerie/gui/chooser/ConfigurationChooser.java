@@ -28,14 +28,17 @@ import com.telinc1.faerie.gui.chooser.filter.CFGFilter;
 import com.telinc1.faerie.gui.chooser.filter.ConfigurationFilter;
 import com.telinc1.faerie.gui.chooser.filter.EditableFilter;
 import com.telinc1.faerie.gui.chooser.filter.JSONFilter;
+import com.telinc1.faerie.gui.chooser.filter.ListFilter;
 import com.telinc1.faerie.gui.chooser.filter.ROMFilter;
+import com.telinc1.faerie.gui.chooser.filter.ZIPFilter;
 
 import java.awt.Component;
 
 /**
  * This is an {@link ApplicationChooser} which allows the user to select any
  * supported configuration format (CFG and JSON for now) as well as,
- * optionally, ROMs.
+ * optionally, ROMs, sprite packs, sprite lists, and directories of
+ * configuration files.
  *
  * @author Telinc1
  * @since 1.0.0
@@ -66,6 +69,16 @@ public class ConfigurationChooser extends ApplicationChooser {
      */
     private final ROMFilter romFilter;
 
+    /**
+     * The {@link java.io.FileFilter} for ZIP sprite packs.
+     */
+    private final ZIPFilter zipFilter;
+
+    /**
+     * The {@link java.io.FileFilter} for sprite lists.
+     */
+    private final ListFilter listFilter;
+
     /**
      * Creates a new {@code ConfigurationChooser}.
      */
@@ -77,13 +90,16 @@ public class ConfigurationChooser extends ApplicationChooser {
         this.cfgFilter = new CFGFilter();
         this.jsonFilter = new JSONFilter();
         this.romFilter = new ROMFilter();
+        this.zipFilter = new ZIPFilter();
+        this.listFilter = new ListFilter();
     }
 
     /**
      * Shows a configuration file chooser for opening a file.
      * <p>
      * This entails setting the choosable filters to allow ROM images and
-     * setting an appropriate title for the chooser.
+     * sprite packs, allowing directories to be chosen, and setting an
+     * appropriate title for the chooser.
      *
      * @return the return state of the file chooser
      * @see #showOpenDialog(Component)
@@ -97,7 +113,10 @@ public class ConfigurationChooser extends ApplicationChooser {
         this.addChoosableFileFilter(this.getCFGFilter());
         this.addChoosableFileFilter(this.getJSONFilter());
         this.addChoosableFileFilter(this.getROMFilter());
+        this.addChoosableFileFilter(this.getZIPFilter());
+        this.addChoosableFileFilter(this.getListFilter());
         this.setAcceptAllFileFilterUsed(false);
+        this.setFileSelectionMode(ConfigurationChooser.FILES_AND_DIRECTORIES);
 
         return this.showOpenDialog(parent);
     }
@@ -118,6 +137,7 @@ public class ConfigurationChooser extends ApplicationChooser {
         this.addChoosableFileFilter(this.getCFGFilter());
         this.addChoosableFileFilter(this.getJSONFilter());
         this.setAcceptAllFileFilterUsed(false);
+        this.setFileSelectionMode(ConfigurationChooser.FILES_ONLY);
 
         return this.showSaveDialog(parent);
     }
@@ -166,4 +186,22 @@ public class ConfigurationChooser extends ApplicationChooser {
     public ROMFilter getROMFilter(){
         return this.romFilter;
     }
+
+    /**
+     * Returns the filter for ZIP sprite packs.
+     *
+     * @return the {@link java.io.FileFilter} for ZIP sprite packs
+     */
+    public ZIPFilter getZIPFilter(){
+        return this.zipFilter;
+    }
+
+    /**
+     * Returns the filter for sprite lists.
+     *
+     * @return the {@link java.io.FileFilter} for sprite lists
+     */
+    public ListFilter getListFilter(){
+        return this.listFilter;
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gui.chooser;
+
+import com.telinc1.faerie.Application;
+import com.telinc1.faerie.Resources;
+import com.telinc1.faerie.gui.chooser.filter.GFXFilter;
+import com.telinc1.faerie.gui.chooser.filter.GraphicsFilter;
+import com.telinc1.faerie.gui.chooser.filter.ROMFilter;
+
+import java.awt.Component;
+
+/**
+ * This is an {@link ApplicationChooser} which allows the user to select the
+ * source of the sprite graphics, which is either a single ROM image or up to
+ * four uncompressed graphics files.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class GraphicsChooser extends ApplicationChooser {
+    /**
+     * The {@link java.io.FileFilter} for all graphics sources.
+     */
+    private final GraphicsFilter graphicsFilter;
+
+    /**
+     * The {@link java.io.FileFilter} for SNES ROM image files.
+     */
+    private final ROMFilter romFilter;
+
+    /**
+     * The {@link java.io.FileFilter} for uncompressed graphics files.
+     */
+    private final GFXFilter gfxFilter;
+
+    /**
+     * Creates a new {@code GraphicsChooser}.
+     */
+    public GraphicsChooser(Application application){
+        super(application);
+
+        this.graphicsFilter = new GraphicsFilter();
+        this.romFilter = new ROMFilter();
+        this.gfxFilter = new GFXFilter();
+    }
+
+    /**
+     * Shows a graphics file chooser for opening files.
+     * <p>
+     * This entails setting the choosable filters to allow ROM images and
+     * graphics files, and allowing multiple graphics files to be chosen at
+     * once.
+     *
+     * @return the return state of the file chooser
+     * @see #showOpenDialog(Component)
+     */
+    public int showOpen(Component parent){
+        this.setDialogTitle(Resources.getString("chooser", "chooser.graphics.open"));
+
+        this.resetChoosableFileFilters();
+        this.addChoosableFileFilter(this.getGraphicsFilter());
+        this.addChoosableFileFilter(this.getROMFilter());
+        this.addChoosableFileFilter(this.getGFXFilter());
+        this.setAcceptAllFileFilterUsed(false);
+        this.setMultiSelectionEnabled(true);
+
+        return this.showOpenDialog(parent);
+    }
+
+    /**
+     * Returns the {@link java.io.FileFilter} for all graphics sources.
+     */
+    public GraphicsFilter getGraphicsFilter(){
+        return this.graphicsFilter;
+    }
+
+    /**
+     * Returns the {@link java.io.FileFilter} for ROM files.
+     */
+    public ROMFilter getROMFilter(){
+        return this.romFilter;
+    }
+
+    /**
+     * Returns the {@link java.io.FileFilter} for graphics files.
+     */
+    public GFXFilter getGFXFilter(){
+        return this.gfxFilter;
+    }
+}
@@ -26,6 +26,7 @@ import com.telinc1.faerie.Application;
 import com.telinc1.faerie.Resources;
 import com.telinc1.faerie.gui.chooser.filter.MW3Filter;
 import com.telinc1.faerie.gui.chooser.filter.PALFilter;
+import com.telinc1.faerie.gui.chooser.filter.PNGFilter;
 import com.telinc1.faerie.gui.chooser.filter.PaletteFilter;
 import com.telinc1.faerie.gui.chooser.filter.TPLFilter;
 
@@ -59,6 +60,11 @@ public class PaletteChooser extends ApplicationChooser {
      */
     private final MW3Filter mw3Filter;
 
+    /**
+     * The {@link java.io.FileFilter} for PNG images.
+     */
+    private final PNGFilter pngFilter;
+
     /**
      * Creates a new {@code PaletteChooser}.
      */
@@ -69,13 +75,14 @@ public class PaletteChooser extends ApplicationChooser {
         this.palFilter = new PALFilter();
         this.tplFilter = new TPLFilter();
         this.mw3Filter = new MW3Filter();
+        this.pngFilter = new PNGFilter();
     }
 
     /**
      * Shows a palette file chooser for opening a file.
      * <p>
      * This entails setting the choosable filters to allow all any palette
-     * files, even the generalized filter.
+     * files and images, even the generalized filter.
      *
      * @return the return state of the file chooser
      * @see #showOpenDialog(Component)
@@ -88,6 +95,7 @@ public class PaletteChooser extends ApplicationChooser {
         this.addChoosableFileFilter(this.getPALFilter());
         this.addChoosableFileFilter(this.getTPLFilter());
         this.addChoosableFileFilter(this.getMW3Filter());
+        this.addChoosableFileFilter(this.getPNGFilter());
         this.setAcceptAllFileFilterUsed(false);
 
         return this.showOpenDialog(parent);
@@ -120,4 +128,11 @@ public class PaletteChooser extends ApplicationChooser {
     public MW3Filter getMW3Filter(){
         return this.mw3Filter;
     }
+
+    /**
+     * Returns the {@link java.io.FileFilter} for PNG images.
+     */
+    public PNGFilter getPNGFilter(){
+        return this.pngFilter;
+    }
 }
@@ -30,7 +30,7 @@ import java.io.File;
 
 /**
  * The {@code EditableFilter} is a {@link FileFilter} for any editable file,
- * i.e. configuration files and SNES ROM images.
+ * i.e. configuration files, SNES ROM images, and sprite packs.
  *
  * @author Telinc1
  * @since 1.0.0
@@ -42,7 +42,7 @@ public class EditableFilter extends FileFilter implements IApplicationFilter {
             return true;
         }
 
-        return TypeUtils.isConfiguration(file) || TypeUtils.isROM(file);
+        return TypeUtils.isConfiguration(file) || TypeUtils.isROM(file) || TypeUtils.isArchive(file) || TypeUtils.isSpriteList(file);
     }
 
     @Override
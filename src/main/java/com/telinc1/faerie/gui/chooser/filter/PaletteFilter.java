@@ -30,7 +30,7 @@ import java.io.File;
 
 /**
  * The {@code PaletteFilter} is a {@link FileFilter} for all supported palette
- * files.
+ * files and for images which palettes can be imported from.
  *
  * @author Telinc1
  * @since 1.0.0
@@ -42,7 +42,7 @@ public class PaletteFilter extends FileFilter implements IApplicationFilter {
             return true;
         }
 
-        return TypeUtils.isPalette(file);
+        return TypeUtils.isPalette(file) || TypeUtils.isImage(file);
     }
 
     @Override
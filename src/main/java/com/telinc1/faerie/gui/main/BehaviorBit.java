@@ -31,8 +31,8 @@ import java.lang.annotation.Target;
  * This annotation denotes that a checkbox configures a specific bit from a
  * sprite's behavior configuration.
  *
- * The value given to this annotation should match the name of a boolean field
- * from {@link com.telinc1.faerie.sprite.SpriteBehavior}. If it's empty, the
+ * The value given to this annotation should match the key of a flag from
+ * {@link com.telinc1.faerie.sprite.EnumBehaviorFlag}. If it's empty, the
  * annotation will not automatically configure anything.
  */
 @Target(ElementType.FIELD)
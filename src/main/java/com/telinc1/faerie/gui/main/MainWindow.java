@@ -26,22 +26,29 @@ import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
 import com.telinc1.faerie.Application;
 import com.telinc1.faerie.Resources;
+import com.telinc1.faerie.display.LevelPaletteExtractor;
 import com.telinc1.faerie.gui.DecimalFormatter;
 import com.telinc1.faerie.gui.GraphicalInterface;
 import com.telinc1.faerie.gui.HexadecimalFormatter;
 import com.telinc1.faerie.gui.JPaletteView;
 import com.telinc1.faerie.gui.JScaledImage;
+import com.telinc1.faerie.gui.JSpritePreview;
 import com.telinc1.faerie.gui.chooser.ConfigurationChooser;
+import com.telinc1.faerie.gui.chooser.GraphicsChooser;
 import com.telinc1.faerie.gui.main.menu.MenuBar;
 import com.telinc1.faerie.preferences.PreferenceStore;
+import com.telinc1.faerie.sprite.EnumBehaviorFlag;
 import com.telinc1.faerie.sprite.EnumSpriteSubType;
 import com.telinc1.faerie.sprite.EnumSpriteType;
 import com.telinc1.faerie.sprite.EnumStatusHandling;
 import com.telinc1.faerie.sprite.Sprite;
 import com.telinc1.faerie.sprite.SpriteBehavior;
+import com.telinc1.faerie.sprite.display.DisplayData;
+import com.telinc1.faerie.sprite.display.TileDisplayData;
 import com.telinc1.faerie.sprite.provider.Provider;
 import com.telinc1.faerie.sprite.provider.ProvisionException;
 import com.telinc1.faerie.sprite.provider.ROMProvider;
+import com.telinc1.faerie.sprite.provider.SpriteLoader;
 
 import javax.swing.AbstractButton;
 import javax.swing.BorderFactory;
@@ -54,10 +61,12 @@ import javax.swing.JFileChooser;
 import javax.swing.JFormattedTextField;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -69,12 +78,12 @@ import java.awt.event.KeyListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
-import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 /**
@@ -101,6 +110,18 @@ public class MainWindow extends JFrame {
      */
     private final ConfigurationChooser configurationChooser;
 
+    /**
+     * The {@link JFileChooser} used to pick the source of the sprite
+     * graphics.
+     */
+    private final GraphicsChooser graphicsChooser;
+
+    /**
+     * A counter of sprite selections, used to discard sprites which finish
+     * loading after another one has been selected.
+     */
+    private int selectionRequest;
+
     private JPanel contentPanel;
     private JTabbedPane tabbedPane;
     private JPanel spritePanel;
@@ -240,6 +261,8 @@ public class MainWindow extends JFrame {
     private JScaledImage spriteClippingImage;
     private JPaletteView paletteView;
 
+    private JSpritePreview spritePreview;
+
     /**
      * Construct a graphical window, including all of its inner components. The
      * title and sizes are automatically set. Note that the window is not
@@ -294,6 +317,52 @@ public class MainWindow extends JFrame {
         this.setJMenuBar(this.menuBar);
 
         this.configurationChooser = new ConfigurationChooser(this.getApplication());
+        this.graphicsChooser = new GraphicsChooser(this.getApplication());
+    }
+
+    /**
+     * Switches the provider to another sprite. The sprite is loaded in the
+     * background, and only the most recently selected sprite is displayed
+     * once it's ready.
+     *
+     * @param index the index of the sprite to display
+     */
+    private void selectSprite(int index){
+        Provider provider = this.getProvider();
+        SpriteLoader loader = this.getInterface().getLoader();
+
+        int request = ++this.selectionRequest;
+
+        if(provider == null || loader == null || index < 0 || index == provider.getLoadedIndex()){
+            return;
+        }
+
+        loader.load(index).whenComplete((sprite, throwable) -> {
+            Runnable display = () -> {
+                if(request != this.selectionRequest || provider != this.getProvider()){
+                    return;
+                }
+
+                if(throwable != null){
+                    this.getApplication().getExceptionHandler().handle(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                    this.spriteSelectionComboBox.setSelectedIndex(provider.getLoadedIndex());
+                    return;
+                }
+
+                try {
+                    provider.loadSprite(index, sprite);
+                    this.updateInput();
+                }catch(ProvisionException exception){
+                    this.getApplication().getExceptionHandler().handle(exception);
+                }
+            };
+
+            if(SwingUtilities.isEventDispatchThread()){
+                display.run();
+            }else{
+                SwingUtilities.invokeLater(display);
+            }
+        });
     }
 
     /**
@@ -304,21 +373,14 @@ public class MainWindow extends JFrame {
             this.getApplication().getPreferences().get(PreferenceStore.SCROLL_SPEED, 14)
         );
 
-        this.addComboBoxListener(this.spriteSelectionComboBox, index -> {
-            try {
-                this.getProvider().loadSprite(index);
-                this.updateInput();
-            }catch(ProvisionException exception){
-                this.getApplication().getExceptionHandler().handle(exception);
-            }
-        });
+        this.addComboBoxListener(this.spriteSelectionComboBox, this::selectSprite);
 
         this.addComboBoxListener(this.typeComboBox, index -> {
             if(index == this.getProvider().getCurrentSprite().getType().asInteger()){
                 return;
             }
 
-            this.getInterface().startModification().setType(EnumSpriteType.fromInteger(index));
+            this.getInterface().modify(sprite -> sprite.setType(EnumSpriteType.fromInteger(index)));
             this.updateGUI();
         });
 
@@ -327,7 +389,7 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            this.getInterface().startModification().setSubtype(EnumSpriteSubType.fromInteger(index));
+            this.getInterface().modify(sprite -> sprite.setSubtype(EnumSpriteSubType.fromInteger(index)));
             this.updateGUI();
         });
 
@@ -336,7 +398,7 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            this.getInterface().startModification().setActsLike(value);
+            this.getInterface().modify(sprite -> sprite.setActsLike(value));
         });
 
         this.addTextFieldListener(this.firstASMTextField, text -> {
@@ -344,7 +406,7 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            this.getInterface().startModification().setFirstASMFile(text);
+            this.getInterface().modify(sprite -> sprite.setFirstASMFile(text));
         });
 
         this.addTextFieldListener(this.secondASMTextField, text -> {
@@ -352,7 +414,7 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            this.getInterface().startModification().setSecondASMFile(text);
+            this.getInterface().modify(sprite -> sprite.setSecondASMFile(text));
         });
 
         for(Field field : this.getClass().getDeclaredFields()){
@@ -368,17 +430,18 @@ public class MainWindow extends JFrame {
 
             try {
                 JCheckBox checkBox = (JCheckBox)field.get(this);
-                Field bit = SpriteBehavior.class.getDeclaredField(annotation.value());
+                EnumBehaviorFlag flag = EnumBehaviorFlag.fromKey(annotation.value());
+
+                if(flag == null){
+                    continue;
+                }
+
                 checkBox.addItemListener(event -> {
-                    try {
-                        if(bit.getBoolean(this.getProvider().getCurrentSprite().getBehavior()) == checkBox.isSelected()){
-                            return;
-                        }
-
-                        bit.setBoolean(this.getInterface().modifyBehavior(), checkBox.isSelected());
-                    }catch(IllegalAccessException exception){
-                        this.getApplication().getExceptionHandler().report(exception);
+                    if(this.getProvider().getCurrentSprite().getBehavior().get(flag) == checkBox.isSelected()){
+                        return;
                     }
+
+                    this.getInterface().modifyBehavior(behavior -> behavior.set(flag, checkBox.isSelected()));
                 });
             }catch(ReflectiveOperationException exception){
                 this.getApplication().getExceptionHandler().report(exception);
@@ -394,7 +457,7 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            this.getInterface().startModification().setFirstPropertyByte(value);
+            this.getInterface().modify(sprite -> sprite.setFirstPropertyByte(value));
         });
 
         HexadecimalFormatter.apply(this.secondPropertyTextField, 0x0, 0x3F, value -> {
@@ -402,7 +465,7 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            this.getInterface().startModification().setSecondPropertyByte(value);
+            this.getInterface().modify(sprite -> sprite.setSecondPropertyByte(value));
         });
 
         this.addComboBoxListener(this.statusOverrideComboBox, index -> {
@@ -412,7 +475,7 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            this.getInterface().startModification().setStatusHandling(handling);
+            this.getInterface().modify(sprite -> sprite.setStatusHandling(handling));
         });
 
         HexadecimalFormatter.apply(this.uniqueByteTextField, 0x0, 0xFF, value -> {
@@ -420,7 +483,7 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            this.getInterface().startModification().setUniqueByte(value);
+            this.getInterface().modify(sprite -> sprite.setUniqueByte(value));
         });
 
         DecimalFormatter.apply(this.extraByteAmountTextField, 0x0, 0xFF, value -> {
@@ -436,7 +499,7 @@ public class MainWindow extends JFrame {
                 }
             }
 
-            this.getInterface().startModification().setExtraBytes(value);
+            this.getInterface().modify(sprite -> sprite.setExtraBytes(value));
         });
     }
 
@@ -462,6 +525,54 @@ public class MainWindow extends JFrame {
         return result == JFileChooser.APPROVE_OPTION ? file : null;
     }
 
+    /**
+     * Shows a dialog for the source of the sprite graphics and returns the
+     * selected files, if any.
+     */
+    public File[] showGraphicsDialog(){
+        GraphicsChooser chooser = this.graphicsChooser;
+
+        int result = chooser.showOpen(this);
+        File[] files = chooser.getSelectedFiles();
+
+        chooser.setSelectedFiles(null);
+        return result == JFileChooser.APPROVE_OPTION && files.length > 0 ? files : null;
+    }
+
+    /**
+     * Asks the user for the number of a level, in hexadecimal, and returns
+     * it. An error is shown if the input isn't a valid level.
+     *
+     * @return the number of the level, or {@code -1} if none was entered
+     */
+    public int showLevelDialog(){
+        String input = (String)JOptionPane.showInputDialog(
+            this,
+            Resources.getString("palette", "dialog.level.content"),
+            Resources.getString("palette", "dialog.level.title"),
+            JOptionPane.QUESTION_MESSAGE,
+            null,
+            null,
+            "105"
+        );
+
+        if(input == null || input.trim().isEmpty()){
+            return -1;
+        }
+
+        try {
+            int level = Integer.parseInt(input.trim(), 16);
+
+            if(level >= 0 && level < LevelPaletteExtractor.LEVELS){
+                return level;
+            }
+        }catch(NumberFormatException ignored){
+        }
+
+        this.getInterface().getNotifier().error(this, "palette", "levelNumber", "input", input.trim());
+        return -1;
+    }
+
     /**
      * Shows a save dialog and returns the selected file, if any.
      */
@@ -481,6 +592,7 @@ public class MainWindow extends JFrame {
     private void createUIComponents(){
         // Create sprite selection combobox.
         this.spriteSelectionComboBox = new JComboBox<>();
+        this.spriteSelectionComboBox.setRenderer(new SpriteSelectionRenderer(this));
 
         // Create type combobox.
         this.typeComboBox = new JComboBox<>(Arrays
@@ -512,6 +624,11 @@ public class MainWindow extends JFrame {
             .setFirstIndex(0x80)
             .setRegionSize(8, 1);
         this.paletteView.setBorder(BorderFactory.createLineBorder(Color.GRAY));
+
+        // Create sprite preview.
+        this.spritePreview = new JSpritePreview();
+        this.spritePreview.setPalette(this.getInterface().getPalette());
+        this.spritePreview.setBorder(BorderFactory.createLineBorder(Color.GRAY));
     }
 
     /**
@@ -649,8 +766,11 @@ public class MainWindow extends JFrame {
 
             try {
                 JCheckBox checkBox = (JCheckBox)field.get(this);
-                Field bit = SpriteBehavior.class.getDeclaredField(annotation.value());
-                checkBox.setSelected(bit.getBoolean(behavior));
+                EnumBehaviorFlag flag = EnumBehaviorFlag.fromKey(annotation.value());
+
+                if(flag != null){
+                    checkBox.setSelected(behavior.get(flag));
+                }
             }catch(ReflectiveOperationException exception){
                 this.getApplication().getExceptionHandler().report(exception);
             }
@@ -669,20 +789,34 @@ public class MainWindow extends JFrame {
         return this;
     }
 
+    /**
+     * Disables every user input element until the next call to
+     * {@link #updateInput()}, such as while the provider is being saved.
+     *
+     * @return the window, for chaining
+     */
+    public MainWindow lockInput(){
+        this.setInputEnabled(false);
+        return this;
+    }
+
+    /**
+     * Repaints the sprite selection combo box, so that it shows which sprites
+     * are currently modified.
+     */
+    public void repaintSpriteSelection(){
+        this.spriteSelectionComboBox.repaint();
+    }
+
     /**
      * Updates the components in the window related to the object clipping to
      * display the current object clipping of the loaded sprite.
      */
     public void updateObjectClipping(){
-        int index = this.getProvider().getCurrentSprite().getBehavior().objectClipping;
+        int index = this.getProvider().getCurrentSprite().getBehavior().getObjectClipping();
 
         this.objectClippingComboBox.setSelectedIndex(index);
-
-        try {
-            this.objectClippingImage.loadImage(String.format("object/%02X.png", index));
-        }catch(IOException exception){
-            this.getApplication().getExceptionHandler().report(exception);
-        }
+        this.objectClippingImage.setImage(this.getInterface().getClippingAtlas().getObjectClipping(index));
     }
 
     /**
@@ -690,15 +824,10 @@ public class MainWindow extends JFrame {
      * display the current object clipping of the loaded sprite.
      */
     public void updateSpriteClipping(){
-        int index = this.getProvider().getCurrentSprite().getBehavior().spriteClipping;
+        int index = this.getProvider().getCurrentSprite().getBehavior().getSpriteClipping();
 
         this.spriteClippingComboBox.setSelectedIndex(index);
-
-        try {
-            this.spriteClippingImage.loadImage(String.format("sprite/%02X.png", index));
-        }catch(IOException exception){
-            this.getApplication().getExceptionHandler().report(exception);
-        }
+        this.spriteClippingImage.setImage(this.getInterface().getClippingAtlas().getSpriteClipping(index));
     }
 
     /**
@@ -706,10 +835,26 @@ public class MainWindow extends JFrame {
      * the current palette of the loaded sprite.
      */
     public void updatePalette(){
-        int palette = this.getProvider().getCurrentSprite().getBehavior().palette;
+        int palette = this.getProvider().getCurrentSprite().getBehavior().getPalette();
 
         this.paletteComboBox.setSelectedIndex(palette);
         this.paletteView.setFirstIndex(0x80 + palette * 0x10);
+
+        this.updateDisplay();
+    }
+
+    /**
+     * Updates the sprite preview to display the tiles of the loaded sprite
+     * with its palette.
+     */
+    public void updateDisplay(){
+        Sprite sprite = this.getProvider().getCurrentSprite();
+        DisplayData displayData = sprite.getDisplayData();
+
+        this.spritePreview
+            .setSpriteGraphics(this.getInterface().getSpriteGraphics())
+            .setPaletteRow(0x8 + sprite.getBehavior().getPalette())
+            .setDisplayData(displayData instanceof TileDisplayData ? (TileDisplayData)displayData : null);
     }
 
     /**
@@ -747,7 +892,10 @@ public class MainWindow extends JFrame {
             this.actsLikeTextField.setEnabled(true);
         }
 
-        if(sprite.hasBehavior()){
+        // only the sprites in the Tweaker tables have behavior which can be saved to a ROM
+        boolean tweakable = !(provider instanceof ROMProvider) || ((ROMProvider)provider).hasTweakerEntry(provider.getLoadedIndex());
+
+        if(sprite.hasBehavior() && tweakable){
             this.setInputEnabled(true, BehaviorBit.class);
         }
 
@@ -1148,9 +1296,8 @@ public class MainWindow extends JFrame {
         displayPanel = new JPanel();
         displayPanel.setLayout(new GridLayoutManager(1, 1, new Insets(0, 0, 0, 0), -1, -1));
         tabbedPane.addTab(ResourceBundle.getBundle("com/telinc1/faerie/locale/Main").getString("content.tab.display"), displayPanel);
-        final JLabel label10 = new JLabel();
-        label10.setText("This function is not yet implemented.");
-        displayPanel.add(label10, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
+        spritePreview.setFocusable(false);
+        displayPanel.add(spritePreview, new GridConstraints(0, 0, 1, 1, GridConstraints.ANCHOR_CENTER, GridConstraints.FILL_NONE, GridConstraints.SIZEPOLICY_FIXED, GridConstraints.SIZEPOLICY_FIXED, new Dimension(192, 192), null, null, 0, false));
         label1.setLabelFor(objectClippingComboBox);
         label2.setLabelFor(spriteClippingComboBox);
         label3.setLabelFor(paletteComboBox);
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.gui.main;
+
+import com.telinc1.faerie.Resources;
+import com.telinc1.faerie.sprite.provider.Provider;
+import com.telinc1.faerie.sprite.provider.ROMProvider;
+
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+import java.awt.Component;
+import java.awt.Font;
+
+/**
+ * This list cell renderer displays the sprites of the loaded provider in the
+ * sprite selection combo box. Modified sprites are shown in bold. For ROM
+ * images, the tooltip lists the Tweaker tables which would be written.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class SpriteSelectionRenderer extends DefaultListCellRenderer {
+    /**
+     * The {@code MainWindow} which owns this renderer.
+     */
+    private final MainWindow window;
+
+    /**
+     * Creates a new sprite selection renderer for the given
+     * {@code MainWindow}.
+     *
+     * @param window the window which owns the renderer
+     */
+    protected SpriteSelectionRenderer(MainWindow window){
+        this.window = window;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus){
+        super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+
+        Provider provider = this.window.getProvider();
+        int sprite = index == -1 && provider != null ? provider.getLoadedIndex() : index;
+
+        this.setToolTipText(null);
+
+        if(provider == null || sprite < 0 || !provider.isModified(sprite)){
+            return this;
+        }
+
+        this.setFont(this.getFont().deriveFont(Font.BOLD));
+
+        if(provider instanceof ROMProvider){
+            String tables = String.join(", ", ((ROMProvider)provider).getModifiedTables(sprite));
+            this.setToolTipText(Resources.getString("main", "content.spriteSelection.modified", "tables", tables));
+        }
+
+        return this;
+    }
+}
@@ -29,6 +29,7 @@ import com.telinc1.faerie.display.Palette;
 import com.telinc1.faerie.gui.JPaletteView;
 import com.telinc1.faerie.gui.chooser.PaletteChooser;
 import com.telinc1.faerie.gui.main.MainWindow;
+import com.telinc1.faerie.util.ColorUtils;
 import com.telinc1.faerie.util.EnumSeverity;
 import com.telinc1.faerie.util.locale.LocalizedException;
 
@@ -42,7 +43,6 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JTextPane;
 import javax.swing.WindowConstants;
-import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Insets;
@@ -131,20 +131,20 @@ public class PaletteDialog extends JDialog {
                 int y = event.getY() / paletteView.getCellSize().height;
                 int index = x + y * paletteView.getRegionSize().width;
 
-                Color pc = palette.getColor(index);
                 int snes = palette.getSNESColor(index);
+                int pc = ColorUtils.toARGB(snes);
 
                 PaletteDialog.this.colorNAPCTextPane.setText(Resources.getString(
                     "palette", "label.color",
                     "color", String.format("%02X", index),
-                    "pc", String.format("%06X", pc.getRGB() & 0xFFFFFF),
-                    "red", pc.getRed(),
-                    "green", pc.getGreen(),
-                    "blue", pc.getBlue(),
+                    "pc", String.format("%06X", pc & 0xFFFFFF),
+                    "red", (pc >> 16) & 0xFF,
+                    "green", (pc >> 8) & 0xFF,
+                    "blue", pc & 0xFF,
                     "snes", String.format("%04X", snes),
-                    "snes_red", snes & 0x1F,
-                    "snes_green", (snes >> 5) & 0x1F,
-                    "snes_blue", (snes >> 10) & 0x1F
+                    "snes_red", ColorUtils.getRed(snes),
+                    "snes_green", ColorUtils.getGreen(snes),
+                    "snes_blue", ColorUtils.getBlue(snes)
                 ));
             }
         };
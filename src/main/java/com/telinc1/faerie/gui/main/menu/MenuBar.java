@@ -43,6 +43,11 @@ public class MenuBar extends JMenuBar {
      */
     private FileMenu fileMenu;
 
+    /**
+     * The "Edit" menu of the menu bar.
+     */
+    private EditMenu editMenu;
+
     /**
      * The "View" menu of the menu bar.
      */
@@ -64,10 +69,12 @@ public class MenuBar extends JMenuBar {
         this.parent = parent;
 
         this.fileMenu = new FileMenu(this);
+        this.editMenu = new EditMenu(this);
         this.viewMenu = new ViewMenu(this);
         this.helpMenu = new HelpMenu(this);
 
         this.add(this.fileMenu);
+        this.add(this.editMenu);
         this.add(this.viewMenu);
         this.add(this.helpMenu);
     }
@@ -90,6 +97,15 @@ public class MenuBar extends JMenuBar {
         return this.fileMenu;
     }
 
+    /**
+     * Returns the "Edit" menu.
+     *
+     * @return the {@code EditMenu}
+     */
+    public EditMenu getEditMenu(){
+        return this.editMenu;
+    }
+
     /**
      * Returns the "View" menu.
      *
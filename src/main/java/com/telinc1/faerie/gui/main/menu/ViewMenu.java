@@ -22,8 +22,11 @@
 
 package com.telinc1.faerie.gui.main.menu;
 
+import com.telinc1.faerie.gui.main.MainWindow;
 import com.telinc1.faerie.gui.main.dialog.PaletteDialog;
 
+import java.io.File;
+
 /**
  * The "View" menu of the main application window.
  *
@@ -54,5 +57,29 @@ public class ViewMenu extends Menu {
             PaletteDialog dialog = new PaletteDialog(this.getMenuBar().getWindow());
             dialog.setVisible(true);
         });
+
+        this.addItem("graphics", event -> {
+            MainWindow window = this.getMenuBar().getWindow();
+            File[] files = window.showGraphicsDialog();
+
+            if(files != null){
+                window.getInterface().loadSpriteGraphics(files);
+            }
+        });
+
+        this.addItem("level", event -> {
+            MainWindow window = this.getMenuBar().getWindow();
+
+            if(!window.getInterface().hasLevelPalettes()){
+                window.getInterface().getNotifier().error(window, "palette", "levelUnavailable");
+                return;
+            }
+
+            int level = window.showLevelDialog();
+
+            if(level != -1){
+                window.getInterface().loadLevelPalette(level);
+            }
+        });
     }
 }
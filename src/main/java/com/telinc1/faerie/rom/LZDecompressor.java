@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.rom;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The {@code LZDecompressor} static class decompresses LC_LZ2 and LC_LZ3
+ * data straight out of a {@link ROMImage}.
+ * <p>
+ * Compressed data is read from the array behind the image rather than
+ * through a stream, and literal runs, fills and non-overlapping repeats are
+ * copied in bulk. Each thread decompresses into its own reusable buffer,
+ * which is large enough for any output, so only the final result is
+ * allocated.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public final class LZDecompressor {
+    /**
+     * The largest amount of bytes which can be decompressed. Repeats address
+     * their source with 16 bits, so nothing past this can be referenced.
+     */
+    public static final int MAXIMUM_SIZE = 0x10000;
+
+    /**
+     * The command header which ends the compressed data.
+     */
+    private static final int END = 0xFF;
+
+    /**
+     * The command which uses the next two bits as the command and has a
+     * 10-bit length.
+     */
+    private static final int LONG_COMMAND = 7;
+
+    /**
+     * The reusable output buffer of each thread.
+     */
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[LZDecompressor.MAXIMUM_SIZE]);
+
+    /**
+     * Every byte with the order of its bits reversed.
+     */
+    private static final byte[] REVERSED = new byte[0x100];
+
+    static {
+        for(int value = 0; value < LZDecompressor.REVERSED.length; value++){
+            LZDecompressor.REVERSED[value] = (byte)(Integer.reverse(value) >>> 24);
+        }
+    }
+
+    /**
+     * Decompresses the data at an address of a ROM image.
+     *
+     * @param image the image to read from
+     * @param address the SNES address of the compressed data
+     * @param format the compression format of the data
+     * @return the decompressed data
+     * @throws IOException if the address is outside the image or the data
+     * is malformed
+     */
+    public static byte[] decompress(ROMImage image, int address, EnumCompression format) throws IOException{
+        if(!image.contains(address, 1)){
+            throw new IOException(String.format("Compressed data out of bounds: $%06X.", address));
+        }
+
+        byte[] buffer = LZDecompressor.BUFFERS.get();
+        int length = LZDecompressor.decompress(image.getData(), ROMImage.toPC(address), buffer, format);
+
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Decompresses data from one array into another.
+     *
+     * @param source the compressed data
+     * @param offset the index of the first command in the source
+     * @param destination the array to decompress into, from its start
+     * @param format the compression format of the data
+     * @return the amount of decompressed bytes
+     * @throws IOException if the data is malformed, ends early or doesn't
+     * fit into the destination
+     */
+    public static int decompress(byte[] source, int offset, byte[] destination, EnumCompression format) throws IOException{
+        boolean lz3 = format == EnumCompression.LZ3;
+        int in = offset;
+        int out = 0;
+
+        try {
+            while(true){
+                int header = source[in++] & 0xFF;
+
+                if(header == LZDecompressor.END){
+                    return out;
+                }
+
+                int command = header >> 5;
+                int length;
+
+                if(command == LZDecompressor.LONG_COMMAND){
+                    command = (header >> 2) & 7;
+                    length = (((header & 3) << 8) | (source[in++] & 0xFF)) + 1;
+                }else{
+                    length = (header & 0x1F) + 1;
+                }
+
+                if(out + length > destination.length){
+                    throw new IOException("The decompressed data is too long.");
+                }
+
+                if(command >= 4){
+                    if(command > 4 && !lz3){
+                        throw new IOException("Unknown command: " + command + ".");
+                    }
+
+                    int position;
+
+                    if(lz3 && source[in] < 0){
+                        position = out - (source[in++] & 0x7F) - 1;
+                    }else{
+                        position = ((source[in] & 0xFF) << 8) | (source[in + 1] & 0xFF);
+                        in += 2;
+                    }
+
+                    LZDecompressor.repeat(destination, command, position, out, length);
+                }else if(command == 0){
+                    System.arraycopy(source, in, destination, out, length);
+                    in += length;
+                }else if(command == 1){
+                    Arrays.fill(destination, out, out + length, source[in++]);
+                }else if(command == 2){
+                    byte first = source[in++];
+                    byte second = source[in++];
+
+                    for(int i = 0; i < length; i++){
+                        destination[out + i] = (i & 1) == 0 ? first : second;
+                    }
+                }else if(lz3){
+                    Arrays.fill(destination, out, out + length, (byte)0);
+                }else{
+                    byte value = source[in++];
+
+                    for(int i = 0; i < length; i++){
+                        destination[out + i] = (byte)(value + i);
+                    }
+                }
+
+                out += length;
+            }
+        }catch(ArrayIndexOutOfBoundsException exception){
+            throw new IOException("The compressed data ends early.", exception);
+        }
+    }
+
+    /**
+     * Copies already decompressed bytes to the end of the output.
+     *
+     * @param destination the decompressed data
+     * @param command the repeat command, which is 4 for a plain repeat, 5
+     * for a bit-reversed repeat and 6 for a backwards repeat
+     * @param position the index of the first byte to copy
+     * @param out the index to copy to
+     * @param length the amount of bytes to copy
+     * @throws IOException if the bytes to copy haven't been decompressed yet
+     */
+    private static void repeat(byte[] destination, int command, int position, int out, int length) throws IOException{
+        if(position < 0 || position >= out || (command == 6 && position - length + 1 < 0)){
+            throw new IOException("Invalid repeat position: " + position + ".");
+        }
+
+        if(command == 6){
+            for(int i = 0; i < length; i++){
+                destination[out + i] = destination[position - i];
+            }
+        }else if(command == 5){
+            for(int i = 0; i < length; i++){
+                destination[out + i] = LZDecompressor.REVERSED[destination[position + i] & 0xFF];
+            }
+        }else if(position + length <= out){
+            System.arraycopy(destination, position, destination, out, length);
+        }else{
+            for(int i = 0; i < length; i++){
+                destination[out + i] = destination[position + i];
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.rom;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * A {@code ROMImage} holds the contents of a LoROM Super Mario World ROM
+ * image in memory and reads from it through SNES addresses. The copier
+ * header, if any, is stripped when the image is loaded.
+ * <p>
+ * The image never changes after it's loaded, so it can be read from any
+ * thread.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class ROMImage {
+    /**
+     * The size of the copier header which some ROM images start with.
+     */
+    private static final int HEADER_SIZE = 0x200;
+
+    /**
+     * The SNES address of the version string which Lunar Magic writes into
+     * every ROM image it edits.
+     */
+    private static final int LUNAR_MAGIC_VERSION = 0x0FF0A0;
+
+    /**
+     * The start of the Lunar Magic version string.
+     */
+    private static final byte[] LUNAR_MAGIC_SIGNATURE = "Lunar Magic".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The contents of the image, without the copier header.
+     */
+    private final byte[] data;
+
+    /**
+     * Constructs an image from the contents of a ROM file.
+     *
+     * @param contents the contents of the file, with or without a copier
+     * header
+     */
+    public ROMImage(byte[] contents){
+        int offset = contents.length & ROMImage.HEADER_SIZE;
+        this.data = Arrays.copyOfRange(contents, offset, contents.length);
+    }
+
+    /**
+     * Reads a whole ROM file into memory.
+     *
+     * @param file the ROM file to read
+     * @return the image of the file
+     * @throws IOException if the file can't be read
+     */
+    public static ROMImage read(File file) throws IOException{
+        return new ROMImage(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Returns the size of the image in bytes, without the copier header.
+     */
+    public int size(){
+        return this.data.length;
+    }
+
+    /**
+     * Converts a LoROM SNES address to an offset into the image.
+     *
+     * @param address the SNES address
+     * @return the unheadered PC offset
+     */
+    public static int toPC(int address){
+        return ((address & 0x7F0000) >> 1) | (address & 0x7FFF);
+    }
+
+    /**
+     * Converts an offset into the image to a LoROM SNES address.
+     *
+     * @param pc the unheadered PC offset
+     * @return the SNES address, in the banks from $00 to $7F
+     */
+    public static int toSNES(int pc){
+        return ((pc << 1) & 0x7F0000) | (pc & 0x7FFF) | 0x8000;
+    }
+
+    /**
+     * Checks whether an amount of bytes can be read from a SNES address. The
+     * bytes may continue into the next bank.
+     *
+     * @param address the SNES address
+     * @param length the amount of bytes
+     * @return whether every byte is inside the image
+     */
+    public boolean contains(int address, int length){
+        if((address & 0x8000) == 0){
+            return false;
+        }
+
+        return ROMImage.toPC(address) + length <= this.data.length;
+    }
+
+    /**
+     * Reads an unsigned byte.
+     *
+     * @param address the SNES address to read
+     * @return the byte, from {@code 0x00} to {@code 0xFF}
+     * @throws IndexOutOfBoundsException if the address is outside the image
+     */
+    public int readByte(int address){
+        return this.data[ROMImage.toPC(address)] & 0xFF;
+    }
+
+    /**
+     * Reads an unsigned little-endian 16-bit word.
+     *
+     * @param address the SNES address to read
+     * @return the word, from {@code 0x0000} to {@code 0xFFFF}
+     * @throws IndexOutOfBoundsException if the address is outside the image
+     */
+    public int readWord(int address){
+        int pc = ROMImage.toPC(address);
+        return (this.data[pc] & 0xFF) | ((this.data[pc + 1] & 0xFF) << 8);
+    }
+
+    /**
+     * Reads an unsigned little-endian 24-bit long pointer.
+     *
+     * @param address the SNES address to read
+     * @return the pointer, from {@code 0x000000} to {@code 0xFFFFFF}
+     * @throws IndexOutOfBoundsException if the address is outside the image
+     */
+    public int readLong(int address){
+        int pc = ROMImage.toPC(address);
+        return (this.data[pc] & 0xFF) | ((this.data[pc + 1] & 0xFF) << 8) | ((this.data[pc + 2] & 0xFF) << 16);
+    }
+
+    /**
+     * Copies consecutive bytes out of the image.
+     *
+     * @param address the SNES address of the first byte
+     * @param destination the array to copy into
+     * @param offset the index of the array to start at
+     * @param length the amount of bytes to copy
+     * @throws IndexOutOfBoundsException if the bytes are outside the image
+     * or the array
+     */
+    public void read(int address, byte[] destination, int offset, int length){
+        System.arraycopy(this.data, ROMImage.toPC(address), destination, offset, length);
+    }
+
+    /**
+     * Returns a read-only little-endian view of the whole image, indexed by
+     * unheadered PC offsets.
+     *
+     * @return a new buffer over the image
+     */
+    public ByteBuffer getBuffer(){
+        return ByteBuffer.wrap(this.data).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the contents of the image without copying them, for decoders
+     * in this package which read many bytes at once. The array must not be
+     * changed.
+     *
+     * @return the contents of the image, indexed by unheadered PC offsets
+     */
+    byte[] getData(){
+        return this.data;
+    }
+
+    /**
+     * Checks whether the image has been edited with Lunar Magic, which
+     * enables its custom palettes and graphics.
+     */
+    public boolean hasLunarMagic(){
+        int pc = ROMImage.toPC(ROMImage.LUNAR_MAGIC_VERSION);
+
+        if(pc + ROMImage.LUNAR_MAGIC_SIGNATURE.length > this.data.length){
+            return false;
+        }
+
+        byte[] signature = Arrays.copyOfRange(this.data, pc, pc + ROMImage.LUNAR_MAGIC_SIGNATURE.length);
+        return Arrays.equals(signature, ROMImage.LUNAR_MAGIC_SIGNATURE);
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite;
+
+/**
+ * Defines every single-bit setting in a sprite's behavior. Each flag knows
+ * which of the six behavior bytes it belongs to and which bit it occupies,
+ * so that it can be tested directly against the packed behavior.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ * @see SpriteBehavior
+ */
+public enum EnumBehaviorFlag {
+    /**
+     * Bit 4 of $1656, whether the player can jump on the sprite without
+     * being hurt (if using default player interaction).
+     */
+    CAN_BE_JUMPED_ON("canBeJumpedOn", 0, 4),
+
+    /**
+     * Bit 5 of $1656, whether the sprite will just die or turn carryable
+     * after the player jumps on it.
+     */
+    DIES_WHEN_JUMPED_ON("diesWhenJumpedOn", 0, 5),
+
+    /**
+     * Bit 6 of $1656, whether the sprites interacts with shells like a
+     * Beach Koopa.
+     */
+    HOP_IN_SHELLS("hopInShells", 0, 6),
+
+    /**
+     * Bit 7 of $1656, whether the sprite will disappear in a puff of
+     * smoke when the player kills it.
+     */
+    DISAPPEAR_IN_SMOKE("disappearInSmoke", 0, 7),
+
+    /**
+     * Bit 6 of $1662, whether the sprite uses a shell as its death frame.
+     */
+    USE_SHELL_AS_DEATH_FRAME("useShellAsDeathFrame", 1, 6),
+
+    /**
+     * Bit 7 of $1662, whether the sprite will fall down the screen when the
+     * player kills it by jumping on it.
+     */
+    FALLS_WHEN_KILLED("fallsWhenKilled", 1, 7),
+
+    /**
+     * Bit 0 of $166E, the bit stored to bit 0 of the YXPPCCCT properties
+     * (highest bit of the sprite tile).
+     */
+    USE_SECOND_GRAPHICS_PAGE("useSecondGraphicsPage", 2, 0),
+
+    /**
+     * Bit 4 of $166E, whether the sprite can be killed by fireballs. If set,
+     * it just makes them disappear.
+     */
+    DISABLE_FIREBALL_KILLING("disableFireballKilling", 2, 4),
+
+    /**
+     * Bit 5 of $166E, whether the sprite can interact with the player's cape.
+     */
+    DISABLE_CAPE_KILLING("disableCapeKilling", 2, 5),
+
+    /**
+     * Bit 6 of $166E, whether the sprite creates a smoke sprite when entering
+     * or exiting water.
+     */
+    DISABLE_WATER_SPLASH("disableWaterSplash", 2, 6),
+
+    /**
+     * Bit 7 of $166E, whether the sprite can interact with a solid secondary
+     * layer (either interactable layer 2 or a layer 3 tide).
+     */
+    DISABLE_SECONDARY_INTERACTION("disableSecondaryInteraction", 2, 7),
+
+    /**
+     * Bit 0 of $167A, whether the sprite will still run its main code while
+     * falling off-screen after being killed.
+     */
+    PROCESS_IF_DEAD("processIfDead", 3, 0),
+
+    /**
+     * Bit 1 of $167A, whether the sprite will at all interact with
+     * star power, capes, fireballs, and bounce sprites.
+     */
+    INVINCIBLE_TO_PLAYER("invincibleToPlayer", 3, 1),
+
+    /**
+     * Bit 2 of $167A, whether the sprite will despawn when going off-screen.
+     */
+    PROCESS_WHILE_OFFSCREEN("processWhileOffscreen", 3, 2),
+
+    /**
+     * Bit 3 of $167A, whether the sprite will automatically handle shell
+     * graphics when it is stunned.
+     */
+    SKIP_SHELL_IF_STUNNED("skipShellIfStunned", 3, 3),
+
+    /**
+     * Bit 4 of $167A, whether the sprite can be kicked like a shell while it
+     * is carryable.
+     */
+    DISABLE_KICKING("disableKicking", 3, 4),
+
+    /**
+     * Bit 5 of $167A, whether the sprite will process its interaction with the
+     * player every frame instead of every second frame.
+     */
+    PROCESS_INTERACTION_EVERY_FRAME("processInteractionEveryFrame", 3, 5),
+
+    /**
+     * Bit 6 of $167A, whether the sprite will give the player a powerup when
+     * eaten by Yoshi.
+     */
+    IS_POWERUP("isPowerup", 3, 6),
+
+    /**
+     * Bit 7 of $167A, whether the sprite will the use the game's default player
+     * interaction routines.
+     */
+    DISABLE_DEFAULT_INTERACTION("disableDefaultInteraction", 3, 7),
+
+    /**
+     * Bit 0 of $1686, whether the sprite can at all be eaten by Yoshi under
+     * normal conditions.
+     */
+    INEDIBLE("inedible", 4, 0),
+
+    /**
+     * Bit 1 of $1686, whether the sprite will stay in Yoshi's mouth when
+     * eaten.
+     */
+    STAY_IN_MOUTH("stayInMouth", 4, 1),
+
+    /**
+     * Bit 2 of $1686, an unidentified ground behavior bit.
+     */
+    WEIRD_GROUND_BEHAVIOR("weirdGroundBehavior", 4, 2),
+
+    /**
+     * Bit 3 of $1686, whether the sprite will interact with other sprites.
+     */
+    DISABLE_SPRITE_INTERACTION("disableSpriteInteraction", 4, 3),
+
+    /**
+     * Bit 4 of $1686, whether the sprite will flip its direction when the
+     * player touches it (with default interaction).
+     */
+    PRESERVE_DIRECTION("preserveDirection", 4, 4),
+
+    /**
+     * Bit 5 of $1686, whether the sprite will disappear instead of turning
+     * into a coin when the player passes the goal.
+     */
+    DISAPPEAR_ON_GOAL("disappearOnGoal", 4, 5),
+
+    /**
+     * Bit 6 of $1686, whether the sprite will spawn another sprite after its
+     * stun timer runs out in its carryable state.
+     */
+    SPAWNS_SPRITE_WHEN_STUNNED("spawnsSpriteWhenStunned", 4, 6),
+
+    /**
+     * Bit 7 of $1686, whether the sprite will interact with objects (blocks).
+     */
+    DISABLE_OBJECT_INTERACTION("disableObjectInteraction", 4, 7),
+
+    /**
+     * Bit 0 of $190F, whether a platform sprite can be passed from below.
+     */
+    PLATFORM_PASSABLE_FROM_BELOW("platformPassableFromBelow", 5, 0),
+
+    /**
+     * Bit 1 of $190F, whether the sprite will just ignore passing the goal
+     * without turning into a coin or disappearing.
+     */
+    IGNORE_GOAL("ignoreGoal", 5, 1),
+
+    /**
+     * Bit 2 of $190F, whether the sprite can be killed by sliding into it
+     * (using the default interaction).
+     */
+    DISABLE_SLIDE_KILLING("disableSlideKilling", 5, 2),
+
+    /**
+     * Bit 3 of $190F, whether the sprite will need 1 or 5 fireballs in order
+     * to be killed.
+     */
+    TAKES_FIVE_FIREBALLS("takesFiveFireballs", 5, 3),
+
+    /**
+     * Bit 4 of $190F, whether the player can jump on this sprite with upward
+     * (negative) vertical speed without getting hurt.
+     */
+    CAN_BE_JUMPED_ON_FROM_BELOW("canBeJumpedOnFromBelow", 5, 4),
+
+    /**
+     * Bit 5 of $190F, whether the death frame of the sprite is 1 or 2 tiles
+     * high.
+     */
+    TALL_DEATH_FRAME("tallDeathFrame", 5, 5),
+
+    /**
+     * Bit 6 of $190F, whether the sprite will turn into a coin when a silver
+     * P-Switch is pressed.
+     */
+    IGNORE_SILVER_P_SWITCH("ignoreSilverPSwitch", 5, 6),
+
+    /**
+     * Bit 7 of $190F, whether the sprite will push itself out of a wall when
+     * it is carryable.
+     */
+    ESCAPE_WALLS("escapeWalls", 5, 7);
+
+    /**
+     * The name by which the flag is referred to in the GUI.
+     */
+    private final String key;
+
+    /**
+     * The index of the behavior byte which contains the flag.
+     */
+    private final int register;
+
+    /**
+     * The bit of the behavior byte which the flag occupies.
+     */
+    private final int bit;
+
+    /**
+     * Construct an element of the enum.
+     *
+     * @param key the name by which the flag is referred to
+     * @param register the index of the behavior byte, from 0 ($1656) to 5 ($190F)
+     * @param bit the bit of the behavior byte, from 0 to 7
+     */
+    EnumBehaviorFlag(String key, int register, int bit){
+        this.key = key;
+        this.register = register;
+        this.bit = bit;
+    }
+
+    /**
+     * Returns the flag with the given key.
+     *
+     * @param key the key to look for
+     * @return the flag with the key, or {@code null} if none match
+     */
+    public static EnumBehaviorFlag fromKey(String key){
+        for(EnumBehaviorFlag flag : EnumBehaviorFlag.values()){
+            if(flag.getKey().equals(key)){
+                return flag;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the name by which the flag is referred to in the GUI.
+     */
+    public String getKey(){
+        return this.key;
+    }
+
+    /**
+     * Returns the index of the behavior byte which contains the flag, in the
+     * order $1656, $1662, $166E, $167A, $1686, $190F.
+     */
+    public int getRegister(){
+        return this.register;
+    }
+
+    /**
+     * Returns the bit which the flag occupies inside of its behavior byte.
+     */
+    public int getBit(){
+        return this.bit;
+    }
+
+    /**
+     * Returns the mask of the flag inside of its behavior byte.
+     */
+    public int getByteMask(){
+        return 1 << this.bit;
+    }
+
+    /**
+     * Returns the mask of the flag inside of a packed 48-bit behavior.
+     */
+    public long getMask(){
+        return 1L << (this.register * 8 + this.bit);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite;
+
+/**
+ * Defines the properties of a sprite besides its behavior. Every numeric
+ * property occupies a fixed range of bits in the word returned by
+ * {@link #pack(Sprite)}, so that two sprites can be compared by XOR-ing
+ * their packed words.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ * @see EnumBehaviorFlag
+ */
+public enum EnumSpriteField {
+    /**
+     * The type of the sprite, stored as its ordinal.
+     */
+    TYPE("type", 0, 1),
+
+    /**
+     * The subtype of the sprite, stored as its ordinal.
+     */
+    SUBTYPE("subtype", 1, 3),
+
+    /**
+     * The acts like setting of the sprite.
+     */
+    ACTS_LIKE("actsLike", 4, 8),
+
+    /**
+     * The first property byte of the sprite.
+     */
+    FIRST_PROPERTY_BYTE("firstPropertyByte", 12, 8),
+
+    /**
+     * The second property byte of the sprite.
+     */
+    SECOND_PROPERTY_BYTE("secondPropertyByte", 20, 8),
+
+    /**
+     * The status handling of the sprite, stored as its ordinal.
+     */
+    STATUS_HANDLING("statusHandling", 28, 2),
+
+    /**
+     * The unique byte of the sprite.
+     */
+    UNIQUE_BYTE("uniqueByte", 30, 8),
+
+    /**
+     * The amount of extra bytes of the sprite.
+     */
+    EXTRA_BYTES("extraBytes", 38, 8),
+
+    /**
+     * The first ASM file of the sprite. It isn't part of the packed word.
+     */
+    FIRST_ASM_FILE("firstASMFile", 0, 0),
+
+    /**
+     * The second ASM file of the sprite. It isn't part of the packed word.
+     */
+    SECOND_ASM_FILE("secondASMFile", 0, 0);
+
+    /**
+     * The name by which the field is referred to.
+     */
+    private final String key;
+
+    /**
+     * The first bit of the field in the packed word.
+     */
+    private final int shift;
+
+    /**
+     * The amount of bits of the field in the packed word.
+     */
+    private final int width;
+
+    /**
+     * Construct an element of the enum.
+     *
+     * @param key the name by which the field is referred to
+     * @param shift the first bit of the field in the packed word
+     * @param width the amount of bits of the field, or {@code 0} if the
+     * field isn't packed
+     */
+    EnumSpriteField(String key, int shift, int width){
+        this.key = key;
+        this.shift = shift;
+        this.width = width;
+    }
+
+    /**
+     * Packs every numeric property of a sprite into a single word.
+     *
+     * @param sprite the sprite to pack
+     * @return the packed properties
+     */
+    public static long pack(Sprite sprite){
+        return (long)sprite.getType().ordinal()
+            | ((long)sprite.getSubType().ordinal() << 1)
+            | ((long)(sprite.getActsLike() & 0xFF) << 4)
+            | ((long)(sprite.getFirstPropertyByte() & 0xFF) << 12)
+            | ((long)(sprite.getSecondPropertyByte() & 0xFF) << 20)
+            | ((long)sprite.getStatusHandling().ordinal() << 28)
+            | ((long)(sprite.getUniqueByte() & 0xFF) << 30)
+            | ((long)(sprite.getExtraBytes() & 0xFF) << 38);
+    }
+
+    /**
+     * Packs every numeric property of a sprite into a single word, using the
+     * values which the sprite stores even if its type or subtype hides them.
+     * Unlike {@link #pack(Sprite)}, applying the word back restores hidden
+     * values exactly.
+     *
+     * @param sprite the sprite to pack
+     * @return the packed stored properties
+     */
+    public static long packRaw(Sprite sprite){
+        return (long)sprite.getType().ordinal()
+            | ((long)sprite.getSubType().ordinal() << 1)
+            | ((long)(sprite.getRawActsLike() & 0xFF) << 4)
+            | ((long)(sprite.getRawFirstPropertyByte() & 0xFF) << 12)
+            | ((long)(sprite.getRawSecondPropertyByte() & 0xFF) << 20)
+            | ((long)sprite.getRawStatusHandling().ordinal() << 28)
+            | ((long)(sprite.getRawUniqueByte() & 0xFF) << 30)
+            | ((long)(sprite.getRawExtraBytes() & 0xFF) << 38);
+    }
+
+    /**
+     * Returns the stored name of an ASM file of a sprite, even if its subtype
+     * doesn't use the file.
+     *
+     * @param sprite the sprite to read from
+     * @return the name of the ASM file
+     * @throws UnsupportedOperationException if the field isn't an ASM file
+     */
+    public String getRawASMFile(Sprite sprite){
+        switch(this){
+            case FIRST_ASM_FILE:
+                return sprite.getRawFirstASMFile();
+            case SECOND_ASM_FILE:
+                return sprite.getRawSecondASMFile();
+            default:
+                throw new UnsupportedOperationException("The field " + this.getKey() + " isn't an ASM file.");
+        }
+    }
+
+    /**
+     * Sets the field of a sprite to its value from a packed word.
+     *
+     * @param sprite the sprite to change
+     * @param word the packed properties to read the value from
+     * @throws UnsupportedOperationException if the field isn't packed
+     */
+    public void apply(Sprite sprite, long word){
+        int value = this.extract(word);
+
+        switch(this){
+            case TYPE:
+                sprite.setType(EnumSpriteType.values()[value]);
+                break;
+            case SUBTYPE:
+                sprite.setSubtype(EnumSpriteSubType.values()[value]);
+                break;
+            case ACTS_LIKE:
+                sprite.setActsLike(value);
+                break;
+            case FIRST_PROPERTY_BYTE:
+                sprite.setFirstPropertyByte(value);
+                break;
+            case SECOND_PROPERTY_BYTE:
+                sprite.setSecondPropertyByte(value);
+                break;
+            case STATUS_HANDLING:
+                sprite.setStatusHandling(EnumStatusHandling.values()[value]);
+                break;
+            case UNIQUE_BYTE:
+                sprite.setUniqueByte(value);
+                break;
+            case EXTRA_BYTES:
+                sprite.setExtraBytes(value);
+                break;
+            default:
+                throw new UnsupportedOperationException("The field " + this.getKey() + " isn't packed.");
+        }
+    }
+
+    /**
+     * Returns the name by which the field is referred to.
+     */
+    public String getKey(){
+        return this.key;
+    }
+
+    /**
+     * Checks whether the field is a part of the packed word.
+     */
+    public boolean isPacked(){
+        return this.width > 0;
+    }
+
+    /**
+     * Returns the mask of the field in the packed word, which is zero if
+     * the field isn't packed.
+     */
+    public long getMask(){
+        return ((1L << this.width) - 1) << this.shift;
+    }
+
+    /**
+     * Extracts the value of the field from a packed word.
+     *
+     * @param word the packed properties of a sprite
+     * @return the value of the field
+     */
+    public int extract(long word){
+        return (int)((word & this.getMask()) >>> this.shift);
+    }
+}
@@ -95,16 +95,51 @@ public class Sprite {
      * Creates a new custom sprite with default properties.
      */
     public Sprite(){
+        this(new SpriteBehavior());
+    }
+
+    /**
+     * Creates a new custom sprite with default properties which uses the
+     * given object for its behavior. This allows subclasses to store their
+     * behavior elsewhere.
+     *
+     * @param behavior the behavior of the sprite
+     */
+    protected Sprite(SpriteBehavior behavior){
         this.type = EnumSpriteType.CUSTOM;
         this.subtype = EnumSpriteSubType.REGULAR;
         this.actsLike = 0x36;
-        this.spriteBehavior = new SpriteBehavior();
+        this.spriteBehavior = behavior;
         this.statusHandling = EnumStatusHandling.HANDLE_STUNNED;
         this.firstASMFile = "";
         this.secondASMFile = "";
         this.displayData = null;
     }
 
+    /**
+     * Creates a deep copy of the sprite. The copy stores all of its
+     * properties itself, even if this sprite keeps some of them elsewhere,
+     * and changes to it are not reflected in this sprite.
+     *
+     * @return a new sprite with the same properties
+     */
+    public Sprite copy(){
+        Sprite copy = new Sprite(new SpriteBehavior(this.getBehavior().getBits()));
+        copy.type = this.getType();
+        copy.subtype = this.getSubType();
+        copy.actsLike = this.getRawActsLike();
+        copy.firstPropertyByte = this.firstPropertyByte;
+        copy.secondPropertyByte = this.secondPropertyByte;
+        copy.statusHandling = this.statusHandling;
+        copy.uniqueByte = this.uniqueByte;
+        copy.extraBytes = this.extraBytes;
+        copy.firstASMFile = this.firstASMFile;
+        copy.secondASMFile = this.secondASMFile;
+        copy.displayData = this.displayData == null ? null : this.displayData.copy();
+
+        return copy;
+    }
+
     /**
      * Checks if a sprite has sufficient data.
      *
@@ -240,6 +275,14 @@ public class Sprite {
         return this;
     }
 
+    /**
+     * Returns the stored acts like setting of the sprite, even if its subtype
+     * doesn't have one.
+     */
+    int getRawActsLike(){
+        return this.actsLike;
+    }
+
     /**
      * Returns the behavior (Tweaker settings) of the sprite.
      */
@@ -270,6 +313,14 @@ public class Sprite {
         return this;
     }
 
+    /**
+     * Returns the stored first property byte of the sprite, even if its
+     * subtype doesn't have property bytes.
+     */
+    int getRawFirstPropertyByte(){
+        return this.firstPropertyByte;
+    }
+
     /**
      * Returns the sprite's second property byte. The top two bits of the
      * second property byte are implicitly used as the status override
@@ -295,6 +346,14 @@ public class Sprite {
         return this;
     }
 
+    /**
+     * Returns the stored second property byte of the sprite, even if its
+     * subtype doesn't have property bytes.
+     */
+    int getRawSecondPropertyByte(){
+        return this.secondPropertyByte;
+    }
+
     /**
      * Returns the type of handling this sprite uses for its status.
      */
@@ -313,6 +372,14 @@ public class Sprite {
         return this;
     }
 
+    /**
+     * Returns the stored status handling of the sprite, even if its subtype
+     * doesn't have property bytes.
+     */
+    EnumStatusHandling getRawStatusHandling(){
+        return this.statusHandling;
+    }
+
     /**
      * Returns the amount of extra bytes this sprite has. This should not be
      * greater than maximum amount defined by the subtype.
@@ -335,6 +402,14 @@ public class Sprite {
         return this;
     }
 
+    /**
+     * Returns the stored amount of extra bytes of the sprite, which isn't
+     * clamped to the maximum amount of its subtype.
+     */
+    int getRawExtraBytes(){
+        return this.extraBytes;
+    }
+
     /**
      * Returns the sprite's additional unique byte. If the subtype doesn't have
      * a unique byte, this returns {@code (byte)-1}, or {@code 0xFF}.
@@ -356,6 +431,14 @@ public class Sprite {
         return this;
     }
 
+    /**
+     * Returns the stored unique byte of the sprite, even if its subtype
+     * doesn't have one.
+     */
+    int getRawUniqueByte(){
+        return this.uniqueByte;
+    }
+
     /**
      * Returns the name of the first ASM file used by the sprite. If the
      * subtype doesn't use its first ASM file, it returns {@code null}.
@@ -375,6 +458,14 @@ public class Sprite {
         return this;
     }
 
+    /**
+     * Returns the stored name of the first ASM file of the sprite, even if
+     * its subtype doesn't use it.
+     */
+    String getRawFirstASMFile(){
+        return this.firstASMFile;
+    }
+
     /**
      * Returns the name of the second ASM file used by the sprite. If the
      * subtype doesn't use its second ASM file, it returns {@code null}.
@@ -394,6 +485,14 @@ public class Sprite {
         return this;
     }
 
+    /**
+     * Returns the stored name of the second ASM file of the sprite, even if
+     * its subtype doesn't use it.
+     */
+    String getRawSecondASMFile(){
+        return this.secondASMFile;
+    }
+
     /**
      * Returns the Lunar Magic display data of the sprite.
      */
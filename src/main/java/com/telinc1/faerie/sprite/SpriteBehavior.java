@@ -24,331 +24,268 @@ package com.telinc1.faerie.sprite;
 
 /**
  * Contains the behavior of a sprite, often called the Tweaker settings.
+ * <p>
+ * All six behavior bytes are packed into the lower 48 bits of a single
+ * {@code long}, with the byte for $1656 in bits 0-7 and the byte for $190F
+ * in bits 40-47. Every accessor goes through {@link #getBits()} and
+ * {@link #setBits(long)}, so comparing or hashing two behaviors never has to
+ * look at individual settings.
  *
  * @author Telinc1
  * @since 1.0.0
+ * @see EnumBehaviorFlag
  */
 public class SpriteBehavior {
     /**
-     * Bits 0-3 of $1656, the sprite's block (object) interaction hitbox.
+     * The mask of all bits which are used by a packed behavior.
      */
-    public byte objectClipping;
+    public static final long MASK = 0xFFFFFFFFFFFFL;
 
     /**
-     * Bit 4 of $1656, whether the player can jump on the sprite without
-     * being hurt (if using default player interaction).
+     * The number of behavior bytes.
      */
-    public boolean canBeJumpedOn;
+    public static final int BYTES = 6;
 
     /**
-     * Bit 5 of $1656, whether the sprite will just die or turn carryable
-     * after the player jumps on it.
+     * The packed behavior bytes.
      */
-    public boolean diesWhenJumpedOn;
+    private long bits;
 
     /**
-     * Bit 6 of $1656, whether the sprites interacts with shells like a
-     * Beach Koopa.
+     * Constructs an empty behavior, with every byte set to zero.
      */
-    public boolean hopInShells;
-
-    /**
-     * Bit 7 of $1656, whether the sprite will disappear in a puff of
-     * smoke when the player kills it.
-     */
-    public boolean disappearInSmoke;
-
-    /**
-     * Bits 0-5 of $1662, the sprite's interaction (hitbox) with other sprites.
-     */
-    public byte spriteClipping;
-
-    /**
-     * Bit 6 of $1662, whether the sprite uses a shell as its death frame.
-     */
-    public boolean useShellAsDeathFrame;
-
-    /**
-     * Bit 7 of $1662, whether the sprite will fall down the screen when the
-     * player kills it by jumping on it.
-     */
-    public boolean fallsWhenKilled;
-
-    /**
-     * Bit 0 of $166E, the bit stored to bit 0 of the YXPPCCCT properties
-     * (highest bit of the sprite tile).
-     */
-    public boolean useSecondGraphicsPage;
-
-    /**
-     * Bits 1-3 of $166E, the palette stored to the YXPPCCCT properties.
-     */
-    public byte palette;
-
-    /**
-     * Bit 4 of $166E, whether the sprite can be killed by fireballs. If false,
-     * it just makes them disappear.
-     */
-    public boolean disableFireballKilling;
+    public SpriteBehavior(){
+        this(0L);
+    }
 
     /**
-     * Bit 5 of $166E, whether the sprite can interact with the player's cape.
+     * Constructs a behavior from its packed bytes.
+     *
+     * @param bits the packed behavior bytes
      */
-    public boolean disableCapeKilling;
+    public SpriteBehavior(long bits){
+        this.bits = bits & SpriteBehavior.MASK;
+    }
 
     /**
-     * Bit 6 of $166E, whether the sprite creates a smoke sprite when entering
-     * or exiting water.
+     * Returns the packed behavior bytes.
      */
-    public boolean disableWaterSplash;
+    public long getBits(){
+        return this.bits;
+    }
 
     /**
-     * Bit 7 of $166E, whether the sprite can interact with a solid secondary
-     * layer (either interactable layer 2 or a layer 3 tide).
+     * Replaces all behavior bytes at once.
+     *
+     * @param bits the new packed behavior bytes
+     * @return the behavior, for chaining
      */
-    public boolean disableSecondaryInteraction;
+    public SpriteBehavior setBits(long bits){
+        this.bits = bits & SpriteBehavior.MASK;
+        return this;
+    }
 
     /**
-     * Bit 0 of $167A, whether the sprite will still run its main code while
-     * falling off-screen after being killed.
+     * Returns the value of a single behavior flag.
+     *
+     * @param flag the flag to test
+     * @return whether the flag is set
      */
-    public boolean processIfDead;
+    public boolean get(EnumBehaviorFlag flag){
+        return (this.getBits() & flag.getMask()) != 0L;
+    }
 
     /**
-     * Bit 1 of $167A, whether the sprite will at all interact with
-     * star power, capes, fireballs, and bounce sprites.
+     * Sets the value of a single behavior flag.
+     *
+     * @param flag the flag to change
+     * @param value whether the flag should be set
+     * @return the behavior, for chaining
      */
-    public boolean invincibleToPlayer;
+    public SpriteBehavior set(EnumBehaviorFlag flag, boolean value){
+        long bits = this.getBits();
+        return this.setBits(value ? bits | flag.getMask() : bits & ~flag.getMask());
+    }
 
     /**
-     * Bit 2 of $167A, whether the sprite will despawn when going off-screen.
-     */
-    public boolean processWhileOffscreen;
+     * Returns one of the six behavior bytes.
+     *
+     * @param register the index of the byte, in the order $1656, $1662,
+     * $166E, $167A, $1686, $190F
+     * @return the value of the byte, from {@code 0x00} to {@code 0xFF}
+     * @throws IndexOutOfBoundsException if the index is not between 0 and 5
+     */
+    public int getByte(int register){
+        SpriteBehavior.checkRegister(register);
+        return (int)(this.getBits() >>> (register * 8)) & 0xFF;
+    }
 
     /**
-     * Bit 3 of $167A, whether the sprite will automatically handle shell
-     * graphics when it is stunned.
+     * Replaces one of the six behavior bytes.
+     *
+     * @param register the index of the byte, in the order $1656, $1662,
+     * $166E, $167A, $1686, $190F
+     * @param value the new value of the byte, only the lower 8 bits are used
+     * @return the behavior, for chaining
+     * @throws IndexOutOfBoundsException if the index is not between 0 and 5
      */
-    public boolean skipShellIfStunned;
+    public SpriteBehavior setByte(int register, int value){
+        SpriteBehavior.checkRegister(register);
 
-    /**
-     * Bit 4 of $167A, whether the sprite can be kicked like a shell while it
-     * is carryable.
-     */
-    public boolean disableKicking;
+        int shift = register * 8;
+        return this.setBits((this.getBits() & ~(0xFFL << shift)) | ((long)(value & 0xFF) << shift));
+    }
 
     /**
-     * Bit 5 of $167A, whether the sprite will process its interaction with the
-     * player every frame instead of every second frame.
+     * Returns bits 0-3 of $1656, the sprite's block (object) interaction
+     * hitbox.
      */
-    public boolean processInteractionEveryFrame;
+    public int getObjectClipping(){
+        return this.getByte(0) & 0xF;
+    }
 
     /**
-     * Bit 6 of $167A, whether the sprite will give the player a powerup when
-     * eaten by Yoshi.
+     * Sets the sprite's object clipping.
+     *
+     * @param clipping the new clipping, only the lower 4 bits are used
+     * @return the behavior, for chaining
      */
-    public boolean isPowerup;
+    public SpriteBehavior setObjectClipping(int clipping){
+        return this.setByte(0, (this.getByte(0) & ~0xF) | (clipping & 0xF));
+    }
 
     /**
-     * Bit 7 of $167A, whether the sprite will the use the game's default player
-     * interaction routines.
+     * Returns bits 0-5 of $1662, the sprite's interaction (hitbox) with other
+     * sprites.
      */
-    public boolean disableDefaultInteraction;
+    public int getSpriteClipping(){
+        return this.getByte(1) & 0x3F;
+    }
 
     /**
-     * Bit 0 of $1686, whether the sprite can at all be eaten by Yoshi under
-     * normal conditions.
+     * Sets the sprite's sprite clipping.
+     *
+     * @param clipping the new clipping, only the lower 6 bits are used
+     * @return the behavior, for chaining
      */
-    public boolean inedible;
+    public SpriteBehavior setSpriteClipping(int clipping){
+        return this.setByte(1, (this.getByte(1) & ~0x3F) | (clipping & 0x3F));
+    }
 
     /**
-     * Bit 1 of $1686, whether the sprite will stay in Yoshi's mouth when
-     * eaten.
+     * Returns bits 1-3 of $166E, the palette stored to the YXPPCCCT
+     * properties.
      */
-    public boolean stayInMouth;
+    public int getPalette(){
+        return (this.getByte(2) >> 1) & 0b111;
+    }
 
     /**
-     * Bit 2 of $1686, an unidentified ground behavior bit.
+     * Sets the sprite's palette.
+     *
+     * @param palette the new palette, only the lower 3 bits are used
+     * @return the behavior, for chaining
      */
-    public boolean weirdGroundBehavior;
+    public SpriteBehavior setPalette(int palette){
+        return this.setByte(2, (this.getByte(2) & ~0b1110) | ((palette & 0b111) << 1));
+    }
 
     /**
-     * Bit 3 of $1686, whether the sprite will interact with other sprites.
+     * Computes the bits which differ between this behavior and another one.
+     *
+     * @param other the behavior to compare against
+     * @return the packed bits which differ, zero if both are equal
      */
-    public boolean disableSpriteInteraction;
+    public long diff(SpriteBehavior other){
+        return this.getBits() ^ other.getBits();
+    }
 
     /**
-     * Bit 4 of $1686, whether the sprite will flip its direction when the
-     * player touches it (with default interaction).
+     * Packs all six behavior bytes into an array of integers.
+     *
+     * @return the packed array in the order $1656, $1662, $166E, $167A, $1686, $190F
      */
-    public boolean preserveDirection;
+    public int[] pack(){
+        return this.pack(new int[SpriteBehavior.BYTES], 0);
+    }
 
     /**
-     * Bit 5 of $1686, whether the sprite will disappear instead of turning
-     * into a coin when the player passes the goal.
+     * Packs all six behavior bytes into an existing array of integers.
+     *
+     * @param buffer the array to write into
+     * @return the given array
+     * @throws IndexOutOfBoundsException if the array has less than 6 elements
      */
-    public boolean disappearOnGoal;
+    public int[] pack(int[] buffer){
+        return this.pack(buffer, 0);
+    }
 
     /**
-     * Bit 6 of $1686, whether the sprite will spawn another sprite after its
-     * stun timer runs out in its carryable state.
+     * Packs all six behavior bytes into an existing array of integers,
+     * starting at the given offset.
+     *
+     * @param buffer the array to write into
+     * @param offset the index of the first element to write
+     * @return the given array
+     * @throws IndexOutOfBoundsException if the array is too short
      */
-    public boolean spawnsSpriteWhenStunned;
+    public int[] pack(int[] buffer, int offset){
+        long bits = this.getBits();
 
-    /**
-     * Bit 7 of $1686, whether the sprite will interact with objects (blocks).
-     */
-    public boolean disableObjectInteraction;
+        for(int i = 0; i < SpriteBehavior.BYTES; i++){
+            buffer[offset + i] = (int)(bits >>> (i * 8)) & 0xFF;
+        }
 
-    /**
-     * Bit 0 of $190F, whether a platform sprite can be passed from below.
-     */
-    public boolean platformPassableFromBelow;
+        return buffer;
+    }
 
     /**
-     * Bit 1 of $190F, whether the sprite will just ignore passing the goal
-     * without turning into a coin or disappearing.
+     * Unpacks an array of bytes into the behavior's properties.
+     *
+     * @param settings the six bytes to unpack
+     * @throws IllegalArgumentException if the given array has less than 6 elements
      */
-    public boolean ignoreGoal;
+    public void unpack(int[] settings) throws IllegalArgumentException{
+        if(settings.length < SpriteBehavior.BYTES){
+            throw new IllegalArgumentException("The packed settings array must have 6 integers.");
+        }
 
-    /**
-     * Bit 2 of $190F, whether the sprite can be killed by sliding into it
-     * (using the default interaction).
-     */
-    public boolean disableSlideKilling;
+        long bits = 0L;
 
-    /**
-     * Bit 3 of $190F, whether the sprite will need 1 or 5 fireballs in order
-     * to be killed.
-     */
-    public boolean takesFiveFireballs;
+        for(int i = 0; i < SpriteBehavior.BYTES; i++){
+            bits |= (long)(settings[i] & 0xFF) << (i * 8);
+        }
 
-    /**
-     * Bit 4 of $190F, whether the player can jump on this sprite with upward
-     * (negative) vertical speed without getting hurt.
-     */
-    public boolean canBeJumpedOnFromBelow;
+        this.setBits(bits);
+    }
 
-    /**
-     * Bit 5 of $190F, whether the death frame of the sprite is 1 or 2 tiles
-     * high.
-     */
-    public boolean tallDeathFrame;
+    @Override
+    public boolean equals(Object object){
+        if(this == object){
+            return true;
+        }
 
-    /**
-     * Bit 6 of $190F, whether the sprite will turn into a coin when a silver
-     * P-Switch is pressed.
-     */
-    public boolean ignoreSilverPSwitch;
+        if(!(object instanceof SpriteBehavior)){
+            return false;
+        }
 
-    /**
-     * Bits 7 of $190F, whether the sprite will push itself out of a wall when
-     * it is carryable.
-     */
-    public boolean escapeWalls;
+        return this.getBits() == ((SpriteBehavior)object).getBits();
+    }
 
-    /**
-     * Packs all six behavior bytes into an array of integers.
-     *
-     * @return the packed array in the order $1656, $1662, $166E, $167A, $1686, $190F
-     */
-    public int[] pack(){
-        return new int[]{
-            (this.objectClipping & 0xF)
-                | (this.canBeJumpedOn ? 0x10 : 0x0)
-                | (this.diesWhenJumpedOn ? 0x20 : 0x0)
-                | (this.hopInShells ? 0x40 : 0x0)
-                | (this.disappearInSmoke ? 0x80 : 0x0),
-            (this.spriteClipping & 0x3F)
-                | (this.useShellAsDeathFrame ? 0x40 : 0x0)
-                | (this.fallsWhenKilled ? 0x80 : 0x0),
-            (this.useSecondGraphicsPage ? 0x1 : 0x0)
-                | ((this.palette & 0b111) << 0x1)
-                | (this.disableFireballKilling ? 0x10 : 0x0)
-                | (this.disableCapeKilling ? 0x20 : 0x0)
-                | (this.disableWaterSplash ? 0x40 : 0x0)
-                | (this.disableSecondaryInteraction ? 0x90 : 0x0),
-            (this.processIfDead ? 0x1 : 0x0)
-                | (this.invincibleToPlayer ? 0x2 : 0x0)
-                | (this.processWhileOffscreen ? 0x4 : 0x0)
-                | (this.skipShellIfStunned ? 0x8 : 0x0)
-                | (this.disableKicking ? 0x10 : 0x0)
-                | (this.processInteractionEveryFrame ? 0x20 : 0x0)
-                | (this.isPowerup ? 0x40 : 0x0)
-                | (this.disableDefaultInteraction ? 0x80 : 0x0),
-            (this.inedible ? 0x1 : 0x0)
-                | (this.stayInMouth ? 0x2 : 0x0)
-                | (this.weirdGroundBehavior ? 0x4 : 0x0)
-                | (this.disableSpriteInteraction ? 0x8 : 0x0)
-                | (this.preserveDirection ? 0x10 : 0x0)
-                | (this.disappearOnGoal ? 0x20 : 0x0)
-                | (this.spawnsSpriteWhenStunned ? 0x40 : 0x0)
-                | (this.disableObjectInteraction ? 0x80 : 0x0),
-            (this.platformPassableFromBelow ? 0x1 : 0x0)
-                | (this.ignoreGoal ? 0x2 : 0x0)
-                | (this.disableSlideKilling ? 0x4 : 0x0)
-                | (this.takesFiveFireballs ? 0x8 : 0x0)
-                | (this.canBeJumpedOnFromBelow ? 0x10 : 0x0)
-                | (this.tallDeathFrame ? 0x20 : 0x0)
-                | (this.ignoreSilverPSwitch ? 0x40 : 0x0)
-                | (this.escapeWalls ? 0x80 : 0x0)
-        };
+    @Override
+    public int hashCode(){
+        return Long.hashCode(this.getBits());
     }
 
     /**
-     * Unpacks an array of bytes into the behavior's properties.
+     * Verifies that a behavior byte index is valid.
      *
-     * @param settings the six bytes to unpack
-     * @throws IllegalArgumentException if the given array has less than 6 elements
+     * @param register the index to verify
+     * @throws IndexOutOfBoundsException if the index is not between 0 and 5
      */
-    @SuppressWarnings("ConstantConditions")
-    public void unpack(int[] settings) throws IllegalArgumentException{
-        if(settings.length < 6){
-            throw new IllegalArgumentException("The packed settings array must have 6 integers.");
+    private static void checkRegister(int register){
+        if(register < 0 || register >= SpriteBehavior.BYTES){
+            throw new IndexOutOfBoundsException("Behavior byte out of bounds: " + register + ".");
         }
-
-        this.objectClipping = (byte)(settings[0] & 0xF);
-        this.canBeJumpedOn = (settings[0] & 0x10) != 0x0;
-        this.diesWhenJumpedOn = (settings[0] & 0x20) != 0x0;
-        this.hopInShells = (settings[0] & 0x40) != 0x0;
-        this.disappearInSmoke = (settings[0] & 0x80) != 0x0;
-
-        this.spriteClipping = (byte)(settings[1] & 0x3F);
-        this.useShellAsDeathFrame = (settings[1] & 0x40) != 0x0;
-        this.fallsWhenKilled = (settings[1] & 0x80) != 0x0;
-
-        this.useSecondGraphicsPage = (settings[2] & 0x1) != 0x0;
-        this.palette = (byte)((settings[2] >> 0x1) & 0b111);
-        this.disableFireballKilling = (settings[2] & 0x10) != 0x0;
-        this.disableCapeKilling = (settings[2] & 0x20) != 0x0;
-        this.disableWaterSplash = (settings[2] & 0x40) != 0x0;
-        this.disableSecondaryInteraction = (settings[2] & 0x80) != 0x0;
-
-        this.processIfDead = (settings[3] & 0x1) != 0x0;
-        this.invincibleToPlayer = (settings[3] & 0x2) != 0x0;
-        this.processWhileOffscreen = (settings[3] & 0x4) != 0x0;
-        this.skipShellIfStunned = (settings[3] & 0x8) != 0x0;
-        this.disableKicking = (settings[3] & 0x10) != 0x0;
-        this.processInteractionEveryFrame = (settings[3] & 0x20) != 0x0;
-        this.isPowerup = (settings[3] & 0x40) != 0x0;
-        this.disableDefaultInteraction = (settings[3] & 0x80) != 0x0;
-
-        this.inedible = (settings[4] & 0x1) != 0x0;
-        this.stayInMouth = (settings[4] & 0x2) != 0x0;
-        this.weirdGroundBehavior = (settings[4] & 0x4) != 0x0;
-        this.disableSpriteInteraction = (settings[4] & 0x8) != 0x0;
-        this.preserveDirection = (settings[4] & 0x10) != 0x0;
-        this.disappearOnGoal = (settings[4] & 0x20) != 0x0;
-        this.spawnsSpriteWhenStunned = (settings[4] & 0x40) != 0x0;
-        this.disableObjectInteraction = (settings[4] & 0x80) != 0x0;
-
-        this.platformPassableFromBelow = (settings[5] & 0x1) != 0x0;
-        this.ignoreGoal = (settings[5] & 0x2) != 0x0;
-        this.disableSlideKilling = (settings[5] & 0x4) != 0x0;
-        this.takesFiveFireballs = (settings[5] & 0x8) != 0x0;
-        this.canBeJumpedOnFromBelow = (settings[5] & 0x10) != 0x0;
-        this.tallDeathFrame = (settings[5] & 0x20) != 0x0;
-        this.ignoreSilverPSwitch = (settings[5] & 0x40) != 0x0;
-        this.escapeWalls = (settings[5] & 0x80) != 0x0;
     }
 }
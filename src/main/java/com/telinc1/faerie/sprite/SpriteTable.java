@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite;
+
+/**
+ * A {@code SpriteTable} stores the tweakable properties of many sprites as
+ * columns of primitive arrays instead of as individual {@link Sprite}
+ * objects. The six behavior columns mirror the layout of the Tweaker tables
+ * in a ROM image, so they can be read and written in bulk and scanned with
+ * tight loops.
+ * <p>
+ * Individual rows can still be handed to code which expects a
+ * {@code Sprite} through {@link #getSprite(int)}, which returns a view that
+ * reads and writes the table directly.
+ * <p>
+ * {@link #snapshot()} creates a read-only copy of the table which shares
+ * every column with it. A shared column is only copied once the table first
+ * writes to it, so taking a snapshot costs nothing and each edit afterwards
+ * copies at most the columns it actually changes.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class SpriteTable {
+    /**
+     * Every sprite type, indexed by ordinal.
+     */
+    private static final EnumSpriteType[] TYPES = EnumSpriteType.values();
+
+    /**
+     * Every sprite subtype, indexed by ordinal.
+     */
+    private static final EnumSpriteSubType[] SUBTYPES = EnumSpriteSubType.values();
+
+    /**
+     * The index of the type column in the mask of shared columns. The
+     * behavior columns use the indexes of their registers.
+     */
+    private static final int TYPES_COLUMN = SpriteBehavior.BYTES;
+
+    /**
+     * The index of the subtype column in the mask of shared columns.
+     */
+    private static final int SUBTYPES_COLUMN = SpriteBehavior.BYTES + 1;
+
+    /**
+     * The index of the acts like column in the mask of shared columns.
+     */
+    private static final int ACTS_LIKE_COLUMN = SpriteBehavior.BYTES + 2;
+
+    /**
+     * The mask which marks every column as shared.
+     */
+    private static final int ALL_COLUMNS = (1 << (SpriteBehavior.BYTES + 3)) - 1;
+
+    /**
+     * The amount of rows in the table.
+     */
+    private final int size;
+
+    /**
+     * The six behavior columns, in the order $1656, $1662, $166E, $167A,
+     * $1686, $190F.
+     */
+    private final byte[][] behavior;
+
+    /**
+     * The ordinal of the type of each row.
+     */
+    private byte[] types;
+
+    /**
+     * The ordinal of the subtype of each row.
+     */
+    private byte[] subtypes;
+
+    /**
+     * The acts like setting of each row.
+     */
+    private byte[] actsLike;
+
+    /**
+     * The mask of the columns which are shared with a snapshot and have to
+     * be copied before they're written to.
+     */
+    private volatile int shared;
+
+    /**
+     * Whether this table is a read-only snapshot.
+     */
+    private final boolean snapshot;
+
+    /**
+     * Constructs an empty table with the given amount of rows.
+     *
+     * @param size the amount of rows
+     * @throws IllegalArgumentException if the size is negative
+     */
+    public SpriteTable(int size){
+        if(size < 0){
+            throw new IllegalArgumentException("The table size can't be negative.");
+        }
+
+        this.size = size;
+        this.behavior = new byte[SpriteBehavior.BYTES][size];
+        this.types = new byte[size];
+        this.subtypes = new byte[size];
+        this.actsLike = new byte[size];
+        this.shared = 0;
+        this.snapshot = false;
+    }
+
+    /**
+     * Constructs a read-only snapshot which shares every column with a
+     * table.
+     *
+     * @param table the table to take a snapshot of
+     */
+    private SpriteTable(SpriteTable table){
+        this.size = table.size;
+        this.behavior = table.behavior.clone();
+        this.types = table.types;
+        this.subtypes = table.subtypes;
+        this.actsLike = table.actsLike;
+        this.shared = 0;
+        this.snapshot = true;
+    }
+
+    /**
+     * Creates a read-only snapshot of the table. The snapshot shares its
+     * columns with the table, which copies them before it changes them, so
+     * the snapshot never sees later changes. Writing to the snapshot or to
+     * its rows throws an {@link UnsupportedOperationException}.
+     * <p>
+     * A snapshot must not be taken while the table is being written to, but
+     * the snapshot itself can be read from any thread.
+     *
+     * @return a read-only snapshot of the table
+     */
+    public SpriteTable snapshot(){
+        if(this.isSnapshot()){
+            return this;
+        }
+
+        this.shared = SpriteTable.ALL_COLUMNS;
+        return new SpriteTable(this);
+    }
+
+    /**
+     * Checks whether this table is a read-only snapshot.
+     *
+     * @see #snapshot()
+     */
+    public boolean isSnapshot(){
+        return this.snapshot;
+    }
+
+    /**
+     * Prepares a column to be written to, copying it if it's shared with a
+     * snapshot.
+     *
+     * @param column the index of the column
+     * @throws UnsupportedOperationException if this table is a snapshot
+     */
+    private void prepareWrite(int column){
+        if(this.isSnapshot()){
+            throw new UnsupportedOperationException("Snapshots of a table are read-only.");
+        }
+
+        int shared = this.shared;
+
+        if((shared & (1 << column)) == 0){
+            return;
+        }
+
+        switch(column){
+            case SpriteTable.TYPES_COLUMN:
+                this.types = this.types.clone();
+                break;
+            case SpriteTable.SUBTYPES_COLUMN:
+                this.subtypes = this.subtypes.clone();
+                break;
+            case SpriteTable.ACTS_LIKE_COLUMN:
+                this.actsLike = this.actsLike.clone();
+                break;
+            default:
+                this.behavior[column] = this.behavior[column].clone();
+                break;
+        }
+
+        this.shared = shared & ~(1 << column);
+    }
+
+    /**
+     * Returns the amount of rows in the table.
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * Returns one of the behavior columns so that it can be written to in
+     * bulk. The array is backed by the table, so changes to it are reflected
+     * in every row. If the column is shared with a snapshot, it's copied
+     * first, so the array should only be requested to write to it. Use
+     * {@link #getBehaviorByte(int, int)} to read it.
+     *
+     * @param register the index of the behavior byte, in the order $1656,
+     * $1662, $166E, $167A, $1686, $190F
+     * @return the column of the behavior byte
+     * @throws IndexOutOfBoundsException if the index is not between 0 and 5
+     * @throws UnsupportedOperationException if this table is a snapshot
+     */
+    public byte[] getBehaviorColumn(int register){
+        this.prepareWrite(register);
+        return this.behavior[register];
+    }
+
+    /**
+     * Returns a single behavior byte of a row.
+     *
+     * @param register the index of the behavior byte
+     * @param index the index of the row
+     * @return the value of the byte, from {@code 0x00} to {@code 0xFF}
+     */
+    public int getBehaviorByte(int register, int index){
+        return this.behavior[register][index] & 0xFF;
+    }
+
+    /**
+     * Replaces a single behavior byte of a row.
+     *
+     * @param register the index of the behavior byte
+     * @param index the index of the row
+     * @param value the new value, only the lower 8 bits are used
+     * @return the table, for chaining
+     */
+    public SpriteTable setBehaviorByte(int register, int index, int value){
+        if(this.behavior[register][index] != (byte)value){
+            this.prepareWrite(register);
+            this.behavior[register][index] = (byte)value;
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the packed behavior of a row in the format used by
+     * {@link SpriteBehavior#getBits()}.
+     *
+     * @param index the index of the row
+     * @return the packed behavior bytes
+     */
+    public long getBehavior(int index){
+        long bits = 0L;
+
+        for(int i = 0; i < SpriteBehavior.BYTES; i++){
+            bits |= (long)(this.behavior[i][index] & 0xFF) << (i * 8);
+        }
+
+        return bits;
+    }
+
+    /**
+     * Replaces the packed behavior of a row. Only the columns whose bytes
+     * actually change are written to.
+     *
+     * @param index the index of the row
+     * @param bits the packed behavior bytes
+     * @return the table, for chaining
+     * @see SpriteBehavior#setBits(long)
+     */
+    public SpriteTable setBehavior(int index, long bits){
+        for(int i = 0; i < SpriteBehavior.BYTES; i++){
+            this.setBehaviorByte(i, index, (int)(bits >>> (i * 8)));
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the type of a row.
+     *
+     * @param index the index of the row
+     * @return the type of the row
+     */
+    public EnumSpriteType getType(int index){
+        return SpriteTable.TYPES[this.types[index]];
+    }
+
+    /**
+     * Sets the type of a row.
+     *
+     * @param index the index of the row
+     * @param type the new type
+     * @return the table, for chaining
+     */
+    public SpriteTable setType(int index, EnumSpriteType type){
+        this.prepareWrite(SpriteTable.TYPES_COLUMN);
+        this.types[index] = (byte)type.ordinal();
+        return this;
+    }
+
+    /**
+     * Returns the subtype of a row.
+     *
+     * @param index the index of the row
+     * @return the subtype of the row
+     */
+    public EnumSpriteSubType getSubType(int index){
+        return SpriteTable.SUBTYPES[this.subtypes[index]];
+    }
+
+    /**
+     * Sets the subtype of a row.
+     *
+     * @param index the index of the row
+     * @param subtype the new subtype
+     * @return the table, for chaining
+     */
+    public SpriteTable setSubType(int index, EnumSpriteSubType subtype){
+        this.prepareWrite(SpriteTable.SUBTYPES_COLUMN);
+        this.subtypes[index] = (byte)subtype.ordinal();
+        return this;
+    }
+
+    /**
+     * Returns the raw acts like setting of a row.
+     *
+     * @param index the index of the row
+     * @return the acts like setting, from {@code 0x00} to {@code 0xFF}
+     */
+    public int getActsLike(int index){
+        return this.actsLike[index] & 0xFF;
+    }
+
+    /**
+     * Sets the acts like setting of a row.
+     *
+     * @param index the index of the row
+     * @param actsLike the new setting, only the lower 8 bits are used
+     * @return the table, for chaining
+     */
+    public SpriteTable setActsLike(int index, int actsLike){
+        this.prepareWrite(SpriteTable.ACTS_LIKE_COLUMN);
+        this.actsLike[index] = (byte)actsLike;
+        return this;
+    }
+
+    /**
+     * Creates a {@link Sprite} which views a single row of the table. The
+     * type, subtype, acts like setting and behavior of the sprite are read
+     * from and written to the table, while all other properties are kept in
+     * the sprite itself. The rows of a snapshot can't be written to.
+     *
+     * @param index the index of the row
+     * @return a view of the row
+     * @throws IndexOutOfBoundsException if the index is outside of the table
+     */
+    public Sprite getSprite(int index){
+        if(index < 0 || index >= this.size()){
+            throw new IndexOutOfBoundsException("Row out of bounds: " + index + ".");
+        }
+
+        return new RowSprite(this, index);
+    }
+
+    /**
+     * A {@link Sprite} which is backed by a row of a {@code SpriteTable}.
+     */
+    private static class RowSprite extends Sprite {
+        /**
+         * The table which contains the row.
+         */
+        private final SpriteTable table;
+
+        /**
+         * The index of the row.
+         */
+        private final int index;
+
+        /**
+         * Constructs a view of a row.
+         *
+         * @param table the table which contains the row
+         * @param index the index of the row
+         */
+        RowSprite(SpriteTable table, int index){
+            super(new RowBehavior(table, index));
+            this.table = table;
+            this.index = index;
+        }
+
+        @Override
+        public EnumSpriteType getType(){
+            return this.table.getType(this.index);
+        }
+
+        @Override
+        public Sprite setType(EnumSpriteType type){
+            this.table.setType(this.index, type);
+            return this;
+        }
+
+        @Override
+        public EnumSpriteSubType getSubType(){
+            return this.table.getSubType(this.index);
+        }
+
+        @Override
+        public Sprite setSubtype(EnumSpriteSubType subtype){
+            this.table.setSubType(this.index, subtype);
+            return this;
+        }
+
+        @Override
+        public int getActsLike(){
+            return this.hasActsLike() ? this.table.getActsLike(this.index) : 0xFF;
+        }
+
+        @Override
+        public Sprite setActsLike(int actsLike){
+            this.table.setActsLike(this.index, actsLike);
+            return this;
+        }
+
+        @Override
+        int getRawActsLike(){
+            return this.table.getActsLike(this.index);
+        }
+    }
+
+    /**
+     * A {@link SpriteBehavior} which is backed by the behavior columns of a
+     * row of a {@code SpriteTable}.
+     */
+    private static class RowBehavior extends SpriteBehavior {
+        /**
+         * The table which contains the row.
+         */
+        private final SpriteTable table;
+
+        /**
+         * The index of the row.
+         */
+        private final int index;
+
+        /**
+         * Constructs a view of the behavior of a row.
+         *
+         * @param table the table which contains the row
+         * @param index the index of the row
+         */
+        RowBehavior(SpriteTable table, int index){
+            super();
+            this.table = table;
+            this.index = index;
+        }
+
+        @Override
+        public long getBits(){
+            return this.table.getBehavior(this.index);
+        }
+
+        @Override
+        public SpriteBehavior setBits(long bits){
+            this.table.setBehavior(this.index, bits);
+            return this;
+        }
+
+        @Override
+        public int getByte(int register){
+            return this.table.getBehaviorByte(register, this.index);
+        }
+    }
+}
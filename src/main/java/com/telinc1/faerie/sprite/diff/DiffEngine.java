@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.diff;
+
+import com.telinc1.faerie.sprite.EnumSpriteField;
+import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.sprite.SpriteTable;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The {@code DiffEngine} finds the differences between two versions of a
+ * sprite, a catalog of sprites, or a {@link SpriteTable}. Sprites are
+ * compared by XOR-ing their packed behavior and packed properties, so
+ * unchanged sprites are skipped after two word comparisons.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public final class DiffEngine {
+    /**
+     * The mask of the fields which are stored in a {@code SpriteTable}.
+     */
+    private static final long TABLE_MASK = EnumSpriteField.TYPE.getMask()
+        | EnumSpriteField.SUBTYPE.getMask()
+        | EnumSpriteField.ACTS_LIKE.getMask();
+
+    /**
+     * Prevents instantiation of the class.
+     */
+    private DiffEngine(){}
+
+    /**
+     * Compares two versions of a single sprite.
+     *
+     * @param key the identifier to give to the difference
+     * @param before the older version, or {@code null} if the sprite was added
+     * @param after the newer version, or {@code null} if the sprite was removed
+     * @return the difference, or {@code null} if both versions are equal
+     */
+    public static Difference compare(Object key, Sprite before, Sprite after){
+        if(before == null && after == null){
+            return null;
+        }
+
+        if(before == null){
+            return new Difference(key, EnumDifferenceKind.ADDED, 0L, EnumSet.noneOf(EnumSpriteField.class));
+        }
+
+        if(after == null){
+            return new Difference(key, EnumDifferenceKind.REMOVED, 0L, EnumSet.noneOf(EnumSpriteField.class));
+        }
+
+        long behavior = 0L;
+
+        if(before.hasBehavior() || after.hasBehavior()){
+            behavior = before.getBehavior().diff(after.getBehavior());
+        }
+
+        long properties = EnumSpriteField.pack(before) ^ EnumSpriteField.pack(after);
+        boolean firstASM = !Objects.equals(before.getFirstASMFile(), after.getFirstASMFile());
+        boolean secondASM = !Objects.equals(before.getSecondASMFile(), after.getSecondASMFile());
+
+        if(behavior == 0L && properties == 0L && !firstASM && !secondASM){
+            return null;
+        }
+
+        Set<EnumSpriteField> fields = DiffEngine.getFields(properties);
+
+        if(firstASM){
+            fields.add(EnumSpriteField.FIRST_ASM_FILE);
+        }
+
+        if(secondASM){
+            fields.add(EnumSpriteField.SECOND_ASM_FILE);
+        }
+
+        return new Difference(key, EnumDifferenceKind.CHANGED, behavior, fields);
+    }
+
+    /**
+     * Compares two versions of a catalog whose sprites are identified by
+     * their paths. Sprites which only exist in one version are reported as
+     * added or removed.
+     *
+     * @param before the older version of the catalog
+     * @param after the newer version of the catalog
+     * @return every difference, with the paths as keys
+     */
+    public static List<Difference> compare(Map<String, Sprite> before, Map<String, Sprite> after){
+        Set<String> paths = new LinkedHashSet<>(before.keySet());
+        paths.addAll(after.keySet());
+
+        List<Difference> differences = new ArrayList<>();
+
+        for(String path : paths){
+            Difference difference = DiffEngine.compare(path, before.get(path), after.get(path));
+
+            if(difference != null){
+                differences.add(difference);
+            }
+        }
+
+        return differences;
+    }
+
+    /**
+     * Compares two versions of a catalog whose sprites are identified by
+     * their indexes. {@code null} elements are treated as missing sprites.
+     *
+     * @param before the older version of the catalog
+     * @param after the newer version of the catalog
+     * @return every difference, with the indexes as keys
+     */
+    public static List<Difference> compare(Sprite[] before, Sprite[] after){
+        int length = Math.max(before.length, after.length);
+        List<Difference> differences = new ArrayList<>();
+
+        for(int i = 0; i < length; i++){
+            Difference difference = DiffEngine.compare(
+                i,
+                i < before.length ? before[i] : null,
+                i < after.length ? after[i] : null
+            );
+
+            if(difference != null){
+                differences.add(difference);
+            }
+        }
+
+        return differences;
+    }
+
+    /**
+     * Compares two sprite tables, such as the Tweaker tables of two ROM
+     * images, row by row. Rows which only exist in one table are reported as
+     * added or removed.
+     *
+     * @param before the older table
+     * @param after the newer table
+     * @return every difference, with the row indexes as keys
+     */
+    public static List<Difference> compare(SpriteTable before, SpriteTable after){
+        int common = Math.min(before.size(), after.size());
+        List<Difference> differences = new ArrayList<>();
+
+        for(int i = 0; i < common; i++){
+            long behavior = before.getBehavior(i) ^ after.getBehavior(i);
+            // the rows are packed like any other sprite, so that hidden values compare the same way
+            long properties = (EnumSpriteField.pack(before.getSprite(i)) ^ EnumSpriteField.pack(after.getSprite(i))) & DiffEngine.TABLE_MASK;
+
+            if(behavior != 0L || properties != 0L){
+                differences.add(new Difference(i, EnumDifferenceKind.CHANGED, behavior, DiffEngine.getFields(properties)));
+            }
+        }
+
+        for(int i = common; i < before.size(); i++){
+            differences.add(new Difference(i, EnumDifferenceKind.REMOVED, 0L, EnumSet.noneOf(EnumSpriteField.class)));
+        }
+
+        for(int i = common; i < after.size(); i++){
+            differences.add(new Difference(i, EnumDifferenceKind.ADDED, 0L, EnumSet.noneOf(EnumSpriteField.class)));
+        }
+
+        return differences;
+    }
+
+    /**
+     * Finds the fields which are set in a mask of packed properties.
+     *
+     * @param mask the bits of the packed properties which differ
+     * @return a mutable set of the fields which differ
+     */
+    private static Set<EnumSpriteField> getFields(long mask){
+        Set<EnumSpriteField> fields = EnumSet.noneOf(EnumSpriteField.class);
+
+        if(mask == 0L){
+            return fields;
+        }
+
+        for(EnumSpriteField field : EnumSpriteField.values()){
+            if((mask & field.getMask()) != 0L){
+                fields.add(field);
+            }
+        }
+
+        return fields;
+    }
+}
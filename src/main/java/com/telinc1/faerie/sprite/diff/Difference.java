@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.diff;
+
+import com.telinc1.faerie.sprite.EnumBehaviorFlag;
+import com.telinc1.faerie.sprite.EnumSpriteField;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@code Difference} describes how a single sprite differs between two
+ * versions. The changes are stored as masks of the bits which differ, and are
+ * only turned into field names on request.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ * @see DiffEngine
+ */
+public class Difference {
+    /**
+     * The mask of the object clipping in a packed behavior.
+     */
+    private static final long OBJECT_CLIPPING_MASK = 0xFL;
+
+    /**
+     * The mask of the sprite clipping in a packed behavior.
+     */
+    private static final long SPRITE_CLIPPING_MASK = 0x3FL << 8;
+
+    /**
+     * The mask of the palette in a packed behavior.
+     */
+    private static final long PALETTE_MASK = 0xEL << 16;
+
+    /**
+     * The identifier of the sprite, such as its path or index.
+     */
+    private final Object key;
+
+    /**
+     * The way in which the sprite differs.
+     */
+    private final EnumDifferenceKind kind;
+
+    /**
+     * The bits of the packed behavior which differ.
+     */
+    private final long behaviorMask;
+
+    /**
+     * The properties which differ.
+     */
+    private final Set<EnumSpriteField> fields;
+
+    /**
+     * Constructs a {@code Difference}.
+     *
+     * @param key the identifier of the sprite
+     * @param kind the way in which the sprite differs
+     * @param behaviorMask the bits of the packed behavior which differ
+     * @param fields the properties which differ
+     */
+    public Difference(Object key, EnumDifferenceKind kind, long behaviorMask, Set<EnumSpriteField> fields){
+        this.key = key;
+        this.kind = kind;
+        this.behaviorMask = behaviorMask;
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Returns the identifier of the sprite, such as its path or index.
+     */
+    public Object getKey(){
+        return this.key;
+    }
+
+    /**
+     * Returns the way in which the sprite differs.
+     */
+    public EnumDifferenceKind getKind(){
+        return this.kind;
+    }
+
+    /**
+     * Returns the bits of the packed behavior which differ.
+     *
+     * @see com.telinc1.faerie.sprite.SpriteBehavior#getBits()
+     */
+    public long getBehaviorMask(){
+        return this.behaviorMask;
+    }
+
+    /**
+     * Returns the properties besides the behavior which differ.
+     */
+    public Set<EnumSpriteField> getFields(){
+        return this.fields;
+    }
+
+    /**
+     * Returns the behavior flags which differ.
+     */
+    public Set<EnumBehaviorFlag> getFlags(){
+        EnumSet<EnumBehaviorFlag> flags = EnumSet.noneOf(EnumBehaviorFlag.class);
+
+        for(EnumBehaviorFlag flag : EnumBehaviorFlag.values()){
+            if((this.behaviorMask & flag.getMask()) != 0L){
+                flags.add(flag);
+            }
+        }
+
+        return flags;
+    }
+
+    /**
+     * Returns the names of every field which differs. Behavior settings are
+     * named after their keys in {@link EnumBehaviorFlag}, with the addition
+     * of {@code objectClipping}, {@code spriteClipping} and {@code palette}.
+     *
+     * @return a list of the names of the fields, in definition order
+     */
+    public List<String> getFieldNames(){
+        List<String> names = new ArrayList<>();
+
+        for(EnumSpriteField field : this.fields){
+            names.add(field.getKey());
+        }
+
+        if((this.behaviorMask & Difference.OBJECT_CLIPPING_MASK) != 0L){
+            names.add("objectClipping");
+        }
+
+        if((this.behaviorMask & Difference.SPRITE_CLIPPING_MASK) != 0L){
+            names.add("spriteClipping");
+        }
+
+        if((this.behaviorMask & Difference.PALETTE_MASK) != 0L){
+            names.add("palette");
+        }
+
+        for(EnumBehaviorFlag flag : this.getFlags()){
+            names.add(flag.getKey());
+        }
+
+        return names;
+    }
+
+    @Override
+    public String toString(){
+        if(this.kind != EnumDifferenceKind.CHANGED){
+            return this.key + " " + this.kind.name().toLowerCase();
+        }
+
+        return this.key + " " + String.join(", ", this.getFieldNames());
+    }
+}
@@ -99,4 +99,23 @@ public abstract class DisplayData {
     public Point getPosition(){
         return this.position;
     }
+
+    /**
+     * Creates a deep copy of the display data. Changes to the copy are not
+     * reflected in this object.
+     *
+     * @return a new object with the same properties
+     */
+    public abstract DisplayData copy();
+
+    /**
+     * Copies the name, description and position into another object.
+     *
+     * @param target the object to copy into
+     */
+    protected void copyTo(DisplayData target){
+        target.name = this.name;
+        target.description = this.description;
+        target.position.setLocation(this.position);
+    }
 }
@@ -60,4 +60,13 @@ public class LabelDisplayData extends DisplayData {
         this.text = text;
         return this;
     }
+
+    @Override
+    public LabelDisplayData copy(){
+        LabelDisplayData copy = new LabelDisplayData();
+        this.copyTo(copy);
+        copy.text = this.text;
+
+        return copy;
+    }
 }
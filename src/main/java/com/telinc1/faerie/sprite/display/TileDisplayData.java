@@ -23,35 +23,238 @@
 package com.telinc1.faerie.sprite.display;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * The {@code TileDisplayData} class defines data for a sprite which renders as
  * one or more internal sprite tiles within Lunar Magic.
+ * <p>
+ * The tiles are stored in a single array of integers, two per tile. The first
+ * integer holds the X position in its lower and the Y position in its upper
+ * 16 bits, both signed, while the second one holds the Map16 tile number.
  *
  * @author Telinc1
  * @since 1.0.0
  */
 public class TileDisplayData extends DisplayData {
     /**
-     * The list of tiles used by this sprite.
+     * The amount of integers used by each tile.
      */
-    private List<SpriteTile> tiles;
+    private static final int STRIDE = 2;
+
+    /**
+     * The packed tiles used by this sprite.
+     */
+    private int[] tiles;
+
+    /**
+     * The amount of tiles used by this sprite.
+     */
+    private int count;
 
     /**
      * Constructs an empty list of tiles with default properties.
      */
     public TileDisplayData(){
         super();
-        this.tiles = new ArrayList<>();
+        this.tiles = new int[4 * TileDisplayData.STRIDE];
+        this.count = 0;
+    }
+
+    /**
+     * Returns the amount of tiles used by this sprite.
+     */
+    public int getTileCount(){
+        return this.count;
+    }
+
+    /**
+     * Adds a tile to the end of the list.
+     *
+     * @param x the X position of the tile, from -32768 to 32767
+     * @param y the Y position of the tile, from -32768 to 32767
+     * @param tile the Map16 tile number to use
+     * @return the same object, for chaining
+     */
+    public TileDisplayData addTile(int x, int y, int tile){
+        if((this.count + 1) * TileDisplayData.STRIDE > this.tiles.length){
+            this.tiles = Arrays.copyOf(this.tiles, this.tiles.length * 2);
+        }
+
+        int offset = this.count * TileDisplayData.STRIDE;
+        this.tiles[offset] = TileDisplayData.packPosition(x, y);
+        this.tiles[offset + 1] = tile;
+        this.count++;
+
+        return this;
+    }
+
+    /**
+     * Removes a tile from the list.
+     *
+     * @param index the index of the tile
+     * @return the same object, for chaining
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public TileDisplayData removeTile(int index){
+        this.checkIndex(index);
+
+        int offset = index * TileDisplayData.STRIDE;
+        System.arraycopy(this.tiles, offset + TileDisplayData.STRIDE, this.tiles, offset, (this.count - index - 1) * TileDisplayData.STRIDE);
+        this.count--;
+
+        return this;
+    }
+
+    /**
+     * Removes every tile from the list.
+     *
+     * @return the same object, for chaining
+     */
+    public TileDisplayData clearTiles(){
+        this.count = 0;
+        return this;
+    }
+
+    /**
+     * Returns the X position of a tile.
+     *
+     * @param index the index of the tile
+     * @return the X position relative to the top left of the sprite
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getX(int index){
+        this.checkIndex(index);
+        return (short)this.tiles[index * TileDisplayData.STRIDE];
+    }
+
+    /**
+     * Returns the Y position of a tile.
+     *
+     * @param index the index of the tile
+     * @return the Y position relative to the top left of the sprite
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getY(int index){
+        this.checkIndex(index);
+        return this.tiles[index * TileDisplayData.STRIDE] >> 16;
+    }
+
+    /**
+     * Returns the Map16 tile number of a tile.
+     *
+     * @param index the index of the tile
+     * @return the sprite Map16 tile number used for the tile
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getTile(int index){
+        this.checkIndex(index);
+        return this.tiles[index * TileDisplayData.STRIDE + 1];
+    }
+
+    /**
+     * Moves a tile.
+     *
+     * @param index the index of the tile
+     * @param x the new X position of the tile
+     * @param y the new Y position of the tile
+     * @return the same object, for chaining
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public TileDisplayData setPosition(int index, int x, int y){
+        this.checkIndex(index);
+        this.tiles[index * TileDisplayData.STRIDE] = TileDisplayData.packPosition(x, y);
+        return this;
+    }
+
+    /**
+     * Sets a new Map16 tile number for a tile.
+     *
+     * @param index the index of the tile
+     * @param tile the new tile number
+     * @return the same object, for chaining
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public TileDisplayData setTile(int index, int tile){
+        this.checkIndex(index);
+        this.tiles[index * TileDisplayData.STRIDE + 1] = tile;
+        return this;
+    }
+
+    /**
+     * Performs an operation on every tile, in order.
+     *
+     * @param consumer the operation to perform
+     */
+    public void forEachTile(TileConsumer consumer){
+        for(int i = 0; i < this.count; i++){
+            int offset = i * TileDisplayData.STRIDE;
+            int position = this.tiles[offset];
+
+            consumer.accept((short)position, position >> 16, this.tiles[offset + 1]);
+        }
     }
 
     /**
-     * Returns the tiles used by this sprite.
+     * Returns a copy of a single tile. Changes to the returned object are
+     * not reflected in the list.
      *
-     * @return the {@link java.util.List} of tiles which this sprite uses.
+     * @param index the index of the tile
+     * @return a new {@link SpriteTile} with the properties of the tile
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public SpriteTile getSpriteTile(int index){
+        return new SpriteTile(this.getX(index), this.getY(index), this.getTile(index));
+    }
+
+    /**
+     * Returns copies of the tiles used by this sprite. Changes to the
+     * returned objects are not reflected in the list.
+     *
+     * @return a new {@link java.util.List} of tiles which this sprite uses
+     * @see #forEachTile(TileConsumer)
      */
     public List<SpriteTile> getTiles(){
-        return this.tiles;
+        List<SpriteTile> tiles = new ArrayList<>(this.count);
+
+        for(int i = 0; i < this.count; i++){
+            tiles.add(this.getSpriteTile(i));
+        }
+
+        return tiles;
+    }
+
+    @Override
+    public TileDisplayData copy(){
+        TileDisplayData copy = new TileDisplayData();
+        this.copyTo(copy);
+        copy.tiles = Arrays.copyOf(this.tiles, Math.max(this.count, 1) * TileDisplayData.STRIDE);
+        copy.count = this.count;
+
+        return copy;
+    }
+
+    /**
+     * Packs a position into a single integer.
+     *
+     * @param x the X position, only the lower 16 bits are used
+     * @param y the Y position, only the lower 16 bits are used
+     * @return the packed position
+     */
+    private static int packPosition(int x, int y){
+        return (x & 0xFFFF) | (y << 16);
+    }
+
+    /**
+     * Verifies that a tile index is valid.
+     *
+     * @param index the index to verify
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    private void checkIndex(int index){
+        if(index < 0 || index >= this.count){
+            throw new IndexOutOfBoundsException("Tile out of bounds: " + index + ".");
+        }
     }
 }
@@ -23,9 +23,9 @@
 package com.telinc1.faerie.sprite.emitter;
 
 import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.sprite.SpriteBehavior;
 import com.telinc1.faerie.sprite.display.DisplayData;
 import com.telinc1.faerie.sprite.display.LabelDisplayData;
-import com.telinc1.faerie.sprite.display.SpriteTile;
 import com.telinc1.faerie.sprite.display.TileDisplayData;
 
 import java.io.IOException;
@@ -48,7 +48,7 @@ public class CFGEmitter extends Emitter {
     @Override
     public void emit(Writer writer) throws IOException{
         Sprite sprite = this.getSprite();
-        int[] behavior = sprite.getBehavior().pack();
+        SpriteBehavior behavior = sprite.getBehavior();
         String firstASM = sprite.getFirstASMFile();
         String secondASM = sprite.getSecondASMFile();
         DisplayData displayData = sprite.getDisplayData();
@@ -57,7 +57,8 @@ public class CFGEmitter extends Emitter {
             "%02X%n%02X%n%02X %02X %02X %02X %02X %02X%n%02X %02X%n%s%n00%n%02X%n%02X%n%02X%n%s%n",
             sprite.getType().asInteger(),
             sprite.getActsLike() & 0xFF,
-            behavior[0], behavior[1], behavior[2], behavior[3], behavior[4], behavior[5],
+            behavior.getByte(0), behavior.getByte(1), behavior.getByte(2),
+            behavior.getByte(3), behavior.getByte(4), behavior.getByte(5),
             sprite.getFirstPropertyByte() & 0xFF,
             (sprite.getSecondPropertyByte() & 0x3F) | ((sprite.getStatusHandling().getBits() & 0b11) << 6),
             firstASM == null ? "" : firstASM,
@@ -80,12 +81,12 @@ public class CFGEmitter extends Emitter {
                 TileDisplayData tileDisplayData = (TileDisplayData)displayData;
                 writer.write(String.format("[Tiles]%n"));
 
-                for(SpriteTile tile : tileDisplayData.getTiles()){
+                for(int i = 0; i < tileDisplayData.getTileCount(); i++){
                     writer.write(String.format(
                         "%d,%d,%02X%n",
-                        tile.getPosition().x,
-                        tile.getPosition().y,
-                        tile.getTile()
+                        tileDisplayData.getX(i),
+                        tileDisplayData.getY(i),
+                        tileDisplayData.getTile(i)
                     ));
                 }
             }else if(displayData instanceof LabelDisplayData){
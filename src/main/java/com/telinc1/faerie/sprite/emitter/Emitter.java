@@ -23,6 +23,7 @@
 package com.telinc1.faerie.sprite.emitter;
 
 import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.util.TypeUtils;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -47,6 +48,24 @@ public abstract class Emitter {
         this.sprite = sprite;
     }
 
+    /**
+     * Creates the appropriate {@code Emitter} for a configuration file with
+     * the given extension.
+     *
+     * @param extension the extension of the configuration file
+     * @param sprite the sprite to write
+     * @return the emitter, or {@code null} if the extension isn't supported
+     */
+    public static Emitter create(String extension, Sprite sprite){
+        if(TypeUtils.TYPE_CFG.equalsIgnoreCase(extension)){
+            return new CFGEmitter(sprite);
+        }else if(TypeUtils.TYPE_JSON.equalsIgnoreCase(extension)){
+            return new JSONEmitter(sprite);
+        }
+
+        return null;
+    }
+
     /**
      * Returns the sprite which this emitter will write.
      */
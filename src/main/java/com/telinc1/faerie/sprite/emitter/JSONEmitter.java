@@ -27,11 +27,11 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.stream.JsonWriter;
+import com.telinc1.faerie.sprite.EnumBehaviorFlag;
 import com.telinc1.faerie.sprite.Sprite;
 import com.telinc1.faerie.sprite.SpriteBehavior;
 import com.telinc1.faerie.sprite.display.DisplayData;
 import com.telinc1.faerie.sprite.display.LabelDisplayData;
-import com.telinc1.faerie.sprite.display.SpriteTile;
 import com.telinc1.faerie.sprite.display.TileDisplayData;
 
 import java.io.IOException;
@@ -66,59 +66,59 @@ public class JSONEmitter extends Emitter {
         json.addProperty("ActLike", sprite.getActsLike());
 
         JsonObject $1656 = new JsonObject();
-        $1656.addProperty("Object Clipping", behavior.objectClipping);
-        $1656.addProperty("Can be jumped on", behavior.canBeJumpedOn);
-        $1656.addProperty("Dies when jumped on", behavior.diesWhenJumpedOn);
-        $1656.addProperty("Hop in /kick shell", behavior.hopInShells);
-        $1656.addProperty("Disappears in cloud of smoke", behavior.disappearInSmoke);
+        $1656.addProperty("Object Clipping", behavior.getObjectClipping());
+        $1656.addProperty("Can be jumped on", behavior.get(EnumBehaviorFlag.CAN_BE_JUMPED_ON));
+        $1656.addProperty("Dies when jumped on", behavior.get(EnumBehaviorFlag.DIES_WHEN_JUMPED_ON));
+        $1656.addProperty("Hop in /kick shell", behavior.get(EnumBehaviorFlag.HOP_IN_SHELLS));
+        $1656.addProperty("Disappears in cloud of smoke", behavior.get(EnumBehaviorFlag.DISAPPEAR_IN_SMOKE));
         json.add("$1656", $1656);
 
         JsonObject $1662 = new JsonObject();
-        $1662.addProperty("Sprite Clipping", behavior.spriteClipping);
-        $1662.addProperty("Use shell as death frame", behavior.useShellAsDeathFrame);
-        $1662.addProperty("Fall straight down when killed", behavior.fallsWhenKilled);
+        $1662.addProperty("Sprite Clipping", behavior.getSpriteClipping());
+        $1662.addProperty("Use shell as death frame", behavior.get(EnumBehaviorFlag.USE_SHELL_AS_DEATH_FRAME));
+        $1662.addProperty("Fall straight down when killed", behavior.get(EnumBehaviorFlag.FALLS_WHEN_KILLED));
         json.add("$1662", $1662);
 
         JsonObject $166E = new JsonObject();
-        $166E.addProperty("Use second graphics page", behavior.useSecondGraphicsPage);
-        $166E.addProperty("Palette", behavior.palette);
-        $166E.addProperty("Disable fireball killing", behavior.disableFireballKilling);
-        $166E.addProperty("Disable cape killing", behavior.disableCapeKilling);
-        $166E.addProperty("Disable water splash", behavior.disableWaterSplash);
-        $166E.addProperty("Don't interact with Layer 2", behavior.disableSecondaryInteraction);
+        $166E.addProperty("Use second graphics page", behavior.get(EnumBehaviorFlag.USE_SECOND_GRAPHICS_PAGE));
+        $166E.addProperty("Palette", behavior.getPalette());
+        $166E.addProperty("Disable fireball killing", behavior.get(EnumBehaviorFlag.DISABLE_FIREBALL_KILLING));
+        $166E.addProperty("Disable cape killing", behavior.get(EnumBehaviorFlag.DISABLE_CAPE_KILLING));
+        $166E.addProperty("Disable water splash", behavior.get(EnumBehaviorFlag.DISABLE_WATER_SPLASH));
+        $166E.addProperty("Don't interact with Layer 2", behavior.get(EnumBehaviorFlag.DISABLE_SECONDARY_INTERACTION));
         json.add("$166E", $166E);
 
         JsonObject $167A = new JsonObject();
-        $167A.addProperty("Don't disable cliping when starkilled", behavior.processIfDead);
-        $167A.addProperty("Invincible to star/cape/fire/bounce blk", behavior.invincibleToPlayer);
-        $167A.addProperty("Process when off screen", behavior.processWhileOffscreen);
-        $167A.addProperty("Don't change into shell when stunned", behavior.skipShellIfStunned);
-        $167A.addProperty("Can't be kicked like shell", behavior.disableKicking);
-        $167A.addProperty("Process interaction with Mario every frame", behavior.processInteractionEveryFrame);
-        $167A.addProperty("Gives power-up when eaten by Yoshi", behavior.isPowerup);
-        $167A.addProperty("Don't use default interaction with Mario", behavior.disableDefaultInteraction);
+        $167A.addProperty("Don't disable cliping when starkilled", behavior.get(EnumBehaviorFlag.PROCESS_IF_DEAD));
+        $167A.addProperty("Invincible to star/cape/fire/bounce blk", behavior.get(EnumBehaviorFlag.INVINCIBLE_TO_PLAYER));
+        $167A.addProperty("Process when off screen", behavior.get(EnumBehaviorFlag.PROCESS_WHILE_OFFSCREEN));
+        $167A.addProperty("Don't change into shell when stunned", behavior.get(EnumBehaviorFlag.SKIP_SHELL_IF_STUNNED));
+        $167A.addProperty("Can't be kicked like shell", behavior.get(EnumBehaviorFlag.DISABLE_KICKING));
+        $167A.addProperty("Process interaction with Mario every frame", behavior.get(EnumBehaviorFlag.PROCESS_INTERACTION_EVERY_FRAME));
+        $167A.addProperty("Gives power-up when eaten by Yoshi", behavior.get(EnumBehaviorFlag.IS_POWERUP));
+        $167A.addProperty("Don't use default interaction with Mario", behavior.get(EnumBehaviorFlag.DISABLE_DEFAULT_INTERACTION));
         json.add("$167A", $167A);
 
         JsonObject $1686 = new JsonObject();
-        $1686.addProperty("Inedible", behavior.inedible);
-        $1686.addProperty("Stay in Yoshi's mouth", behavior.stayInMouth);
-        $1686.addProperty("Weird ground behaviour", behavior.weirdGroundBehavior);
-        $1686.addProperty("Don't interact with other sprites", behavior.disableSpriteInteraction);
-        $1686.addProperty("Don't change direction if touched", behavior.preserveDirection);
-        $1686.addProperty("Don't turn into coin when goal passed", behavior.disappearOnGoal);
-        $1686.addProperty("Spawn a new sprite", behavior.spawnsSpriteWhenStunned);
-        $1686.addProperty("Don't interact with objects", behavior.disableObjectInteraction);
+        $1686.addProperty("Inedible", behavior.get(EnumBehaviorFlag.INEDIBLE));
+        $1686.addProperty("Stay in Yoshi's mouth", behavior.get(EnumBehaviorFlag.STAY_IN_MOUTH));
+        $1686.addProperty("Weird ground behaviour", behavior.get(EnumBehaviorFlag.WEIRD_GROUND_BEHAVIOR));
+        $1686.addProperty("Don't interact with other sprites", behavior.get(EnumBehaviorFlag.DISABLE_SPRITE_INTERACTION));
+        $1686.addProperty("Don't change direction if touched", behavior.get(EnumBehaviorFlag.PRESERVE_DIRECTION));
+        $1686.addProperty("Don't turn into coin when goal passed", behavior.get(EnumBehaviorFlag.DISAPPEAR_ON_GOAL));
+        $1686.addProperty("Spawn a new sprite", behavior.get(EnumBehaviorFlag.SPAWNS_SPRITE_WHEN_STUNNED));
+        $1686.addProperty("Don't interact with objects", behavior.get(EnumBehaviorFlag.DISABLE_OBJECT_INTERACTION));
         json.add("$1686", $1686);
 
         JsonObject $190F = new JsonObject();
-        $190F.addProperty("Make platform passable from below", behavior.platformPassableFromBelow);
-        $190F.addProperty("Don't erase when goal passed", behavior.ignoreGoal);
-        $190F.addProperty("Can't be killed by sliding", behavior.disableSlideKilling);
-        $190F.addProperty("Take 5 fireballs to kill", behavior.takesFiveFireballs);
-        $190F.addProperty("Can't be jumped on with upwards Y speed", behavior.canBeJumpedOnFromBelow);
-        $190F.addProperty("Death frame two tiles high", behavior.tallDeathFrame);
-        $190F.addProperty("Don't turn into a coin with silver POW", behavior.ignoreSilverPSwitch);
-        $190F.addProperty("Don't get stuck in walls (carryable sprites)", behavior.escapeWalls);
+        $190F.addProperty("Make platform passable from below", behavior.get(EnumBehaviorFlag.PLATFORM_PASSABLE_FROM_BELOW));
+        $190F.addProperty("Don't erase when goal passed", behavior.get(EnumBehaviorFlag.IGNORE_GOAL));
+        $190F.addProperty("Can't be killed by sliding", behavior.get(EnumBehaviorFlag.DISABLE_SLIDE_KILLING));
+        $190F.addProperty("Take 5 fireballs to kill", behavior.get(EnumBehaviorFlag.TAKES_FIVE_FIREBALLS));
+        $190F.addProperty("Can't be jumped on with upwards Y speed", behavior.get(EnumBehaviorFlag.CAN_BE_JUMPED_ON_FROM_BELOW));
+        $190F.addProperty("Death frame two tiles high", behavior.get(EnumBehaviorFlag.TALL_DEATH_FRAME));
+        $190F.addProperty("Don't turn into a coin with silver POW", behavior.get(EnumBehaviorFlag.IGNORE_SILVER_P_SWITCH));
+        $190F.addProperty("Don't get stuck in walls (carryable sprites)", behavior.get(EnumBehaviorFlag.ESCAPE_WALLS));
         json.add("$190F", $190F);
 
         json.addProperty("Extra Property Byte 1", sprite.getFirstPropertyByte());
@@ -144,14 +144,14 @@ public class JSONEmitter extends Emitter {
                 JsonArray tiles = new JsonArray();
                 TileDisplayData tileDisplayData = (TileDisplayData)displayData;
 
-                for(SpriteTile spriteTile : tileDisplayData.getTiles()){
+                tileDisplayData.forEachTile((x, y, number) -> {
                     JsonObject tile = new JsonObject();
-                    tile.addProperty("X", spriteTile.getPosition().x);
-                    tile.addProperty("Y", spriteTile.getPosition().y);
-                    tile.addProperty("Tile", spriteTile.getTile());
+                    tile.addProperty("X", x);
+                    tile.addProperty("Y", y);
+                    tile.addProperty("Tile", number);
 
                     tiles.add(tile);
-                }
+                });
 
                 json.add("Tiles", tiles);
             }else if(displayData instanceof LabelDisplayData){
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.history;
+
+import com.telinc1.faerie.sprite.EnumSpriteField;
+import com.telinc1.faerie.sprite.Sprite;
+
+import java.util.Objects;
+
+/**
+ * An {@code Edit} is a compact record of the changes made to a single sprite.
+ * Behavior changes are stored as an XOR mask over the packed behavior, and
+ * other properties as their old and new packed words, so an edit takes a
+ * few dozen bytes regardless of the size of the sprite.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+class Edit {
+    /**
+     * The index of the sprite in its provider.
+     */
+    private final int index;
+
+    /**
+     * The bits of the packed behavior which changed.
+     */
+    private final long behaviorMask;
+
+    /**
+     * The packed properties before the edit.
+     */
+    private final long oldProperties;
+
+    /**
+     * The packed properties after the edit.
+     */
+    private final long newProperties;
+
+    /**
+     * The first ASM file before the edit.
+     */
+    private final String oldFirstASM;
+
+    /**
+     * The first ASM file after the edit.
+     */
+    private final String newFirstASM;
+
+    /**
+     * The second ASM file before the edit.
+     */
+    private final String oldSecondASM;
+
+    /**
+     * The second ASM file after the edit.
+     */
+    private final String newSecondASM;
+
+    /**
+     * Constructs an edit between two states of a sprite.
+     *
+     * @param index the index of the sprite in its provider
+     * @param before the state before the edit
+     * @param after the state after the edit
+     */
+    Edit(int index, SpriteState before, SpriteState after){
+        this.index = index;
+        this.behaviorMask = before.getBehavior() ^ after.getBehavior();
+        this.oldProperties = before.getProperties();
+        this.newProperties = after.getProperties();
+        this.oldFirstASM = before.getFirstASMFile();
+        this.newFirstASM = after.getFirstASMFile();
+        this.oldSecondASM = before.getSecondASMFile();
+        this.newSecondASM = after.getSecondASMFile();
+    }
+
+    /**
+     * Returns the index of the sprite in its provider.
+     */
+    int getIndex(){
+        return this.index;
+    }
+
+    /**
+     * Reverts the edit on the sprite.
+     *
+     * @param sprite the sprite to change
+     */
+    void undo(Sprite sprite){
+        this.apply(sprite, this.oldProperties, this.oldFirstASM, this.oldSecondASM);
+    }
+
+    /**
+     * Applies the edit to the sprite again.
+     *
+     * @param sprite the sprite to change
+     */
+    void redo(Sprite sprite){
+        this.apply(sprite, this.newProperties, this.newFirstASM, this.newSecondASM);
+    }
+
+    /**
+     * Changes the sprite to one side of the edit.
+     *
+     * @param sprite the sprite to change
+     * @param properties the packed properties to restore
+     * @param firstASM the first ASM file to restore
+     * @param secondASM the second ASM file to restore
+     */
+    private void apply(Sprite sprite, long properties, String firstASM, String secondASM){
+        long changed = this.oldProperties ^ this.newProperties;
+
+        if(changed != 0L){
+            for(EnumSpriteField field : EnumSpriteField.values()){
+                if((changed & field.getMask()) != 0L){
+                    field.apply(sprite, properties);
+                }
+            }
+        }
+
+        if(this.behaviorMask != 0L){
+            sprite.getBehavior().setBits(sprite.getBehavior().getBits() ^ this.behaviorMask);
+        }
+
+        if(!Objects.equals(this.oldFirstASM, this.newFirstASM)){
+            sprite.setFirstASMFile(firstASM);
+        }
+
+        if(!Objects.equals(this.oldSecondASM, this.newSecondASM)){
+            sprite.setSecondASMFile(secondASM);
+        }
+    }
+}
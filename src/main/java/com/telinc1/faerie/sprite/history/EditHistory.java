@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.history;
+
+import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.sprite.provider.ModificationEvent;
+import com.telinc1.faerie.sprite.provider.ModificationListener;
+import com.telinc1.faerie.sprite.provider.Provider;
+import com.telinc1.faerie.sprite.provider.ProvisionException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * An {@code EditHistory} records the modifications made through a
+ * {@link Provider} so that they can be undone and redone.
+ * <p>
+ * A {@link ModificationEvent} is fired before the sprite is actually changed,
+ * so the history captures the state of the sprite when the event arrives and
+ * only turns it into an {@link Edit} once the next event arrives or
+ * {@link #commit()} is called. Only the sprite which is being edited is ever
+ * captured, and only as a few packed words.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class EditHistory implements ModificationListener {
+    /**
+     * The default maximum amount of edits which can be undone.
+     */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /**
+     * The provider whose modifications are recorded.
+     */
+    private final Provider provider;
+
+    /**
+     * The maximum amount of edits which can be undone.
+     */
+    private final int capacity;
+
+    /**
+     * The edits which can be undone, most recent first.
+     */
+    private final Deque<Edit> undoStack;
+
+    /**
+     * The edits which can be redone, most recent first.
+     */
+    private final Deque<Edit> redoStack;
+
+    /**
+     * The index of the sprite which is currently being edited.
+     */
+    private int pendingIndex;
+
+    /**
+     * The state of the sprite before the pending edit, or {@code null} if no
+     * edit is pending.
+     */
+    private SpriteState pendingState;
+
+    /**
+     * Whether the history is currently changing the provider itself.
+     */
+    private boolean applying;
+
+    /**
+     * Constructs a history with the default capacity and starts recording
+     * the modifications of a provider.
+     *
+     * @param provider the provider to record
+     */
+    public EditHistory(Provider provider){
+        this(provider, EditHistory.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a history and starts recording the modifications of a
+     * provider.
+     *
+     * @param provider the provider to record
+     * @param capacity the maximum amount of edits which can be undone
+     * @throws IllegalArgumentException if the capacity isn't positive
+     */
+    public EditHistory(Provider provider, int capacity){
+        if(capacity <= 0){
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+
+        this.provider = provider;
+        this.capacity = capacity;
+        this.undoStack = new ArrayDeque<>();
+        this.redoStack = new ArrayDeque<>();
+
+        this.provider.addModificationListener(this);
+    }
+
+    /**
+     * Stops recording the modifications of the provider.
+     */
+    public void detach(){
+        this.provider.removeModificationListener(this);
+    }
+
+    @Override
+    public void onModification(ModificationEvent event){
+        if(this.applying){
+            return;
+        }
+
+        this.commit();
+
+        this.pendingIndex = event.getIndex();
+        this.pendingState = new SpriteState(event.getSource().getCurrentSprite());
+    }
+
+    /**
+     * Turns the pending modification, if any, into an edit which can be
+     * undone. This is done automatically when needed.
+     */
+    public void commit(){
+        if(this.pendingState == null){
+            return;
+        }
+
+        // the provider may have replaced the sprite with a copy since the
+        // edit started, so it has to be retrieved again
+        SpriteState current = new SpriteState(this.provider.getUnchecked(this.pendingIndex));
+
+        if(!current.matches(this.pendingState)){
+            this.push(this.undoStack, new Edit(this.pendingIndex, this.pendingState, current));
+            this.redoStack.clear();
+        }
+
+        this.pendingState = null;
+    }
+
+    /**
+     * Checks whether there's an edit which can be undone.
+     */
+    public boolean canUndo(){
+        this.commit();
+        return !this.undoStack.isEmpty();
+    }
+
+    /**
+     * Checks whether there's an edit which can be redone.
+     */
+    public boolean canRedo(){
+        this.commit();
+        return !this.redoStack.isEmpty();
+    }
+
+    /**
+     * Undoes the most recent edit. The edited sprite is loaded into the
+     * provider.
+     *
+     * @return whether there was an edit to undo
+     * @throws ProvisionException if the edited sprite can't be loaded
+     */
+    public boolean undo() throws ProvisionException{
+        if(!this.canUndo()){
+            return false;
+        }
+
+        Edit edit = this.undoStack.peek();
+        this.apply(edit, edit::undo);
+        this.undoStack.pop();
+        this.push(this.redoStack, edit);
+
+        return true;
+    }
+
+    /**
+     * Redoes the most recently undone edit. The edited sprite is loaded into
+     * the provider.
+     *
+     * @return whether there was an edit to redo
+     * @throws ProvisionException if the edited sprite can't be loaded
+     */
+    public boolean redo() throws ProvisionException{
+        if(!this.canRedo()){
+            return false;
+        }
+
+        Edit edit = this.redoStack.peek();
+        this.apply(edit, edit::redo);
+        this.redoStack.pop();
+        this.push(this.undoStack, edit);
+
+        return true;
+    }
+
+    /**
+     * Loads the sprite of an edit and modifies it without recording the
+     * modification.
+     *
+     * @param edit the edit which will be applied
+     * @param modification the function which applies the edit to the sprite
+     * @throws ProvisionException if the sprite can't be loaded
+     */
+    private void apply(Edit edit, Consumer<Sprite> modification) throws ProvisionException{
+        this.applying = true;
+
+        try {
+            this.provider.loadSprite(edit.getIndex());
+            this.provider.modify(modification);
+        }finally{
+            this.applying = false;
+        }
+    }
+
+    /**
+     * Adds an edit to a stack, dropping the oldest edit if the stack is full.
+     *
+     * @param stack the stack to add to
+     * @param edit the edit to add
+     */
+    private void push(Deque<Edit> stack, Edit edit){
+        if(stack.size() >= this.capacity){
+            stack.removeLast();
+        }
+
+        stack.push(edit);
+    }
+
+    /**
+     * Forgets every recorded edit.
+     */
+    public void clear(){
+        this.undoStack.clear();
+        this.redoStack.clear();
+        this.pendingState = null;
+    }
+}
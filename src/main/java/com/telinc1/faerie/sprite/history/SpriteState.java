@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.history;
+
+import com.telinc1.faerie.sprite.EnumSpriteField;
+import com.telinc1.faerie.sprite.Sprite;
+
+import java.util.Objects;
+
+/**
+ * A {@code SpriteState} captures the editable properties of a sprite at a
+ * point in time in a handful of words. The ASM file names are shared with the
+ * sprite rather than copied.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+class SpriteState {
+    /**
+     * The packed behavior of the sprite.
+     */
+    private final long behavior;
+
+    /**
+     * The packed stored properties of the sprite.
+     */
+    private final long properties;
+
+    /**
+     * The first ASM file of the sprite.
+     */
+    private final String firstASMFile;
+
+    /**
+     * The second ASM file of the sprite.
+     */
+    private final String secondASMFile;
+
+    /**
+     * Captures the current state of a sprite.
+     *
+     * @param sprite the sprite to capture
+     */
+    SpriteState(Sprite sprite){
+        this.behavior = sprite.getBehavior().getBits();
+        // hidden values are kept so that changing the subtype doesn't lose them
+        this.properties = EnumSpriteField.packRaw(sprite);
+        this.firstASMFile = EnumSpriteField.FIRST_ASM_FILE.getRawASMFile(sprite);
+        this.secondASMFile = EnumSpriteField.SECOND_ASM_FILE.getRawASMFile(sprite);
+    }
+
+    /**
+     * Returns the packed behavior of the sprite.
+     */
+    long getBehavior(){
+        return this.behavior;
+    }
+
+    /**
+     * Returns the packed stored properties of the sprite.
+     */
+    long getProperties(){
+        return this.properties;
+    }
+
+    /**
+     * Returns the first ASM file of the sprite.
+     */
+    String getFirstASMFile(){
+        return this.firstASMFile;
+    }
+
+    /**
+     * Returns the second ASM file of the sprite.
+     */
+    String getSecondASMFile(){
+        return this.secondASMFile;
+    }
+
+    /**
+     * Checks whether two states are identical.
+     *
+     * @param other the state to compare against
+     * @return whether nothing differs between the states
+     */
+    boolean matches(SpriteState other){
+        return this.behavior == other.behavior
+            && this.properties == other.properties
+            && Objects.equals(this.firstASMFile, other.firstASMFile)
+            && Objects.equals(this.secondASMFile, other.secondASMFile);
+    }
+}
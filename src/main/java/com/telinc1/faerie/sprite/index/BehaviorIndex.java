@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.index;
+
+import com.telinc1.faerie.sprite.EnumBehaviorFlag;
+import com.telinc1.faerie.sprite.EnumSpriteSubType;
+import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.sprite.SpriteBehavior;
+import com.telinc1.faerie.sprite.provider.ModificationEvent;
+import com.telinc1.faerie.sprite.provider.ModificationListener;
+import com.telinc1.faerie.sprite.provider.Provider;
+
+import java.util.BitSet;
+import java.util.function.IntFunction;
+
+/**
+ * A {@code BehaviorIndex} answers questions about the behavior of every
+ * sprite in a catalog, such as which sprites are inedible and use a certain
+ * palette, without inspecting each sprite.
+ * <p>
+ * The index keeps one bitset per behavior flag, per palette, per object and
+ * sprite clipping and per subtype, where each bit corresponds to the index of
+ * a sprite in the catalog. Queries combine those bitsets a word at a time.
+ * <p>
+ * Sprites are read through a function given to the constructor. Sprites
+ * which are marked as outdated, either manually or through a
+ * {@link ModificationEvent}, are read again right before the next query. The
+ * index is not thread-safe.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class BehaviorIndex implements ModificationListener {
+    /**
+     * The amount of sprites in the catalog.
+     */
+    private final int size;
+
+    /**
+     * The function which returns the sprite at an index of the catalog.
+     */
+    private final IntFunction<Sprite> source;
+
+    /**
+     * The sprites which have each behavior flag set, indexed by the ordinal
+     * of the flag.
+     */
+    private final BitSet[] flags;
+
+    /**
+     * The sprites which use each palette.
+     */
+    private final BitSet[] palettes;
+
+    /**
+     * The sprites which use each object clipping.
+     */
+    private final BitSet[] objectClippings;
+
+    /**
+     * The sprites which use each sprite clipping.
+     */
+    private final BitSet[] spriteClippings;
+
+    /**
+     * The sprites of each subtype, indexed by the ordinal of the subtype.
+     */
+    private final BitSet[] subtypes;
+
+    /**
+     * The sprites which have behavior settings at all.
+     */
+    private final BitSet behaviors;
+
+    /**
+     * The sprites which have to be read again before the next query.
+     */
+    private final BitSet outdated;
+
+    /**
+     * Constructs an index over a catalog. The index is empty until it's
+     * first queried.
+     *
+     * @param size the amount of sprites in the catalog
+     * @param source a function which returns the sprite at an index of the
+     * catalog, or {@code null} if there isn't one
+     */
+    public BehaviorIndex(int size, IntFunction<Sprite> source){
+        this.size = size;
+        this.source = source;
+        this.flags = BehaviorIndex.createBitSets(EnumBehaviorFlag.values().length, size);
+        this.palettes = BehaviorIndex.createBitSets(0x8, size);
+        this.objectClippings = BehaviorIndex.createBitSets(0x10, size);
+        this.spriteClippings = BehaviorIndex.createBitSets(0x40, size);
+        this.subtypes = BehaviorIndex.createBitSets(EnumSpriteSubType.values().length, size);
+        this.behaviors = new BitSet(size);
+        this.outdated = new BitSet(size);
+        this.outdated.set(0, size);
+    }
+
+    /**
+     * Creates an index over every sprite of a provider. The index is
+     * registered as a listener, so it stays up to date with any
+     * modifications made through the provider.
+     *
+     * @param provider the provider to index
+     * @return the new index
+     */
+    public static BehaviorIndex of(Provider provider){
+        BehaviorIndex index = new BehaviorIndex(provider.size(), provider::getUnchecked);
+        provider.addModificationListener(index);
+
+        return index;
+    }
+
+    /**
+     * Creates an array of empty bitsets.
+     *
+     * @param amount the length of the array
+     * @param size the expected amount of bits in each set
+     * @return the new array
+     */
+    private static BitSet[] createBitSets(int amount, int size){
+        BitSet[] sets = new BitSet[amount];
+
+        for(int i = 0; i < amount; i++){
+            sets[i] = new BitSet(size);
+        }
+
+        return sets;
+    }
+
+    /**
+     * Returns the amount of sprites in the catalog.
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * Marks a sprite as outdated, so that it will be read again before the
+     * next query.
+     *
+     * @param index the index of the sprite
+     * @return the index, for chaining
+     */
+    public BehaviorIndex invalidate(int index){
+        if(index >= 0 && index < this.size()){
+            this.outdated.set(index);
+        }
+
+        return this;
+    }
+
+    /**
+     * Marks every sprite as outdated.
+     *
+     * @return the index, for chaining
+     */
+    public BehaviorIndex invalidateAll(){
+        this.outdated.set(0, this.size());
+        return this;
+    }
+
+    @Override
+    public void onModification(ModificationEvent event){
+        this.invalidate(event.getIndex());
+    }
+
+    /**
+     * Reads every outdated sprite again.
+     */
+    private void refresh(){
+        for(int i = this.outdated.nextSetBit(0); i >= 0; i = this.outdated.nextSetBit(i + 1)){
+            this.reindex(i);
+        }
+
+        this.outdated.clear();
+    }
+
+    /**
+     * Reads a single sprite again and updates every bitset.
+     *
+     * @param index the index of the sprite
+     */
+    private void reindex(int index){
+        this.clear(index, this.flags);
+        this.clear(index, this.palettes);
+        this.clear(index, this.objectClippings);
+        this.clear(index, this.spriteClippings);
+        this.clear(index, this.subtypes);
+        this.behaviors.clear(index);
+
+        Sprite sprite = this.source.apply(index);
+
+        if(sprite == null){
+            return;
+        }
+
+        this.subtypes[sprite.getSubType().ordinal()].set(index);
+
+        if(!sprite.hasBehavior()){
+            return;
+        }
+
+        SpriteBehavior behavior = sprite.getBehavior();
+        long bits = behavior.getBits();
+
+        for(EnumBehaviorFlag flag : EnumBehaviorFlag.values()){
+            if((bits & flag.getMask()) != 0L){
+                this.flags[flag.ordinal()].set(index);
+            }
+        }
+
+        this.behaviors.set(index);
+        this.palettes[behavior.getPalette()].set(index);
+        this.objectClippings[behavior.getObjectClipping()].set(index);
+        this.spriteClippings[behavior.getSpriteClipping()].set(index);
+    }
+
+    /**
+     * Clears a single bit from every bitset in an array.
+     *
+     * @param index the bit to clear
+     * @param sets the bitsets to clear it from
+     */
+    private void clear(int index, BitSet[] sets){
+        for(BitSet set : sets){
+            set.clear(index);
+        }
+    }
+
+    /**
+     * Returns a copy of a bitset after bringing the index up to date.
+     *
+     * @param set the bitset to copy
+     * @return the copy, which may be freely modified
+     */
+    private BitSet copy(BitSet set){
+        this.refresh();
+        return (BitSet)set.clone();
+    }
+
+    /**
+     * Returns the sprites which have behavior settings.
+     *
+     * @return a new bitset of the indexes of the matching sprites
+     */
+    public BitSet withBehavior(){
+        return this.copy(this.behaviors);
+    }
+
+    /**
+     * Returns the sprites which have a behavior flag set.
+     *
+     * @param flag the flag to look for
+     * @return a new bitset of the indexes of the matching sprites
+     */
+    public BitSet withFlag(EnumBehaviorFlag flag){
+        return this.copy(this.flags[flag.ordinal()]);
+    }
+
+    /**
+     * Returns the sprites which use a palette.
+     *
+     * @param palette the palette to look for, from 0 to 7
+     * @return a new bitset of the indexes of the matching sprites
+     * @throws IndexOutOfBoundsException if the palette is out of range
+     */
+    public BitSet withPalette(int palette){
+        return this.copy(this.palettes[palette]);
+    }
+
+    /**
+     * Returns the sprites which use an object clipping.
+     *
+     * @param clipping the clipping to look for, from {@code 0x0} to
+     * {@code 0xF}
+     * @return a new bitset of the indexes of the matching sprites
+     * @throws IndexOutOfBoundsException if the clipping is out of range
+     */
+    public BitSet withObjectClipping(int clipping){
+        return this.copy(this.objectClippings[clipping]);
+    }
+
+    /**
+     * Returns the sprites which use a sprite clipping.
+     *
+     * @param clipping the clipping to look for, from {@code 0x00} to
+     * {@code 0x3F}
+     * @return a new bitset of the indexes of the matching sprites
+     * @throws IndexOutOfBoundsException if the clipping is out of range
+     */
+    public BitSet withSpriteClipping(int clipping){
+        return this.copy(this.spriteClippings[clipping]);
+    }
+
+    /**
+     * Returns the sprites of a subtype.
+     *
+     * @param subtype the subtype to look for
+     * @return a new bitset of the indexes of the matching sprites
+     */
+    public BitSet withSubType(EnumSpriteSubType subtype){
+        return this.copy(this.subtypes[subtype.ordinal()]);
+    }
+
+    /**
+     * Starts a new query which initially matches every sprite with behavior
+     * settings.
+     *
+     * @return the new query
+     */
+    public Query query(){
+        return new Query(this.withBehavior());
+    }
+
+    /**
+     * A {@code Query} narrows down or widens a set of sprites from the index
+     * by combining it with other criteria.
+     */
+    public class Query {
+        /**
+         * The sprites which currently match the query.
+         */
+        private final BitSet result;
+
+        /**
+         * Constructs a query which matches the given sprites.
+         *
+         * @param result the initial matches
+         */
+        private Query(BitSet result){
+            this.result = result;
+        }
+
+        /**
+         * Keeps only the sprites which also match the given set.
+         *
+         * @param set the indexes of the sprites to intersect with
+         * @return the query, for chaining
+         */
+        public Query and(BitSet set){
+            this.result.and(set);
+            return this;
+        }
+
+        /**
+         * Adds every sprite from the given set.
+         *
+         * @param set the indexes of the sprites to add
+         * @return the query, for chaining
+         */
+        public Query or(BitSet set){
+            this.result.or(set);
+            return this;
+        }
+
+        /**
+         * Removes every sprite from the given set.
+         *
+         * @param set the indexes of the sprites to remove
+         * @return the query, for chaining
+         */
+        public Query andNot(BitSet set){
+            this.result.andNot(set);
+            return this;
+        }
+
+        /**
+         * Keeps only the sprites which have a behavior flag set.
+         *
+         * @param flag the flag to look for
+         * @return the query, for chaining
+         */
+        public Query is(EnumBehaviorFlag flag){
+            return this.and(BehaviorIndex.this.withFlag(flag));
+        }
+
+        /**
+         * Keeps only the sprites which don't have a behavior flag set.
+         *
+         * @param flag the flag to look for
+         * @return the query, for chaining
+         */
+        public Query isNot(EnumBehaviorFlag flag){
+            return this.andNot(BehaviorIndex.this.withFlag(flag));
+        }
+
+        /**
+         * Keeps only the sprites which use a palette.
+         *
+         * @param palette the palette to look for
+         * @return the query, for chaining
+         */
+        public Query palette(int palette){
+            return this.and(BehaviorIndex.this.withPalette(palette));
+        }
+
+        /**
+         * Keeps only the sprites which use an object clipping.
+         *
+         * @param clipping the clipping to look for
+         * @return the query, for chaining
+         */
+        public Query objectClipping(int clipping){
+            return this.and(BehaviorIndex.this.withObjectClipping(clipping));
+        }
+
+        /**
+         * Keeps only the sprites which use a sprite clipping.
+         *
+         * @param clipping the clipping to look for
+         * @return the query, for chaining
+         */
+        public Query spriteClipping(int clipping){
+            return this.and(BehaviorIndex.this.withSpriteClipping(clipping));
+        }
+
+        /**
+         * Keeps only the sprites of a subtype.
+         *
+         * @param subtype the subtype to look for
+         * @return the query, for chaining
+         */
+        public Query subtype(EnumSpriteSubType subtype){
+            return this.and(BehaviorIndex.this.withSubType(subtype));
+        }
+
+        /**
+         * Returns the indexes of the sprites which match the query.
+         *
+         * @return a copy of the result
+         */
+        public BitSet getResult(){
+            return (BitSet)this.result.clone();
+        }
+
+        /**
+         * Returns the amount of sprites which match the query.
+         */
+        public int count(){
+            return this.result.cardinality();
+        }
+    }
+}
@@ -28,7 +28,6 @@ import com.telinc1.faerie.sprite.EnumStatusHandling;
 import com.telinc1.faerie.sprite.Sprite;
 import com.telinc1.faerie.sprite.display.DisplayData;
 import com.telinc1.faerie.sprite.display.LabelDisplayData;
-import com.telinc1.faerie.sprite.display.SpriteTile;
 import com.telinc1.faerie.sprite.display.TileDisplayData;
 import com.telinc1.faerie.util.locale.Warning;
 
@@ -269,8 +268,7 @@ public class CFGParser extends Parser {
                 try {
                     int[] integers = this.parseIntegers(list, ",", 3, 10, 10, 16);
 
-                    SpriteTile tile = new SpriteTile(integers[0], integers[1], integers[2]);
-                    ((TileDisplayData)displayData).getTiles().add(tile);
+                    ((TileDisplayData)displayData).addTile(integers[0], integers[1], integers[2]);
                 }catch(IllegalArgumentException exception){
                     throw new ParseException("Malformed tile data", "cfg.display.tiles", exception, "list", list);
                 }
@@ -26,13 +26,13 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.telinc1.faerie.sprite.EnumBehaviorFlag;
 import com.telinc1.faerie.sprite.EnumSpriteSubType;
 import com.telinc1.faerie.sprite.EnumSpriteType;
 import com.telinc1.faerie.sprite.Sprite;
 import com.telinc1.faerie.sprite.SpriteBehavior;
 import com.telinc1.faerie.sprite.display.DisplayData;
 import com.telinc1.faerie.sprite.display.LabelDisplayData;
-import com.telinc1.faerie.sprite.display.SpriteTile;
 import com.telinc1.faerie.sprite.display.TileDisplayData;
 import com.telinc1.faerie.util.locale.Warning;
 
@@ -100,8 +100,7 @@ public class JSONParser extends Parser {
                     displayData = new TileDisplayData();
 
                     for(JsonElement tile : tiles.getAsJsonArray()){
-                        SpriteTile spriteTile = new SpriteTile(this.getInt(tile, "X"), this.getInt(tile, "Y"), this.getInt(tile, "Tile"));
-                        ((TileDisplayData)displayData).getTiles().add(spriteTile);
+                        ((TileDisplayData)displayData).addTile(this.getInt(tile, "X"), this.getInt(tile, "Y"), this.getInt(tile, "Tile"));
                     }
                 }
             }else{
@@ -163,11 +162,11 @@ public class JSONParser extends Parser {
             return;
         }
 
-        behavior.objectClipping = (byte)(this.getInt($1656, "Object Clipping") & 0x1F);
-        behavior.canBeJumpedOn = this.getBoolean($1656, "Can be jumped on");
-        behavior.diesWhenJumpedOn = this.getBoolean($1656, "Dies when jumped on");
-        behavior.hopInShells = this.getBoolean($1656, "Hop in /kick shell");
-        behavior.disappearInSmoke = this.getBoolean($1656, "Disappears in cloud of smoke");
+        behavior.setObjectClipping(this.getInt($1656, "Object Clipping"));
+        behavior.set(EnumBehaviorFlag.CAN_BE_JUMPED_ON, this.getBoolean($1656, "Can be jumped on"));
+        behavior.set(EnumBehaviorFlag.DIES_WHEN_JUMPED_ON, this.getBoolean($1656, "Dies when jumped on"));
+        behavior.set(EnumBehaviorFlag.HOP_IN_SHELLS, this.getBoolean($1656, "Hop in /kick shell"));
+        behavior.set(EnumBehaviorFlag.DISAPPEAR_IN_SMOKE, this.getBoolean($1656, "Disappears in cloud of smoke"));
     }
 
     /**
@@ -183,9 +182,9 @@ public class JSONParser extends Parser {
             return;
         }
 
-        behavior.spriteClipping = (byte)(this.getInt($1662, "Sprite Clipping") & 0x3F);
-        behavior.useShellAsDeathFrame = this.getBoolean($1662, "Use shell as death frame");
-        behavior.fallsWhenKilled = this.getBoolean($1662, "Fall straight down when killed");
+        behavior.setSpriteClipping(this.getInt($1662, "Sprite Clipping"));
+        behavior.set(EnumBehaviorFlag.USE_SHELL_AS_DEATH_FRAME, this.getBoolean($1662, "Use shell as death frame"));
+        behavior.set(EnumBehaviorFlag.FALLS_WHEN_KILLED, this.getBoolean($1662, "Fall straight down when killed"));
     }
 
     /**
@@ -201,12 +200,12 @@ public class JSONParser extends Parser {
             return;
         }
 
-        behavior.useSecondGraphicsPage = this.getBoolean($166E, "Use second graphics page");
-        behavior.palette = (byte)(this.getInt($166E, "Palette") & 0x7);
-        behavior.disableFireballKilling = this.getBoolean($166E, "Disable fireball killing");
-        behavior.disableCapeKilling = this.getBoolean($166E, "Disable cape killing");
-        behavior.disableWaterSplash = this.getBoolean($166E, "Disable water splash");
-        behavior.disableSecondaryInteraction = this.getBoolean($166E, "Don't interact with Layer 2");
+        behavior.set(EnumBehaviorFlag.USE_SECOND_GRAPHICS_PAGE, this.getBoolean($166E, "Use second graphics page"));
+        behavior.setPalette(this.getInt($166E, "Palette"));
+        behavior.set(EnumBehaviorFlag.DISABLE_FIREBALL_KILLING, this.getBoolean($166E, "Disable fireball killing"));
+        behavior.set(EnumBehaviorFlag.DISABLE_CAPE_KILLING, this.getBoolean($166E, "Disable cape killing"));
+        behavior.set(EnumBehaviorFlag.DISABLE_WATER_SPLASH, this.getBoolean($166E, "Disable water splash"));
+        behavior.set(EnumBehaviorFlag.DISABLE_SECONDARY_INTERACTION, this.getBoolean($166E, "Don't interact with Layer 2"));
     }
 
     /**
@@ -222,14 +221,14 @@ public class JSONParser extends Parser {
             return;
         }
 
-        behavior.processIfDead = this.getBoolean($167A, "Don't disable cliping when starkilled");
-        behavior.invincibleToPlayer = this.getBoolean($167A, "Invincible to star/cape/fire/bounce blk");
-        behavior.processWhileOffscreen = this.getBoolean($167A, "Process when off screen");
-        behavior.skipShellIfStunned = this.getBoolean($167A, "Don't change into shell when stunned");
-        behavior.disableKicking = this.getBoolean($167A, "Can't be kicked like shell");
-        behavior.processInteractionEveryFrame = this.getBoolean($167A, "Process interaction with Mario every frame");
-        behavior.isPowerup = this.getBoolean($167A, "Gives power-up when eaten by Yoshi");
-        behavior.disableDefaultInteraction = this.getBoolean($167A, "Don't use default interaction with Mario");
+        behavior.set(EnumBehaviorFlag.PROCESS_IF_DEAD, this.getBoolean($167A, "Don't disable cliping when starkilled"));
+        behavior.set(EnumBehaviorFlag.INVINCIBLE_TO_PLAYER, this.getBoolean($167A, "Invincible to star/cape/fire/bounce blk"));
+        behavior.set(EnumBehaviorFlag.PROCESS_WHILE_OFFSCREEN, this.getBoolean($167A, "Process when off screen"));
+        behavior.set(EnumBehaviorFlag.SKIP_SHELL_IF_STUNNED, this.getBoolean($167A, "Don't change into shell when stunned"));
+        behavior.set(EnumBehaviorFlag.DISABLE_KICKING, this.getBoolean($167A, "Can't be kicked like shell"));
+        behavior.set(EnumBehaviorFlag.PROCESS_INTERACTION_EVERY_FRAME, this.getBoolean($167A, "Process interaction with Mario every frame"));
+        behavior.set(EnumBehaviorFlag.IS_POWERUP, this.getBoolean($167A, "Gives power-up when eaten by Yoshi"));
+        behavior.set(EnumBehaviorFlag.DISABLE_DEFAULT_INTERACTION, this.getBoolean($167A, "Don't use default interaction with Mario"));
     }
 
     /**
@@ -245,14 +244,14 @@ public class JSONParser extends Parser {
             return;
         }
 
-        behavior.inedible = this.getBoolean($1686, "Inedible");
-        behavior.stayInMouth = this.getBoolean($1686, "Stay in Yoshi's mouth");
-        behavior.weirdGroundBehavior = this.getBoolean($1686, "Weird ground behaviour");
-        behavior.disableSpriteInteraction = this.getBoolean($1686, "Don't interact with other sprites");
-        behavior.preserveDirection = this.getBoolean($1686, "Don't change direction if touched");
-        behavior.disappearOnGoal = this.getBoolean($1686, "Don't turn into coin when goal passed");
-        behavior.spawnsSpriteWhenStunned = this.getBoolean($1686, "Spawn a new sprite");
-        behavior.disableObjectInteraction = this.getBoolean($1686, "Don't interact with objects");
+        behavior.set(EnumBehaviorFlag.INEDIBLE, this.getBoolean($1686, "Inedible"));
+        behavior.set(EnumBehaviorFlag.STAY_IN_MOUTH, this.getBoolean($1686, "Stay in Yoshi's mouth"));
+        behavior.set(EnumBehaviorFlag.WEIRD_GROUND_BEHAVIOR, this.getBoolean($1686, "Weird ground behaviour"));
+        behavior.set(EnumBehaviorFlag.DISABLE_SPRITE_INTERACTION, this.getBoolean($1686, "Don't interact with other sprites"));
+        behavior.set(EnumBehaviorFlag.PRESERVE_DIRECTION, this.getBoolean($1686, "Don't change direction if touched"));
+        behavior.set(EnumBehaviorFlag.DISAPPEAR_ON_GOAL, this.getBoolean($1686, "Don't turn into coin when goal passed"));
+        behavior.set(EnumBehaviorFlag.SPAWNS_SPRITE_WHEN_STUNNED, this.getBoolean($1686, "Spawn a new sprite"));
+        behavior.set(EnumBehaviorFlag.DISABLE_OBJECT_INTERACTION, this.getBoolean($1686, "Don't interact with objects"));
     }
 
     /**
@@ -268,14 +267,14 @@ public class JSONParser extends Parser {
             return;
         }
 
-        behavior.platformPassableFromBelow = this.getBoolean($190F, "Make platform passable from below");
-        behavior.ignoreGoal = this.getBoolean($190F, "Don't erase when goal passed");
-        behavior.disableSlideKilling = this.getBoolean($190F, "Can't be killed by sliding");
-        behavior.takesFiveFireballs = this.getBoolean($190F, "Take 5 fireballs to kill");
-        behavior.canBeJumpedOnFromBelow = this.getBoolean($190F, "Can't be jumped on with upwards Y speed");
-        behavior.tallDeathFrame = this.getBoolean($190F, "Death frame two tiles high");
-        behavior.ignoreSilverPSwitch = this.getBoolean($190F, "Don't turn into a coin with silver POW");
-        behavior.escapeWalls = this.getBoolean($190F, "Don't get stuck in walls (carryable sprites)");
+        behavior.set(EnumBehaviorFlag.PLATFORM_PASSABLE_FROM_BELOW, this.getBoolean($190F, "Make platform passable from below"));
+        behavior.set(EnumBehaviorFlag.IGNORE_GOAL, this.getBoolean($190F, "Don't erase when goal passed"));
+        behavior.set(EnumBehaviorFlag.DISABLE_SLIDE_KILLING, this.getBoolean($190F, "Can't be killed by sliding"));
+        behavior.set(EnumBehaviorFlag.TAKES_FIVE_FIREBALLS, this.getBoolean($190F, "Take 5 fireballs to kill"));
+        behavior.set(EnumBehaviorFlag.CAN_BE_JUMPED_ON_FROM_BELOW, this.getBoolean($190F, "Can't be jumped on with upwards Y speed"));
+        behavior.set(EnumBehaviorFlag.TALL_DEATH_FRAME, this.getBoolean($190F, "Death frame two tiles high"));
+        behavior.set(EnumBehaviorFlag.IGNORE_SILVER_P_SWITCH, this.getBoolean($190F, "Don't turn into a coin with silver POW"));
+        behavior.set(EnumBehaviorFlag.ESCAPE_WALLS, this.getBoolean($190F, "Don't get stuck in walls (carryable sprites)"));
     }
 
     /**
@@ -23,6 +23,7 @@
 package com.telinc1.faerie.sprite.parser;
 
 import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.util.TypeUtils;
 import com.telinc1.faerie.util.locale.Warning;
 
 import java.io.Reader;
@@ -57,6 +58,24 @@ public abstract class Parser {
         this.warnings = new ArrayList<>();
     }
 
+    /**
+     * Creates the appropriate {@code Parser} for a configuration file with
+     * the given extension.
+     *
+     * @param extension the extension of the configuration file
+     * @param input the input to the parser
+     * @return the parser, or {@code null} if the extension isn't supported
+     */
+    public static Parser create(String extension, Reader input){
+        if(TypeUtils.TYPE_CFG.equalsIgnoreCase(extension)){
+            return new CFGParser(input);
+        }else if(TypeUtils.TYPE_JSON.equalsIgnoreCase(extension)){
+            return new JSONParser(input);
+        }
+
+        return null;
+    }
+
     /**
      * Returns the input to the parser.
      */
@@ -24,6 +24,7 @@ package com.telinc1.faerie.sprite.provider;
 
 
 import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.util.PersistentArray;
 import com.telinc1.faerie.util.locale.Warning;
 
 import java.io.File;
@@ -31,6 +32,10 @@ import java.io.File;
 /**
  * A {@code BlankProvider} takes no input and provides a brand new sprite. It
  * can only be saved to a new {@code ConfigurationProvider}.
+ * <p>
+ * The sprite itself never changes, so the only shared state is whether it
+ * has been modified, which is safe to read from any thread. Snapshots copy
+ * the sprite.
  *
  * @author Telinc1
  * @since 1.0.0
@@ -39,12 +44,12 @@ public class BlankProvider extends Provider {
     /**
      * The sprite which is being created by the provider.
      */
-    private Sprite sprite;
+    private final Sprite sprite;
 
     /**
      * Stores whether the sprite has been touched.
      */
-    private boolean isModified;
+    private volatile boolean isModified;
 
     /**
      * Constructs a {@code BlankProvider} for a new sprite.
@@ -61,12 +66,12 @@ public class BlankProvider extends Provider {
     }
 
     @Override
-    public Provider save(File file) throws SavingException{
+    public Provider save(File file, SaveProgress progress) throws SavingException{
         ConfigurationProvider provider = new ConfigurationProvider(file);
         provider.setSprite(this.getCurrentSprite());
-        provider.save(file);
+        provider.save(file, progress);
 
-        this.isModified = false;
+        this.write(() -> this.isModified = false);
 
         return provider;
     }
@@ -87,6 +92,12 @@ public class BlankProvider extends Provider {
         }
     }
 
+    @Override
+    public Sprite get(int index) throws ProvisionException{
+        this.loadSprite(index);
+        return this.getCurrentSprite();
+    }
+
     @Override
     public Warning[] getWarnings(){
         return new Warning[0];
@@ -102,9 +113,22 @@ public class BlankProvider extends Provider {
         return this.sprite;
     }
 
+    @Override
+    protected Sprite getWritableSprite(){
+        return this.sprite;
+    }
+
+    @Override
+    protected ProviderSnapshot createSnapshot(){
+        PersistentArray<Sprite> shared = new PersistentArray<Sprite>(1).with(0, this.sprite.copy());
+        return new ProviderSnapshot(this.getAvailableSprites(), shared, this::get);
+    }
+
     @Override
     public Sprite startModification(){
-        this.isModified = true;
+        this.write(() -> this.isModified = true);
+        this.fireModification(0);
+
         return this.getCurrentSprite();
     }
 
@@ -23,25 +23,33 @@
 package com.telinc1.faerie.sprite.provider;
 
 import com.telinc1.faerie.sprite.Sprite;
-import com.telinc1.faerie.sprite.emitter.CFGEmitter;
 import com.telinc1.faerie.sprite.emitter.Emitter;
-import com.telinc1.faerie.sprite.emitter.JSONEmitter;
-import com.telinc1.faerie.sprite.parser.CFGParser;
-import com.telinc1.faerie.sprite.parser.JSONParser;
 import com.telinc1.faerie.sprite.parser.ParseException;
 import com.telinc1.faerie.sprite.parser.Parser;
+import com.telinc1.faerie.util.FileUtils;
+import com.telinc1.faerie.util.PersistentArray;
 import com.telinc1.faerie.util.TypeUtils;
 import com.telinc1.faerie.util.locale.Warning;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 /**
  * A {@code ConfigurationProvider} provides a single sprite from any format of
  * configuration file.
+ * <p>
+ * The parsed sprite, its parser and the modification state are replaced
+ * under the lock of the provider, so background readers always see a sprite
+ * along with the parser which produced it. The first call to
+ * {@link #get(int)} may parse the file on the calling thread. Snapshots
+ * copy the parsed sprite.
  *
  * @see com.telinc1.faerie.sprite.parser.Parser
  * @author Telinc1
@@ -61,12 +69,12 @@ public class ConfigurationProvider extends Provider {
     /**
      * The input file to this {@code ConfigurationProvider}.
      */
-    private File input;
+    private volatile File input;
 
     /**
      * Stores whether the loaded sprite has been touched.
      */
-    private boolean isModified;
+    private volatile boolean isModified;
 
     /**
      * Constructs a {@code ConfigurationProvider} for the given {@code File}.
@@ -90,7 +98,7 @@ public class ConfigurationProvider extends Provider {
      * @return the parser used
      */
     public Parser getParser(){
-        return this.parser;
+        return this.read(() -> this.parser);
     }
 
     @Override
@@ -115,20 +123,20 @@ public class ConfigurationProvider extends Provider {
             return;
         }
 
-        try(FileReader reader = new FileReader(input)) {
-            String extension = TypeUtils.getExtension(input);
+        // the same encoding as every other provider, with malformed bytes replaced
+        try(Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(input.toPath()), StandardCharsets.UTF_8))) {
+            Parser parser = Parser.create(TypeUtils.getExtension(input), reader);
 
-            if("cfg".equalsIgnoreCase(extension)){
-                this.parser = new CFGParser(reader);
-            }else if("json".equalsIgnoreCase(extension)){
-                this.parser = new JSONParser(reader);
-            }
-
-            if(this.getParser() == null){
+            if(parser == null){
                 throw new ProvisionException("Unknown file type.", "configuration.type");
             }
 
-            this.sprite = this.getParser().parse();
+            Sprite sprite = parser.parse();
+
+            this.write(() -> {
+                this.parser = parser;
+                this.sprite = sprite;
+            });
         }catch(IOException exception){
             throw new ProvisionException("Can't read file.", "configuration.io", exception, false, new Object[]{});
         }catch(ParseException exception){
@@ -136,6 +144,19 @@ public class ConfigurationProvider extends Provider {
         }
     }
 
+    @Override
+    public Sprite get(int index) throws ProvisionException{
+        if(index != 0){
+            throw new ProvisionException("Index out of bounds: " + index + ".", "index");
+        }
+
+        if(this.getCurrentSprite() == null){
+            this.loadSprite(index);
+        }
+
+        return this.getCurrentSprite();
+    }
+
     /**
      * Sets a new pre-loaded sprite for the {@code ConfigurationProvider}.
      *
@@ -143,40 +164,48 @@ public class ConfigurationProvider extends Provider {
      * @return the {@code ConfigurationProvider}, for chaining
      */
     public ConfigurationProvider setSprite(Sprite sprite){
-        this.sprite = sprite;
+        this.write(() -> this.sprite = sprite);
         return this;
     }
 
     @Override
     @SuppressWarnings("RedundantArrayCreation")
-    public Provider save(File file) throws SavingException{
-        String extension = TypeUtils.getExtension(file);
-        Emitter emitter = null;
-
-        if("cfg".equalsIgnoreCase(extension)){
-            emitter = new CFGEmitter(this.getCurrentSprite());
-        }else if("json".equalsIgnoreCase(extension)){
-            emitter = new JSONEmitter(this.getCurrentSprite());
-        }
+    public Provider save(File file, SaveProgress progress) throws SavingException{
+        Emitter emitter = Emitter.create(TypeUtils.getExtension(file), this.getCurrentSprite());
 
         if(emitter == null){
             throw new SavingException("Unsupported file type.", "configuration.type", null, false, new Object[]{});
         }
 
+        progress.setProgress(0, 1);
+        File temporary;
+
         try {
-            file.createNewFile();
+            temporary = FileUtils.createTemporary(file);
         }catch(IOException | SecurityException exception){
             throw new SavingException("Can't create file.", "configuration.create", exception);
         }
 
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            emitter.emit(writer);
+        try {
+            try(BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temporary.toPath()), StandardCharsets.UTF_8))) {
+                emitter.emit(writer);
+            }
+
+            Provider.checkCancelled(progress);
+            FileUtils.replace(temporary, file);
         }catch(IOException | SecurityException exception){
             throw new SavingException("Can't write to file.", "configuration.io", exception);
+        }finally{
+            temporary.delete();
         }
 
-        this.input = file;
-        this.isModified = false;
+        progress.setProgress(1, 1);
+
+        this.write(() -> {
+            this.input = file;
+            this.isModified = false;
+        });
+
         return null;
     }
 
@@ -187,12 +216,31 @@ public class ConfigurationProvider extends Provider {
 
     @Override
     public Sprite getCurrentSprite(){
+        return this.read(() -> this.sprite);
+    }
+
+    @Override
+    protected Sprite getWritableSprite(){
         return this.sprite;
     }
 
+    @Override
+    protected ProviderSnapshot createSnapshot(){
+        PersistentArray<Sprite> shared = new PersistentArray<>(1);
+        File input = this.getInput();
+
+        if(this.sprite != null){
+            shared = shared.with(0, this.sprite.copy());
+        }
+
+        return new ProviderSnapshot(this.getAvailableSprites(), shared, index -> new ConfigurationProvider(input).get(index));
+    }
+
     @Override
     public Sprite startModification(){
-        this.isModified = true;
+        this.write(() -> this.isModified = true);
+        this.fireModification(0);
+
         return this.getCurrentSprite();
     }
 
@@ -203,11 +251,7 @@ public class ConfigurationProvider extends Provider {
      */
     @Override
     public Warning[] getWarnings(){
-        if(this.getParser() == null){
-            return new Warning[0];
-        }
-
-        return this.getParser().getWarnings().toArray(new Warning[0]);
+        return this.read(() -> this.parser == null ? new Warning[0] : this.parser.getWarnings().toArray(new Warning[0]));
     }
 
     @Override
@@ -0,0 +1,532 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.sprite.display.DisplayData;
+import com.telinc1.faerie.sprite.emitter.Emitter;
+import com.telinc1.faerie.sprite.parser.ParseException;
+import com.telinc1.faerie.sprite.parser.Parser;
+import com.telinc1.faerie.util.FileUtils;
+import com.telinc1.faerie.util.LRUCache;
+import com.telinc1.faerie.util.TypeUtils;
+import com.telinc1.faerie.util.locale.Warning;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@code DirectoryProvider} provides every configuration file in a
+ * directory, such as the sprite folder of a tool. Each file is only parsed
+ * when it's first loaded, and only a limited amount of unmodified sprites is
+ * kept in memory at once.
+ * <p>
+ * Sprites are listed by their display name once they've been parsed, and by
+ * their file name until then. Saving the provider in-place only rewrites the
+ * files of the modified sprites.
+ * <p>
+ * The cache, the modified sprites and the names are guarded by the monitor
+ * of the cache, since parsing a sprite from any thread updates them. The
+ * lock of the provider additionally guards the modification state, so that
+ * optimistic readers notice changes to it. Snapshots share the modified
+ * sprites and parse every other file again. Saving pins the old version of
+ * every modified sprite into them before its file is overwritten.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class DirectoryProvider extends Provider {
+    /**
+     * The default amount of unmodified sprites kept in memory.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 64;
+
+    /**
+     * The input directory of this {@code DirectoryProvider}.
+     */
+    private volatile File input;
+
+    /**
+     * The names of all configuration files in the directory, sorted.
+     */
+    private final String[] files;
+
+    /**
+     * The human-readable name of every sprite.
+     */
+    private final String[] names;
+
+    /**
+     * The most recently used unmodified sprites.
+     */
+    private final LRUCache<Integer, Entry> cache;
+
+    /**
+     * The warnings created by the last parse of every sprite, which are kept
+     * after the sprite itself has been evicted.
+     */
+    private final Warning[][] warnings;
+
+    /**
+     * Every modified sprite. These are never evicted until they're saved.
+     */
+    private final Map<Integer, Entry> dirty;
+
+    /**
+     * The modified sprites which can be shared with snapshots.
+     */
+    private final SharedSprites shared;
+
+    /**
+     * The indexes of the sprites which have been modified.
+     */
+    private final BitSet modified;
+
+    /**
+     * The index of the sprite which is currently loaded.
+     */
+    private volatile int index;
+
+    /**
+     * The sprite which is currently loaded. It's only replaced together with
+     * the index, while holding both the write lock and the monitor of the
+     * cache.
+     */
+    private volatile Entry current;
+
+    /**
+     * Constructs a {@code DirectoryProvider} with the default cache size.
+     *
+     * @param input the input directory to the provider
+     * @throws LoadingException if the directory is unreadable or contains no
+     * configuration files
+     * @throws NullPointerException if the directory is {@code null}
+     */
+    public DirectoryProvider(File input) throws LoadingException{
+        this(input, DirectoryProvider.DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a {@code DirectoryProvider}.
+     *
+     * @param input the input directory to the provider
+     * @param cacheSize the amount of unmodified sprites kept in memory
+     * @throws LoadingException if the directory is unreadable or contains no
+     * configuration files
+     * @throws NullPointerException if the directory is {@code null}
+     */
+    public DirectoryProvider(File input, int cacheSize) throws LoadingException{
+        super();
+        this.input = input;
+
+        if(this.getInput() == null){
+            throw new NullPointerException("A directory must be provided.");
+        }
+
+        File[] list = this.getInput().listFiles(file -> file.isFile() && TypeUtils.isConfiguration(file));
+
+        if(list == null){
+            throw new LoadingException("Can't list the directory.", "directory.read");
+        }
+
+        if(list.length == 0){
+            throw new LoadingException("The directory has no configuration files.", "directory.empty");
+        }
+
+        this.files = new String[list.length];
+
+        for(int i = 0; i < list.length; i++){
+            this.files[i] = list[i].getName();
+        }
+
+        Arrays.sort(this.files, String.CASE_INSENSITIVE_ORDER);
+
+        this.names = this.files.clone();
+        this.cache = new LRUCache<>(cacheSize);
+        this.warnings = new Warning[this.files.length][];
+        this.dirty = new HashMap<>();
+        this.modified = new BitSet(this.files.length);
+        this.shared = new SharedSprites(this.files.length);
+    }
+
+    @Override
+    public File getInput(){
+        return this.input;
+    }
+
+    @Override
+    @SuppressWarnings("RedundantArrayCreation")
+    public Provider save(File file, SaveProgress progress) throws SavingException{
+        if(TypeUtils.isConfiguration(file)){
+            ConfigurationProvider provider = new ConfigurationProvider(file);
+            provider.setSprite(this.getCurrentSprite());
+            provider.save(file, progress);
+
+            return provider;
+        }
+
+        if(file.exists() ? !file.isDirectory() : !TypeUtils.getExtension(file).isEmpty()){
+            throw new SavingException("Unsupported file type.", "directory.type", null, false, new Object[]{});
+        }
+
+        if(!file.exists() && !file.mkdirs()){
+            throw new SavingException("Can't create directory.", "directory.write", null, false, new Object[]{});
+        }
+
+        boolean inPlace = file.getAbsoluteFile().equals(this.getInput().getAbsoluteFile());
+        BitSet touched = this.read(() -> (BitSet)this.modified.clone());
+        int total = inPlace ? touched.cardinality() : this.files.length;
+        int done = 0;
+
+        progress.setProgress(0, total);
+        this.shared.pin(touched, index -> this.parse(index).sprite);
+
+        for(int i = 0; i < this.files.length; i++){
+            if(inPlace && !touched.get(i)){
+                continue;
+            }
+
+            Provider.checkCancelled(progress);
+            File target = new File(file, this.files[i]);
+
+            try {
+                if(touched.get(i)){
+                    DirectoryProvider.writeConfiguration(this.findEntry(i).sprite, target);
+                }else{
+                    DirectoryProvider.copyFile(new File(this.getInput(), this.files[i]), target);
+                }
+            }catch(IOException | SecurityException exception){
+                throw new SavingException("Can't write to file.", "directory.write", exception);
+            }
+
+            // files which have been written stay saved even if a later one fails
+            if(inPlace){
+                this.markSaved(i);
+            }
+
+            progress.setProgress(++done, total);
+        }
+
+        if(!inPlace){
+            for(int i = touched.nextSetBit(0); i >= 0; i = touched.nextSetBit(i + 1)){
+                this.markSaved(i);
+            }
+        }
+
+        this.write(() -> this.input = file);
+        return null;
+    }
+
+    /**
+     * Marks a modified sprite as saved, allowing it to be evicted from memory
+     * again.
+     *
+     * @param index the index of the sprite
+     */
+    private void markSaved(int index){
+        this.write(() -> {
+            synchronized(this.cache){
+                this.cache.put(index, this.dirty.remove(index));
+                this.modified.clear(index);
+                this.shared.release(index);
+            }
+        });
+    }
+
+    /**
+     * Emits a sprite into a temporary file next to the target, then moves it
+     * over the target.
+     *
+     * @param sprite the sprite to emit
+     * @param target the configuration file to write
+     * @throws IOException if writing or moving the file fails
+     */
+    static void writeConfiguration(Sprite sprite, File target) throws IOException{
+        Emitter emitter = Emitter.create(TypeUtils.getExtension(target), sprite);
+        File temporary = FileUtils.createTemporary(target);
+
+        try {
+            try(Writer writer = Files.newBufferedWriter(temporary.toPath(), StandardCharsets.UTF_8)) {
+                emitter.emit(writer);
+            }
+
+            FileUtils.replace(temporary, target);
+        }finally{
+            temporary.delete();
+        }
+    }
+
+    /**
+     * Copies a file into a temporary file next to the target, then moves it
+     * over the target.
+     *
+     * @param source the file to copy
+     * @param target the file to replace
+     * @throws IOException if copying or moving the file fails
+     */
+    private static void copyFile(File source, File target) throws IOException{
+        File temporary = FileUtils.createTemporary(target);
+
+        try {
+            Files.copy(source.toPath(), temporary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            FileUtils.replace(temporary, target);
+        }finally{
+            temporary.delete();
+        }
+    }
+
+    @Override
+    public String[] getAvailableSprites(){
+        synchronized(this.cache){
+            return this.names.clone();
+        }
+    }
+
+    @Override
+    public void loadSprite(int index) throws ProvisionException{
+        Entry entry = this.getEntry(index);
+
+        this.write(() -> {
+            synchronized(this.cache){
+                this.current = entry;
+                this.index = index;
+            }
+        });
+    }
+
+    @Override
+    public void loadSprite(int index, Sprite sprite) throws ProvisionException{
+        if(index < 0 || index >= this.files.length){
+            throw new ProvisionException("Index out of bounds: " + index + ".", "index");
+        }
+
+        this.write(() -> {
+            synchronized(this.cache){
+                Entry entry = this.findEntry(index);
+
+                // the sprite can only have been evicted if it was unmodified
+                if(entry == null){
+                    entry = new Entry(sprite, this.warnings[index]);
+                    this.cache.put(index, entry);
+                }
+
+                this.current = entry;
+                this.index = index;
+            }
+        });
+    }
+
+    @Override
+    public Sprite get(int index) throws ProvisionException{
+        return this.getEntry(index).sprite;
+    }
+
+    @Override
+    public int size(){
+        return this.files.length;
+    }
+
+    /**
+     * Returns the parsed sprite at the given index, parsing its file if it
+     * isn't in memory.
+     *
+     * @param index the index of the sprite
+     * @return the parsed sprite and its warnings
+     * @throws ProvisionException if the sprite is out of bounds or its file
+     * can't be parsed
+     */
+    private Entry getEntry(int index) throws ProvisionException{
+        if(index < 0 || index >= this.files.length){
+            throw new ProvisionException("Index out of bounds: " + index + ".", "index");
+        }
+
+        Entry entry = this.findEntry(index);
+
+        if(entry != null){
+            return entry;
+        }
+
+        // parse outside of the lock so that other sprites stay available
+        Entry parsed = this.parse(index);
+
+        synchronized(this.cache){
+            entry = this.findEntry(index);
+
+            if(entry != null){
+                return entry;
+            }
+
+            DisplayData display = parsed.sprite.getDisplayData();
+
+            if(display != null && display.getName() != null && !display.getName().isEmpty()){
+                this.names[index] = display.getName();
+            }
+
+            this.cache.put(index, parsed);
+            this.warnings[index] = parsed.warnings;
+            return parsed;
+        }
+    }
+
+    /**
+     * Finds a sprite which is already in memory.
+     *
+     * @param index the index of the sprite
+     * @return the sprite and its warnings, or {@code null} if it isn't in
+     * memory
+     */
+    private Entry findEntry(int index){
+        synchronized(this.cache){
+            if(this.current != null && this.index == index){
+                return this.current;
+            }
+
+            Entry entry = this.dirty.get(index);
+            return entry != null ? entry : this.cache.get(index);
+        }
+    }
+
+    /**
+     * Reads and parses a single configuration file from the directory.
+     *
+     * @param index the index of the file to parse
+     * @return the parsed sprite and its warnings
+     * @throws ProvisionException if the file can't be read or is malformed
+     */
+    @SuppressWarnings("RedundantArrayCreation")
+    private Entry parse(int index) throws ProvisionException{
+        File file = new File(this.getInput(), this.files[index]);
+
+        // malformed bytes are replaced instead of failing the whole file
+        try(Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            Parser parser = Parser.create(TypeUtils.getExtension(file), reader);
+
+            if(parser == null){
+                throw new ProvisionException("Unknown file type.", "configuration.type");
+            }
+
+            Sprite sprite = parser.parse();
+            return new Entry(sprite, parser.getWarnings().toArray(new Warning[0]));
+        }catch(IOException exception){
+            throw new ProvisionException("Can't read file.", "configuration.io", exception, false, new Object[]{});
+        }catch(ParseException exception){
+            throw new ProvisionException("Malformed file.", "configuration.malformed", exception, "message", exception.getLocalizedMessage());
+        }
+    }
+
+    @Override
+    public Warning[] getWarnings(){
+        return this.current == null ? new Warning[0] : this.current.warnings.clone();
+    }
+
+    @Override
+    public int getLoadedIndex(){
+        return this.index;
+    }
+
+    @Override
+    public Sprite getCurrentSprite(){
+        return this.current == null ? null : this.current.sprite;
+    }
+
+    @Override
+    public Sprite startModification(){
+        this.write(() -> {
+            synchronized(this.cache){
+                this.modified.set(this.index);
+                this.dirty.put(this.index, this.current);
+                this.cache.remove(this.index);
+                this.getWritableSprite();
+            }
+        });
+
+        this.fireModification(this.getLoadedIndex());
+        return this.getCurrentSprite();
+    }
+
+    @Override
+    protected Sprite getWritableSprite(){
+        synchronized(this.cache){
+            Sprite sprite = this.shared.acquire(this.index, this.current.sprite);
+
+            if(sprite != this.current.sprite){
+                this.current = new Entry(sprite, this.current.warnings);
+                this.dirty.put(this.index, this.current);
+            }
+
+            return sprite;
+        }
+    }
+
+    @Override
+    protected ProviderSnapshot createSnapshot(){
+        return this.shared.snapshot(this.getAvailableSprites(), index -> this.parse(index).sprite);
+    }
+
+    @Override
+    public boolean isModified(){
+        return this.read(() -> !this.modified.isEmpty());
+    }
+
+    @Override
+    public boolean isModified(int index){
+        return this.read(() -> this.modified.get(index));
+    }
+
+    /**
+     * A parsed sprite along with the warnings created while parsing it.
+     */
+    private static class Entry {
+        /**
+         * The parsed sprite.
+         */
+        private final Sprite sprite;
+
+        /**
+         * The warnings created while parsing the sprite.
+         */
+        private final Warning[] warnings;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param sprite the parsed sprite
+         * @param warnings the warnings created while parsing the sprite
+         */
+        Entry(Sprite sprite, Warning[] warnings){
+            this.sprite = sprite;
+            this.warnings = warnings;
+        }
+    }
+}
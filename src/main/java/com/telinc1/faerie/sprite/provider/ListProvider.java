@@ -0,0 +1,522 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.sprite.parser.ParseException;
+import com.telinc1.faerie.sprite.parser.Parser;
+import com.telinc1.faerie.util.TypeUtils;
+import com.telinc1.faerie.util.locale.Warning;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A {@code ListProvider} provides every sprite referenced by the
+ * {@code list.txt} file of a sprite insertion tool such as PIXI or GIEPY.
+ * <p>
+ * Opening the provider only reads the list itself. Every file it references
+ * is looked up in parallel so that missing files can be reported right away,
+ * but each configuration file is only parsed when it's first retrieved.
+ * <p>
+ * The list itself never changes after it's read. Parsed sprites are
+ * published through an atomic array, so any thread may parse and retrieve
+ * them, and the modification state is guarded by the lock of the provider.
+ * Snapshots share the modified sprites and parse every other sprite again.
+ * Saving pins the old version of every modified sprite into them before its
+ * file is overwritten.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class ListProvider extends Provider {
+    /**
+     * The pattern which every slot in the list has to match. A slot is either
+     * a sprite number or a level number and a sprite number, separated by a
+     * colon.
+     */
+    private static final Pattern SLOT = Pattern.compile("([0-9A-Fa-f]{1,3}:)?[0-9A-Fa-f]{1,2}");
+
+    /**
+     * The directories which configuration files from the sprite section are
+     * looked up in, relative to the list.
+     */
+    private static final String[] SPRITE_DIRECTORIES = {"sprites", "shooters", "generators", ""};
+
+    /**
+     * The input file to this {@code ListProvider}.
+     */
+    private final File input;
+
+    /**
+     * The slot of every listed sprite, such as {@code 3A} or {@code 105:B0}.
+     */
+    private final String[] slots;
+
+    /**
+     * The resolved configuration file of every listed sprite.
+     */
+    private final File[] files;
+
+    /**
+     * The index of every slot in the list.
+     */
+    private final Map<String, Integer> indexes;
+
+    /**
+     * The warnings created while reading the list.
+     */
+    private final List<Warning> listWarnings;
+
+    /**
+     * An array of all sprites which have been parsed so far. Entries are set
+     * once when they're parsed, so they can be parsed from multiple threads,
+     * and are only replaced by the writer when a sprite shared with a
+     * snapshot is copied.
+     */
+    private final AtomicReferenceArray<Sprite> sprites;
+
+    /**
+     * The modified sprites which can be shared with snapshots.
+     */
+    private final SharedSprites shared;
+
+    /**
+     * The warnings created while parsing each sprite.
+     */
+    private final AtomicReferenceArray<Warning[]> warnings;
+
+    /**
+     * The indexes of the sprites which have been modified.
+     */
+    private final BitSet modified;
+
+    /**
+     * The index of the sprite which is currently loaded.
+     */
+    private volatile int index;
+
+    /**
+     * Constructs a {@code ListProvider} for the given list file.
+     *
+     * @param input the list file to the provider
+     * @throws LoadingException if the list is unreadable or references no
+     * configuration files
+     * @throws NullPointerException if the file is {@code null}
+     */
+    @SuppressWarnings("RedundantArrayCreation")
+    public ListProvider(File input) throws LoadingException{
+        super();
+        this.input = input;
+
+        if(this.getInput() == null){
+            throw new NullPointerException("A list file must be provided.");
+        }
+
+        List<String> lines;
+
+        try {
+            try(BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(this.getInput().toPath()), StandardCharsets.UTF_8))) {
+                lines = reader.lines().collect(Collectors.toList());
+            }
+        }catch(IOException | UncheckedIOException exception){
+            throw new LoadingException("Error reading the list.", "list.read", exception, true, new Object[]{});
+        }
+
+        this.listWarnings = new ArrayList<>();
+        this.indexes = new HashMap<>();
+
+        List<String> slots = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        List<String[]> directories = new ArrayList<>();
+
+        String section = null;
+
+        for(int number = 1; number <= lines.size(); number++){
+            String line = lines.get(number - 1);
+            int comment = line.indexOf(';');
+            line = (comment == -1 ? line : line.substring(0, comment)).trim();
+
+            if(line.isEmpty()){
+                continue;
+            }
+
+            if(line.endsWith(":") && line.indexOf(' ') == -1){
+                section = line.substring(0, line.length() - 1).toUpperCase(Locale.ROOT);
+                continue;
+            }
+
+            String[] parts = line.split("\\s+", 2);
+
+            if(parts.length < 2 || !ListProvider.SLOT.matcher(parts[0]).matches()){
+                this.listWarnings.add(new Warning("file", "list.malformed", "line", String.valueOf(number)));
+                continue;
+            }
+
+            String slot = parts[0].toUpperCase(Locale.ROOT);
+            String path = parts[1].trim();
+
+            if(section != null && !section.equals("SPRITE")){
+                references.add(path);
+                directories.add(new String[]{section.toLowerCase(Locale.ROOT), ""});
+                continue;
+            }
+
+            if(!TypeUtils.isConfiguration(path)){
+                references.add(path);
+                directories.add(ListProvider.SPRITE_DIRECTORIES);
+                continue;
+            }
+
+            if(this.indexes.containsKey(slot)){
+                this.listWarnings.add(new Warning("file", "list.duplicate", "slot", slot, "line", String.valueOf(number)));
+                continue;
+            }
+
+            this.indexes.put(slot, slots.size());
+            slots.add(slot);
+            paths.add(path);
+        }
+
+        if(slots.isEmpty()){
+            throw new LoadingException("The list has no configuration files.", "list.empty");
+        }
+
+        this.slots = slots.toArray(new String[0]);
+        this.files = this.resolveAll(paths, references, directories);
+        this.sprites = new AtomicReferenceArray<>(this.slots.length);
+        this.warnings = new AtomicReferenceArray<>(this.slots.length);
+        this.modified = new BitSet(this.slots.length);
+        this.shared = new SharedSprites(this.slots.length);
+    }
+
+    /**
+     * Resolves every configuration file and every other referenced file in
+     * parallel. Files which can't be found are reported in a single warning.
+     *
+     * @param paths the paths of the configuration files
+     * @param references the paths of the other referenced files
+     * @param directories the directories to look up each reference in
+     * @return the resolved configuration files
+     */
+    private File[] resolveAll(List<String> paths, List<String> references, List<String[]> directories){
+        File[] files = new File[paths.size()];
+        File[] others = new File[references.size()];
+
+        IntStream.range(0, files.length + others.length).parallel().forEach(i -> {
+            if(i < files.length){
+                files[i] = this.resolve(paths.get(i), ListProvider.SPRITE_DIRECTORIES);
+            }else{
+                others[i - files.length] = this.resolve(references.get(i - files.length), directories.get(i - files.length));
+            }
+        });
+
+        String missing = IntStream.range(0, files.length + others.length)
+            .filter(i -> i < files.length ? !files[i].isFile() : !others[i - files.length].isFile())
+            .mapToObj(i -> i < files.length ? paths.get(i) : references.get(i - files.length))
+            .collect(Collectors.joining("\n"));
+
+        if(!missing.isEmpty()){
+            this.listWarnings.add(new Warning("file", "list.missing", "files", missing));
+        }
+
+        return files;
+    }
+
+    /**
+     * Looks up a file referenced by the list. The first directory which
+     * contains the file is used. If none of them do, the file is resolved
+     * against the first directory anyway.
+     *
+     * @param path the path to look up
+     * @param directories the directories to look in, relative to the list
+     * @return the resolved file
+     */
+    private File resolve(String path, String[] directories){
+        File root = this.getInput().getAbsoluteFile().getParentFile();
+
+        for(String directory : directories){
+            File file = new File(directory.isEmpty() ? root : new File(root, directory), path);
+
+            if(file.isFile()){
+                return file;
+            }
+        }
+
+        return new File(new File(root, directories[0]), path);
+    }
+
+    @Override
+    public File getInput(){
+        return this.input;
+    }
+
+    /**
+     * Returns the index of a slot in the list.
+     *
+     * @param slot the slot to look up, such as {@code 3A} or {@code 105:B0}
+     * @return the index of the slot, or {@code -1} if it isn't listed
+     */
+    public int indexOf(String slot){
+        return this.indexes.getOrDefault(slot.toUpperCase(Locale.ROOT), -1);
+    }
+
+    /**
+     * Returns the slot of a listed sprite.
+     *
+     * @param index the index of the sprite
+     * @return the slot of the sprite, such as {@code 3A} or {@code 105:B0}
+     */
+    public String getSlot(int index){
+        return this.slots[index];
+    }
+
+    /**
+     * Returns the resolved configuration file of a listed sprite.
+     *
+     * @param index the index of the sprite
+     * @return the configuration file of the sprite
+     */
+    public File getFile(int index){
+        return this.files[index];
+    }
+
+    @Override
+    @SuppressWarnings("RedundantArrayCreation")
+    public Provider save(File file, SaveProgress progress) throws SavingException{
+        if(TypeUtils.isConfiguration(file)){
+            ConfigurationProvider provider = new ConfigurationProvider(file);
+            provider.setSprite(this.getCurrentSprite());
+            provider.save(file, progress);
+
+            return provider;
+        }
+
+        if(!file.getAbsoluteFile().equals(this.getInput().getAbsoluteFile())){
+            throw new SavingException("Can't save to a different list.", "list.different", null, false, new Object[]{});
+        }
+
+        BitSet touched = this.read(() -> (BitSet)this.modified.clone());
+        int total = touched.cardinality();
+        int done = 0;
+
+        progress.setProgress(0, total);
+        this.shared.pin(touched, this::parse);
+
+        for(int i = touched.nextSetBit(0); i >= 0; i = touched.nextSetBit(i + 1)){
+            Provider.checkCancelled(progress);
+
+            try {
+                DirectoryProvider.writeConfiguration(this.sprites.get(i), this.files[i]);
+            }catch(IOException | SecurityException exception){
+                throw new SavingException("Can't write to file.", "list.write", exception);
+            }
+
+            // files which have been written stay saved even if a later one fails
+            int index = i;
+            this.write(() -> {
+                this.modified.clear(index);
+                this.shared.release(index);
+            });
+            progress.setProgress(++done, total);
+        }
+
+        return null;
+    }
+
+    @Override
+    public String[] getAvailableSprites(){
+        String[] names = new String[this.slots.length];
+
+        for(int i = 0; i < names.length; i++){
+            names[i] = this.slots[i] + ": " + this.files[i].getName();
+        }
+
+        return names;
+    }
+
+    @Override
+    public void loadSprite(int index) throws ProvisionException{
+        this.get(index);
+        this.index = index;
+    }
+
+    @Override
+    public Sprite get(int index) throws ProvisionException{
+        if(index < 0 || index >= this.slots.length){
+            throw new ProvisionException("Index out of bounds: " + index + ".", "index");
+        }
+
+        Sprite sprite = this.sprites.get(index);
+
+        if(sprite == null){
+            this.sprites.compareAndSet(index, null, this.parse(index));
+            sprite = this.sprites.get(index);
+        }
+
+        return sprite;
+    }
+
+    @Override
+    public int size(){
+        return this.slots.length;
+    }
+
+    /**
+     * Parses a single configuration file from the list and checks that the
+     * ASM files it uses exist next to it.
+     *
+     * @param index the index of the file to parse
+     * @return the parsed sprite
+     * @throws ProvisionException if the file can't be read or is malformed
+     */
+    @SuppressWarnings("RedundantArrayCreation")
+    private Sprite parse(int index) throws ProvisionException{
+        File file = this.files[index];
+
+        // malformed bytes are replaced instead of failing the whole file
+        try(Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            Parser parser = Parser.create(TypeUtils.getExtension(file), reader);
+
+            if(parser == null){
+                throw new ProvisionException("Unknown file type.", "configuration.type");
+            }
+
+            Sprite sprite = parser.parse();
+            List<Warning> warnings = new ArrayList<>(parser.getWarnings());
+
+            if(sprite.usesFirstASM()){
+                this.checkASMFile(file, sprite.getFirstASMFile(), warnings);
+            }
+
+            if(sprite.usesSecondASM()){
+                this.checkASMFile(file, sprite.getSecondASMFile(), warnings);
+            }
+
+            this.warnings.set(index, warnings.toArray(new Warning[0]));
+            return sprite;
+        }catch(IOException exception){
+            throw new ProvisionException("Can't read file.", "configuration.io", exception, false, new Object[]{});
+        }catch(ParseException exception){
+            throw new ProvisionException("Malformed file.", "configuration.malformed", exception, "message", exception.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Adds a warning if an ASM file used by a configuration file is missing.
+     *
+     * @param configuration the configuration file
+     * @param path the path of the ASM file, relative to the configuration
+     * @param warnings the list to add the warning to
+     */
+    private void checkASMFile(File configuration, String path, List<Warning> warnings){
+        if(path == null || path.isEmpty()){
+            return;
+        }
+
+        if(!new File(configuration.getParentFile(), path).isFile()){
+            warnings.add(new Warning("file", "list.asm", "file", path));
+        }
+    }
+
+    /**
+     * Returns the warnings created while reading the list, followed by the
+     * warnings created while parsing the loaded sprite.
+     *
+     * @return an array of {@link Warning}s which were created
+     */
+    @Override
+    public Warning[] getWarnings(){
+        List<Warning> warnings = new ArrayList<>(this.listWarnings);
+        Warning[] sprite = this.warnings.get(this.getLoadedIndex());
+
+        if(sprite != null){
+            Collections.addAll(warnings, sprite);
+        }
+
+        return warnings.toArray(new Warning[0]);
+    }
+
+    @Override
+    public int getLoadedIndex(){
+        return this.index;
+    }
+
+    @Override
+    public Sprite getCurrentSprite(){
+        return this.sprites.get(this.getLoadedIndex());
+    }
+
+    @Override
+    protected Sprite getWritableSprite(){
+        Sprite sprite = this.shared.acquire(this.index, this.sprites.get(this.index));
+        this.sprites.set(this.index, sprite);
+
+        return sprite;
+    }
+
+    @Override
+    protected ProviderSnapshot createSnapshot(){
+        return this.shared.snapshot(this.getAvailableSprites(), this::parse);
+    }
+
+    @Override
+    public Sprite startModification(){
+        this.write(() -> {
+            this.modified.set(this.index);
+            this.getWritableSprite();
+        });
+
+        this.fireModification(this.getLoadedIndex());
+
+        return this.getCurrentSprite();
+    }
+
+    @Override
+    public boolean isModified(){
+        return this.read(() -> !this.modified.isEmpty());
+    }
+
+    @Override
+    public boolean isModified(int index){
+        return this.read(() -> this.modified.get(index));
+    }
+}
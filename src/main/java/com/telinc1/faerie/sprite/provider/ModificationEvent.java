@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+import java.util.EventObject;
+
+/**
+ * The {@code ModificationEvent} is fired by a {@link Provider} whenever
+ * {@link Provider#startModification()} is called. The changes themselves are
+ * made to the sprite after the event is fired, so listeners which need the
+ * new state should only mark the sprite as outdated and read it later.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class ModificationEvent extends EventObject {
+    /**
+     * The index of the sprite which is being modified.
+     */
+    private final int index;
+
+    /**
+     * Constructs a {@code ModificationEvent}.
+     *
+     * @param source the provider which contains the sprite
+     * @param index the index of the sprite which is being modified
+     * @throws IllegalArgumentException if source is null.
+     */
+    public ModificationEvent(Provider source, int index){
+        super(source);
+        this.index = index;
+    }
+
+    @Override
+    public Provider getSource(){
+        return (Provider)super.getSource();
+    }
+
+    /**
+     * Returns the index of the sprite which is being modified.
+     */
+    public int getIndex(){
+        return this.index;
+    }
+}
@@ -23,9 +23,17 @@
 package com.telinc1.faerie.sprite.provider;
 
 import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.util.locale.LocalizedException;
 import com.telinc1.faerie.util.locale.Warning;
 
+import javax.swing.event.EventListenerList;
 import java.io.File;
+import java.util.Spliterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A {@code Provider} serves as a repository of one or many sprites within a
@@ -35,11 +43,154 @@ import java.io.File;
  * {@link com.telinc1.faerie.UserInterface UserInterface}. The {@code Provider}
  * tracks which sprites have been loaded and what changes have been made to
  * them.
+ * <p>
+ * Providers allow any amount of concurrent readers alongside a single
+ * writer, which is normally the event dispatch thread. Only the writer may
+ * call {@link #loadSprite(int)}, {@link #startModification()},
+ * {@link #modify(Consumer)} and {@link #save(File, SaveProgress)}. Other
+ * threads may call {@link #get(int)}, {@link #size()}, the
+ * {@code isModified} methods and {@link #getAvailableSprites()} at any time.
+ * Reads which span several calls or read the contents of a sprite should be
+ * wrapped in {@link #read(Supplier)}, which retries them if the writer got in
+ * the way. Subclasses guard their own state with {@link #write(Runnable)} and
+ * {@link #read(Supplier)}.
+ * <p>
+ * Long-running readers, such as exports, should take a {@link #snapshot()}
+ * instead, which never changes and never waits on the writer.
  *
  * @author Telinc1
  * @since 1.0.0
  */
 public abstract class Provider {
+    /**
+     * A list of event listeners for this provider.
+     */
+    private final EventListenerList listenerList;
+
+    /**
+     * The lock which separates readers from the writer.
+     */
+    private final StampedLock lock;
+
+    /**
+     * Constructs a {@code Provider} with no listeners.
+     */
+    protected Provider(){
+        this.listenerList = new EventListenerList();
+        this.lock = new StampedLock();
+    }
+
+    /**
+     * Reads from the provider without blocking the writer. The reader is
+     * first run optimistically without any lock. If the writer changed the
+     * provider in the meantime, the reader is run again while holding a read
+     * lock. As such, the reader may run twice and must not have side effects.
+     * <p>
+     * This must never be called from within {@link #write(Runnable)} or a
+     * modification passed to {@link #modify(Consumer)}.
+     *
+     * @param reader the function which reads from the provider
+     * @param <T> the type of the value which is read
+     * @return the value returned by the reader
+     */
+    public <T> T read(Supplier<T> reader){
+        long stamp = this.lock.tryOptimisticRead();
+
+        if(stamp != 0){
+            try {
+                T value = reader.get();
+
+                if(this.lock.validate(stamp)){
+                    return value;
+                }
+            }catch(RuntimeException exception){
+                // an inconsistent state can make the reader fail, so only
+                // rethrow if the state was actually consistent
+                if(this.lock.validate(stamp)){
+                    throw exception;
+                }
+            }
+        }
+
+        stamp = this.lock.readLock();
+
+        try {
+            return reader.get();
+        }finally{
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Changes the state of the provider while holding the write lock. The
+     * writer should be short and must not call back into code which reads
+     * from the provider, such as listeners.
+     *
+     * @param writer the function which changes the provider
+     */
+    protected void write(Runnable writer){
+        long stamp = this.lock.writeLock();
+
+        try {
+            writer.run();
+        }finally{
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Modifies the currently loaded sprite. Listeners are notified through
+     * {@link #startModification()} first, then the modification is applied
+     * while holding the write lock, so that readers never see a half-applied
+     * change.
+     *
+     * @param modification the function which changes the sprite
+     */
+    public void modify(Consumer<Sprite> modification){
+        this.startModification();
+        this.write(() -> modification.accept(this.getWritableSprite()));
+    }
+
+    /**
+     * Returns the currently loaded sprite so that it can be modified. If the
+     * sprite is shared with a snapshot, it's copied first and replaced by
+     * the copy. This is called while holding the write lock, so it must not
+     * call {@link #read(Supplier)}.
+     *
+     * @return the currently loaded sprite
+     * @see #snapshot()
+     */
+    protected abstract Sprite getWritableSprite();
+
+    /**
+     * Takes an immutable snapshot of every sprite of the provider. Taking a
+     * snapshot only waits for a write in progress, and reading from it never
+     * waits at all. The snapshot doesn't see any changes made to the
+     * provider afterwards.
+     *
+     * @return a new snapshot of the provider
+     */
+    public ProviderSnapshot snapshot(){
+        long stamp = this.lock.readLock();
+
+        try {
+            return this.createSnapshot();
+        }finally{
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Creates a snapshot of the provider. This is called while holding a
+     * read lock, so the writer can't change the provider in the meantime.
+     * The snapshot must share the state of the provider instead of copying
+     * all of it.
+     *
+     * @return a new snapshot of the provider
+     * @see #snapshot()
+     */
+    protected abstract ProviderSnapshot createSnapshot();
+
     /**
      * Returns the original input {@code File}.
      *
@@ -65,8 +216,39 @@ public abstract class Provider {
      * @param file the file to save to
      * @return a new {@code Provider} for the handler
      * @throws SavingException if an I/O error occurs
+     * @see #save(File, SaveProgress)
      */
-    public abstract Provider save(File file) throws SavingException;
+    public Provider save(File file) throws SavingException{
+        return this.save(file, SaveProgress.NONE);
+    }
+
+    /**
+     * Saves every available sprite to the given file like
+     * {@link #save(File)}, reporting the progress of the save as it goes.
+     * <p>
+     * Files should be written to a temporary file first and then moved over
+     * the target, so that a failed or cancelled save leaves the target
+     * intact. Saving may happen on a background thread, but the interface
+     * won't modify the provider while it's being saved.
+     *
+     * @param file the file to save to
+     * @param progress the object which receives the progress of the save
+     * @return a new {@code Provider} for the handler
+     * @throws SavingException if an I/O error occurs or the save is cancelled
+     */
+    public abstract Provider save(File file, SaveProgress progress) throws SavingException;
+
+    /**
+     * Throws a {@link SavingException} if a save has been cancelled.
+     *
+     * @param progress the progress of the save
+     * @throws SavingException if the save has been cancelled
+     */
+    protected static void checkCancelled(SaveProgress progress) throws SavingException{
+        if(progress.isCancelled()){
+            throw new SavingException("The save was cancelled.", "cancelled");
+        }
+    }
 
     /**
      * Returns an array of available sprites. Each returned {@code String}
@@ -91,6 +273,93 @@ public abstract class Provider {
      */
     public abstract void loadSprite(int index) throws ProvisionException;
 
+    /**
+     * Loads a sprite which has already been retrieved through
+     * {@link #get(int)}, such as by a {@link SpriteLoader}. Providers which
+     * may have evicted the sprite from memory since then reuse the given one
+     * instead of reading it again. By default, this only calls
+     * {@link #loadSprite(int)}.
+     *
+     * @param index the index of the sprite to load
+     * @param sprite the sprite which {@link #get(int)} returned for the index
+     * @throws ProvisionException if the sprite is out of bounds or cannot fully load
+     */
+    public void loadSprite(int index, Sprite sprite) throws ProvisionException{
+        this.loadSprite(index);
+    }
+
+    /**
+     * Returns the sprite at the given index without changing which sprite is
+     * loaded. The index must match the indexes from
+     * {@link #getAvailableSprites()}.
+     * <p>
+     * The returned object should be treated as read-only. Implementations
+     * must be safe to call from multiple threads at once, as long as no
+     * sprite is being modified at the same time.
+     *
+     * @param index the index of the sprite
+     * @return the sprite at the index
+     * @throws ProvisionException if the sprite is out of bounds or cannot fully load
+     * @see #loadSprite(int)
+     */
+    public abstract Sprite get(int index) throws ProvisionException;
+
+    /**
+     * Returns the sprite at the given index like {@link #get(int)}, but
+     * rethrows any {@link ProvisionException} as a
+     * {@link LocalizedException}.
+     *
+     * @param index the index of the sprite
+     * @return the sprite at the index
+     * @throws LocalizedException if the sprite is out of bounds or cannot fully load
+     */
+    public Sprite getUnchecked(int index){
+        try {
+            return this.get(index);
+        }catch(ProvisionException exception){
+            throw new LocalizedException(exception, exception.getSeverity(), exception.getResource(), exception.getSubkey(), exception.getArguments());
+        }
+    }
+
+    /**
+     * Returns the amount of sprites which can be retrieved through
+     * {@link #get(int)}. By default, this is the amount of available sprites.
+     */
+    public int size(){
+        return this.getAvailableSprites().length;
+    }
+
+    /**
+     * Creates a {@code Spliterator} over every sprite of the provider. The
+     * spliterator can be split for parallel traversal and never changes
+     * which sprite is loaded.
+     *
+     * @return a new spliterator over the sprites
+     */
+    public Spliterator<Sprite> spliterator(){
+        return new ProviderSpliterator(this::getUnchecked, 0, this.size());
+    }
+
+    /**
+     * Returns a sequential {@code Stream} of every sprite of the provider.
+     * Sprites which can't be provided cause a {@link LocalizedException}.
+     *
+     * @return a new stream of the sprites
+     */
+    public Stream<Sprite> stream(){
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel {@code Stream} of every sprite of the provider.
+     * Sprites which can't be provided cause a {@link LocalizedException}.
+     *
+     * @return a new stream of the sprites
+     */
+    public Stream<Sprite> parallelStream(){
+        return StreamSupport.stream(this.spliterator(), true);
+    }
+
     /**
      * Returns any {@code Warning}s created during the provision.
      */
@@ -120,6 +389,9 @@ public abstract class Provider {
      * for changes to be made to it. Unlike {@link #getCurrentSprite()}, the
      * returned mutable object should be completely safe to modify with no
      * resulting unexpected behavior or discarded changes.
+     * <p>
+     * Implementations must call {@link #fireModification(int)} with the
+     * index of the sprite before returning it.
      *
      * @return the currently loaded sprite
      */
@@ -132,4 +404,57 @@ public abstract class Provider {
      * @see #startModification()
      */
     public abstract boolean isModified();
+
+    /**
+     * Checks whether a single sprite of the provider has been modified. By
+     * default, only the loaded sprite can be modified.
+     *
+     * @param index the index of the sprite
+     * @see #isModified()
+     */
+    public boolean isModified(int index){
+        return index == this.getLoadedIndex() && this.isModified();
+    }
+
+    /**
+     * Releases any resources held by the {@code Provider}, such as open
+     * files. This is called by the interface once the provider has been
+     * replaced and won't be used anymore. By default, it does nothing.
+     */
+    public void close(){}
+
+    /**
+     * Adds a {@code ModificationListener} which is called whenever a sprite
+     * of the provider is about to be modified.
+     */
+    public void addModificationListener(ModificationListener listener){
+        this.listenerList.add(ModificationListener.class, listener);
+    }
+
+    /**
+     * Removes a {@code ModificationListener} which was previously added.
+     *
+     * @see #addModificationListener(ModificationListener)
+     */
+    public void removeModificationListener(ModificationListener listener){
+        this.listenerList.remove(ModificationListener.class, listener);
+    }
+
+    /**
+     * Notifies all {@link ModificationListener}s that a sprite is about to be
+     * modified.
+     *
+     * @param index the index of the sprite
+     */
+    protected void fireModification(int index){
+        ModificationListener[] listeners = this.listenerList.getListeners(ModificationListener.class);
+
+        if(listeners.length > 0){
+            ModificationEvent event = new ModificationEvent(this, index);
+
+            for(ModificationListener listener : listeners){
+                listener.onModification(event);
+            }
+        }
+    }
 }
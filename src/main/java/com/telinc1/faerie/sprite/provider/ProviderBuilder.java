@@ -163,6 +163,12 @@ public class ProviderBuilder {
             }catch(LoadingException exception){
                 this.getErrors().add(exception);
             }
+        }else if(TypeUtils.isArchive(file)){
+            try {
+                return new ZipProvider(file);
+            }catch(LoadingException exception){
+                this.getErrors().add(exception);
+            }
         }else{
             this.pushError("load.type");
         }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.util.PersistentArray;
+import com.telinc1.faerie.util.locale.LocalizedException;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@code ProviderSnapshot} is an immutable view of the sprites of a
+ * {@link Provider} at the moment {@link Provider#snapshot()} was called. It
+ * never changes, even while the provider is edited and saved, and it can be
+ * read from any thread without ever waiting on the provider.
+ * <p>
+ * The snapshot shares the modified sprites of the provider with it. All
+ * other sprites are read from the input of the provider when they're first
+ * needed. Before the provider overwrites a sprite in its input, it pins the
+ * old version into the snapshot, so later edits and saves never show up in
+ * it. Sprites returned by a snapshot must be treated as read-only.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class ProviderSnapshot {
+    /**
+     * The human-readable names of the sprites.
+     */
+    private final String[] names;
+
+    /**
+     * The sprites which are shared with the provider.
+     */
+    private final PersistentArray<Sprite> shared;
+
+    /**
+     * The function which reads sprites that aren't shared.
+     */
+    private final Loader loader;
+
+    /**
+     * The sprites which have been read by the loader so far.
+     */
+    private final AtomicReferenceArray<Sprite> loaded;
+
+    /**
+     * The failures of pinned sprites which couldn't be read.
+     */
+    private final AtomicReferenceArray<ProvisionException> failures;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param names the human-readable names of the sprites
+     * @param shared the sprites which are shared with the provider, which
+     * also determines the amount of sprites
+     * @param loader the function which reads every other sprite
+     */
+    public ProviderSnapshot(String[] names, PersistentArray<Sprite> shared, Loader loader){
+        this.names = names;
+        this.shared = shared;
+        this.loader = loader;
+        this.loaded = new AtomicReferenceArray<>(shared.length());
+        this.failures = new AtomicReferenceArray<>(shared.length());
+    }
+
+    /**
+     * Returns the amount of sprites in the snapshot.
+     */
+    public int size(){
+        return this.shared.length();
+    }
+
+    /**
+     * Returns the human-readable names of the sprites.
+     *
+     * @return a new array of the names
+     * @see Provider#getAvailableSprites()
+     */
+    public String[] getAvailableSprites(){
+        return this.names.clone();
+    }
+
+    /**
+     * Returns the sprite at the given index as it was when the snapshot was
+     * taken.
+     *
+     * @param index the index of the sprite
+     * @return the sprite at the index
+     * @throws ProvisionException if the sprite is out of bounds or cannot fully load
+     */
+    public Sprite get(int index) throws ProvisionException{
+        if(index < 0 || index >= this.size()){
+            throw new ProvisionException("Index out of bounds: " + index + ".", "index");
+        }
+
+        Sprite sprite = this.shared.get(index);
+
+        if(sprite != null){
+            return sprite;
+        }
+
+        if(this.failures.get(index) != null){
+            throw this.failures.get(index);
+        }
+
+        sprite = this.loaded.get(index);
+
+        if(sprite != null){
+            return sprite;
+        }
+
+        try {
+            this.loaded.compareAndSet(index, null, this.loader.load(index));
+        }catch(ProvisionException exception){
+            // the sprite may have been pinned while the loader read it
+            if(this.loaded.get(index) == null && this.failures.get(index) == null){
+                throw exception;
+            }
+        }
+
+        if(this.failures.get(index) != null){
+            throw this.failures.get(index);
+        }
+
+        return this.loaded.get(index);
+    }
+
+    /**
+     * Checks whether the snapshot still has to read a sprite from the input
+     * of the provider.
+     *
+     * @param index the index of the sprite
+     * @return whether the sprite is neither shared nor read yet
+     */
+    boolean needs(int index){
+        return this.shared.get(index) == null && this.loaded.get(index) == null && this.failures.get(index) == null;
+    }
+
+    /**
+     * Pins the version of a sprite which the snapshot should return, unless
+     * it has already read it.
+     *
+     * @param index the index of the sprite
+     * @param sprite the sprite, or {@code null} if it couldn't be read
+     * @param failure the reason the sprite couldn't be read, if it couldn't
+     */
+    void pin(int index, Sprite sprite, ProvisionException failure){
+        if(!this.needs(index)){
+            return;
+        }
+
+        if(sprite == null){
+            this.failures.compareAndSet(index, null, failure);
+        }else{
+            this.loaded.compareAndSet(index, null, sprite);
+        }
+    }
+
+    /**
+     * Returns the sprite at the given index like {@link #get(int)}, but
+     * rethrows any {@link ProvisionException} as a
+     * {@link LocalizedException}.
+     *
+     * @param index the index of the sprite
+     * @return the sprite at the index
+     * @throws LocalizedException if the sprite is out of bounds or cannot fully load
+     */
+    public Sprite getUnchecked(int index){
+        try {
+            return this.get(index);
+        }catch(ProvisionException exception){
+            throw new LocalizedException(exception, exception.getSeverity(), exception.getResource(), exception.getSubkey(), exception.getArguments());
+        }
+    }
+
+    /**
+     * Creates a {@code Spliterator} over every sprite of the snapshot.
+     *
+     * @return a new spliterator over the sprites
+     * @see Provider#spliterator()
+     */
+    public Spliterator<Sprite> spliterator(){
+        return new ProviderSpliterator(this::getUnchecked, 0, this.size());
+    }
+
+    /**
+     * Returns a sequential {@code Stream} of every sprite of the snapshot.
+     *
+     * @return a new stream of the sprites
+     */
+    public Stream<Sprite> stream(){
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel {@code Stream} of every sprite of the snapshot.
+     *
+     * @return a new stream of the sprites
+     */
+    public Stream<Sprite> parallelStream(){
+        return StreamSupport.stream(this.spliterator(), true);
+    }
+
+    /**
+     * Reads the sprites of a snapshot which it doesn't share with its
+     * provider.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Reads a sprite. This may be called from any thread and must not
+         * change the provider.
+         *
+         * @param index the index of the sprite
+         * @return the sprite at the index
+         * @throws ProvisionException if the sprite cannot fully load
+         */
+        Sprite load(int index) throws ProvisionException;
+    }
+}
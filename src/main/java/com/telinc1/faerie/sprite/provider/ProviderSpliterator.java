@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+import com.telinc1.faerie.sprite.Sprite;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * A {@code ProviderSpliterator} traverses a range of the sprites of a
+ * {@link Provider} or a {@link ProviderSnapshot} through their
+ * {@code getUnchecked} method. Splitting it halves the remaining range.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+class ProviderSpliterator implements Spliterator<Sprite> {
+    /**
+     * The function which retrieves a sprite by its index.
+     */
+    private final IntFunction<Sprite> getter;
+
+    /**
+     * The index of the next sprite to traverse.
+     */
+    private int origin;
+
+    /**
+     * The index after the last sprite to traverse.
+     */
+    private final int fence;
+
+    /**
+     * Constructs a spliterator over a range of sprites.
+     *
+     * @param getter the function which retrieves a sprite by its index
+     * @param origin the index of the first sprite, inclusive
+     * @param fence the index of the last sprite, exclusive
+     */
+    ProviderSpliterator(IntFunction<Sprite> getter, int origin, int fence){
+        this.getter = getter;
+        this.origin = origin;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Sprite> action){
+        if(this.origin >= this.fence){
+            return false;
+        }
+
+        action.accept(this.getter.apply(this.origin++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Sprite> action){
+        for(int i = this.origin; i < this.fence; i++){
+            action.accept(this.getter.apply(i));
+        }
+
+        this.origin = this.fence;
+    }
+
+    @Override
+    public Spliterator<Sprite> trySplit(){
+        int middle = (this.origin + this.fence) >>> 1;
+
+        if(middle <= this.origin){
+            return null;
+        }
+
+        ProviderSpliterator prefix = new ProviderSpliterator(this.getter, this.origin, middle);
+        this.origin = middle;
+
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize(){
+        return this.fence - this.origin;
+    }
+
+    @Override
+    public int characteristics(){
+        return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+    }
+}
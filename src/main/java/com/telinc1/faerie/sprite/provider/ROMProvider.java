@@ -23,9 +23,14 @@
 package com.telinc1.faerie.sprite.provider;
 
 import com.telinc1.faerie.Resources;
+import com.telinc1.faerie.rom.ROMImage;
 import com.telinc1.faerie.sprite.EnumSpriteSubType;
 import com.telinc1.faerie.sprite.EnumSpriteType;
 import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.sprite.SpriteBehavior;
+import com.telinc1.faerie.sprite.SpriteTable;
+import com.telinc1.faerie.util.FileUtils;
+import com.telinc1.faerie.util.PersistentArray;
 import com.telinc1.faerie.util.TypeUtils;
 import com.telinc1.faerie.util.locale.LocalizedException;
 import com.telinc1.faerie.util.locale.Warning;
@@ -36,15 +41,24 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * A {@code ROMProvider} provides all of the sprites from a Super Mario World
  * ROM image.
+ * <p>
+ * Every sprite is a view of a single {@link SpriteTable}. The loaded index,
+ * the handed out views and the modification state are guarded by the lock of
+ * the provider. Edits to the table itself are only guarded when they're made
+ * through {@link #modify(java.util.function.Consumer)}, so background readers
+ * should wrap reads of sprite properties in {@link #read(java.util.function.Supplier)}.
+ * Snapshots share the columns of the table, which are copied the first time
+ * they're changed afterwards.
  *
  * @author Telinc1
  * @since 1.0.0
@@ -63,22 +77,57 @@ public class ROMProvider extends Provider {
     /**
      * The input file to this {@code ROMProvider}.
      */
-    private File input;
+    private volatile File input;
 
     /**
      * The index of the sprite which is currently loaded.
      */
-    private int index;
+    private volatile int index;
 
     /**
-     * An array of all currently loaded sprites.
+     * The PC offsets of the six Tweaker tables, in the order $1656, $1662,
+     * $166E, $167A, $1686, $190F.
+     */
+    private static final int[] TWEAKER_TABLES = {0x3F26C, 0x3F335, 0x3F3FE, 0x3F4C7, 0x3F590, 0x3F659};
+
+    /**
+     * The amount of sprites which have entries in the Tweaker tables.
+     */
+    private static final int TWEAKER_ENTRIES = 0xC9;
+
+    /**
+     * The names of the RAM addresses which the Tweaker tables are loaded
+     * into, in the same order as {@link #TWEAKER_TABLES}.
+     */
+    private static final String[] TWEAKER_REGISTERS = {"$1656", "$1662", "$166E", "$167A", "$1686", "$190F"};
+
+    /**
+     * The table which holds the properties of every sprite in the ROM.
+     */
+    private final SpriteTable table;
+
+    /**
+     * An array of the sprite views which have been handed out so far.
      */
     private Sprite[] sprites;
 
     /**
-     * A {@code Set} of the sprites which have been modified.
+     * The behavior columns as they were last read from or written to the ROM.
+     */
+    private final byte[][] baseline;
+
+    /**
+     * The whole ROM image in memory, or {@code null} if it hasn't been read
+     * yet or is outdated.
      */
-    private Set<Sprite> modified;
+    private volatile ROMImage image;
+
+    /**
+     * The indexes of the sprites which have been touched since the last save.
+     * Whether a touched sprite was actually changed is decided by comparing
+     * it against the baseline.
+     */
+    private final BitSet modified;
 
     /**
      * Constructs a {@code ROMProvider} for the given ROM file.
@@ -91,8 +140,10 @@ public class ROMProvider extends Provider {
     public ROMProvider(File input) throws LoadingException{
         super();
         this.input = input;
-        this.sprites = new Sprite[256];
-        this.modified = new HashSet<>();
+        this.table = new SpriteTable(256);
+        this.sprites = new Sprite[this.table.size()];
+        this.baseline = new byte[SpriteBehavior.BYTES][];
+        this.modified = new BitSet(this.table.size());
 
         if(this.getInput() == null){
             throw new NullPointerException("A ROM image file must be provided.");
@@ -111,11 +162,83 @@ public class ROMProvider extends Provider {
             if(!Arrays.equals(ROMProvider.ROM_TITLE, title)){
                 throw new LoadingException("Wrong ROM title.", "rom.title", "found", new String(title, StandardCharsets.US_ASCII));
             }
+
+            this.readTable(rom);
         }catch(IOException exception){
             throw new LoadingException("Error reading the ROM file.", "rom.read", exception, true, new Object[]{});
         }
     }
 
+    /**
+     * Populates the sprite table with every vanilla sprite from the ROM. The
+     * Tweaker tables are read in bulk, one column at a time.
+     *
+     * @param rom the opened readable ROM image to read from
+     * @throws IOException if reading from the file fails
+     */
+    private void readTable(RandomAccessFile rom) throws IOException{
+        long offset = rom.length() & 0x200;
+
+        for(int i = 0; i < SpriteBehavior.BYTES; i++){
+            rom.seek(ROMProvider.TWEAKER_TABLES[i] + offset);
+            rom.readFully(this.table.getBehaviorColumn(i), 0, ROMProvider.TWEAKER_ENTRIES);
+        }
+
+        for(int i = 0; i < SpriteBehavior.BYTES; i++){
+            this.baseline[i] = this.table.getBehaviorColumn(i).clone();
+        }
+
+        for(int index = 0; index < this.table.size(); index++){
+            this.table.setType(index, EnumSpriteType.TWEAK);
+            this.table.setActsLike(index, index);
+
+            if(index <= 0xC8){
+                this.table.setSubType(index, EnumSpriteSubType.REGULAR);
+            }else if(index == 0xC9 || index == 0xCA){
+                this.table.setSubType(index, EnumSpriteSubType.SHOOTER);
+            }else if(index <= 0xD9){
+                this.table.setSubType(index, EnumSpriteSubType.GENERATOR);
+            }else if(index <= 0xE6){
+                this.table.setSubType(index, EnumSpriteSubType.INITIALIZER);
+            }else{
+                this.table.setSubType(index, EnumSpriteSubType.SCROLLER);
+            }
+        }
+    }
+
+    /**
+     * Returns the whole ROM image, which is read into memory the first time
+     * it's needed. The image is read again after the provider is saved.
+     *
+     * @return the image of the ROM file
+     * @throws ProvisionException if the ROM file can't be read
+     */
+    @SuppressWarnings("RedundantArrayCreation")
+    public ROMImage getImage() throws ProvisionException{
+        ROMImage image = this.image;
+
+        if(image == null){
+            try {
+                image = ROMImage.read(this.getInput());
+            }catch(IOException exception){
+                throw new ProvisionException("Can't read the ROM image.", "rom.io", exception, false, new Object[]{});
+            }
+
+            this.image = image;
+        }
+
+        return image;
+    }
+
+    /**
+     * Returns the table which holds the properties of every sprite in the
+     * ROM. Changes made directly to the table are not tracked as
+     * modifications.
+     */
+    public SpriteTable getTable(){
+        return this.table;
+    }
+
     /**
      * Reads the internal data file to populate the internal list of sprite
      * names.
@@ -141,11 +264,11 @@ public class ROMProvider extends Provider {
 
     @Override
     @SuppressWarnings("RedundantArrayCreation")
-    public Provider save(File file) throws SavingException{
+    public Provider save(File file, SaveProgress progress) throws SavingException{
         if(TypeUtils.isConfiguration(file)){
             ConfigurationProvider provider = new ConfigurationProvider(file);
             provider.setSprite(this.getCurrentSprite());
-            provider.save(file);
+            provider.save(file, progress);
 
             return provider;
         }
@@ -158,40 +281,150 @@ public class ROMProvider extends Provider {
             throw new SavingException("The original ROM file doesn't exist.", "rom.write");
         }
 
-        try(RandomAccessFile rom = new RandomAccessFile(file, "rw")) {
-            long offset = rom.length() & 0x200;
-            byte[] title = new byte[21];
-            rom.seek(0x7FC0 + offset);
-            rom.read(title);
+        BitSet touched = this.read(() -> (BitSet)this.modified.clone());
+        int[] masks = new int[ROMProvider.TWEAKER_ENTRIES];
+        int total = touched.cardinality();
+        int done = 0;
 
-            if(!Arrays.equals(ROMProvider.ROM_TITLE, title)){
-                throw new SavingException("Wrong ROM title.", "rom.title", null, false, new Object[]{"found", new String(title, StandardCharsets.US_ASCII)});
+        // dropping these silently would lose the changes without a prompt
+        for(int index = touched.nextSetBit(ROMProvider.TWEAKER_ENTRIES); index >= 0; index = touched.nextSetBit(index + 1)){
+            if(this.getModifiedBytes(index) != 0){
+                throw new SavingException("The sprite has no Tweaker entries.", "rom.tweaker", null, false, new Object[]{"sprite", String.format("%02X", index)});
             }
+        }
+
+        progress.setProgress(0, total);
+
+        // the changes are made to a copy of the ROM, which then replaces it
+        File temporary;
+
+        try {
+            temporary = FileUtils.createTemporary(file);
+            Files.copy(file.toPath(), temporary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }catch(IOException | SecurityException exception){
+            throw new SavingException("Error copying the file.", "rom.write", exception);
+        }
+
+        try {
+            try(RandomAccessFile rom = new RandomAccessFile(temporary, "rw")) {
+                long offset = rom.length() & 0x200;
+                byte[] title = new byte[21];
+                rom.seek(0x7FC0 + offset);
+                rom.read(title);
 
-            for(Sprite sprite : this.modified){
-                if(!sprite.hasBehavior()){
-                    continue;
+                if(!Arrays.equals(ROMProvider.ROM_TITLE, title)){
+                    throw new SavingException("Wrong ROM title.", "rom.title", null, false, new Object[]{"found", new String(title, StandardCharsets.US_ASCII)});
                 }
 
-                int index = sprite.getActsLike();
-                int[] behavior = sprite.getBehavior().pack();
+                for(int index = touched.nextSetBit(0); index >= 0; index = touched.nextSetBit(index + 1)){
+                    Provider.checkCancelled(progress);
+                    int mask = this.getModifiedBytes(index);
+
+                    for(int i = 0; i < SpriteBehavior.BYTES; i++){
+                        if((mask & (1 << i)) != 0){
+                            this.writeByte(rom, ROMProvider.TWEAKER_TABLES[i] + index, this.table.getBehaviorByte(i, index));
+                        }
+                    }
+
+                    if(index < masks.length){
+                        masks[index] = mask;
+                    }
 
-                this.writeByte(rom, 0x3F26C + index, behavior[0]);
-                this.writeByte(rom, 0x3F335 + index, behavior[1]);
-                this.writeByte(rom, 0x3F3FE + index, behavior[2]);
-                this.writeByte(rom, 0x3F4C7 + index, behavior[3]);
-                this.writeByte(rom, 0x3F590 + index, behavior[4]);
-                this.writeByte(rom, 0x3F659 + index, behavior[5]);
+                    progress.setProgress(++done, total);
+                }
             }
-        }catch(IOException exception){
-            throw new SavingException("Error reading the file.", "rom.write", exception);
+
+            Provider.checkCancelled(progress);
+            FileUtils.replace(temporary, file);
+        }catch(IOException | SecurityException exception){
+            throw new SavingException("Error writing the file.", "rom.write", exception);
+        }finally{
+            temporary.delete();
         }
 
-        this.input = file;
-        this.modified.clear();
+        this.write(() -> {
+            for(int index = 0; index < masks.length; index++){
+                for(int i = 0; i < SpriteBehavior.BYTES; i++){
+                    if((masks[index] & (1 << i)) != 0){
+                        this.baseline[i][index] = (byte)this.table.getBehaviorByte(i, index);
+                    }
+                }
+            }
+
+            this.input = file;
+            this.image = null;
+            this.modified.clear();
+        });
+
         return null;
     }
 
+    /**
+     * Returns which behavior bytes of a sprite differ from the ROM and would
+     * be written by the next save. Bit {@code i} of the result stands for the
+     * Tweaker table {@code i}, in the order $1656, $1662, $166E, $167A,
+     * $1686, $190F. Changes to sprites which don't have entries in the
+     * Tweaker tables are reported too, but the save refuses to write them.
+     *
+     * @param index the index of the sprite
+     * @return the mask of the modified bytes
+     * @see #hasTweakerEntry(int)
+     */
+    public int getModifiedBytes(int index){
+        if(index < 0 || index >= this.table.size()){
+            return 0;
+        }
+
+        return this.read(() -> {
+            if(!this.modified.get(index)){
+                return 0;
+            }
+
+            int mask = 0;
+
+            for(int i = 0; i < SpriteBehavior.BYTES; i++){
+                if(this.table.getBehaviorByte(i, index) != (this.baseline[i][index] & 0xFF)){
+                    mask |= 1 << i;
+                }
+            }
+
+            return mask;
+        });
+    }
+
+    /**
+     * Checks whether a sprite has entries in the Tweaker tables. The behavior
+     * of other sprites is hardcoded and can't be saved to the ROM.
+     *
+     * @param index the index of the sprite
+     * @return whether the behavior of the sprite can be saved
+     */
+    public boolean hasTweakerEntry(int index){
+        return index >= 0 && index < ROMProvider.TWEAKER_ENTRIES;
+    }
+
+    /**
+     * Returns the names of the Tweaker tables which would be written for a
+     * sprite by the next save.
+     *
+     * @param index the index of the sprite
+     * @return the RAM addresses of the modified tables, such as
+     * {@code $1656}
+     * @see #getModifiedBytes(int)
+     */
+    public String[] getModifiedTables(int index){
+        int mask = this.getModifiedBytes(index);
+        String[] tables = new String[Integer.bitCount(mask)];
+
+        for(int i = 0, j = 0; i < SpriteBehavior.BYTES; i++){
+            if((mask & (1 << i)) != 0){
+                tables[j++] = ROMProvider.TWEAKER_REGISTERS[i];
+            }
+        }
+
+        return tables;
+    }
+
     @Override
     public File getInput(){
         return this.input;
@@ -200,65 +433,38 @@ public class ROMProvider extends Provider {
     @Override
     @SuppressWarnings("RedundantArrayCreation")
     public void loadSprite(int index) throws ProvisionException{
-        if(index < 0 || index > this.sprites.length){
+        if(index < 0 || index >= this.sprites.length){
             throw new ProvisionException("Index out of bounds: " + index + ".", "index");
         }
 
-        if(this.sprites[index] != null){
+        this.write(() -> {
+            if(this.sprites[index] == null){
+                this.sprites[index] = this.table.getSprite(index);
+            }
+
             this.index = index;
-            return;
-        }
+        });
+    }
 
-        Sprite sprite = new Sprite();
-        sprite.setType(EnumSpriteType.TWEAK);
-        sprite.setActsLike(index);
-
-        if(index <= 0xC8){
-            sprite.setSubtype(EnumSpriteSubType.REGULAR);
-
-            try(RandomAccessFile rom = new RandomAccessFile(this.getInput(), "r")) {
-                sprite.getBehavior().unpack(new int[]{
-                    this.readByte(rom, 0x3F26C + index),
-                    this.readByte(rom, 0x3F335 + index),
-                    this.readByte(rom, 0x3F3FE + index),
-                    this.readByte(rom, 0x3F4C7 + index),
-                    this.readByte(rom, 0x3F590 + index),
-                    this.readByte(rom, 0x3F659 + index)
-                });
-            }catch(IOException exception){
-                throw new ProvisionException("Error reading the file.", "rom.io", exception, true, new Object[]{});
-            }
-        }else if(index == 0xC9 || index == 0xCA){
-            sprite.setSubtype(EnumSpriteSubType.SHOOTER);
-        }else if(index <= 0xD9){
-            sprite.setSubtype(EnumSpriteSubType.GENERATOR);
-        }else if(index <= 0xE6){
-            sprite.setSubtype(EnumSpriteSubType.INITIALIZER);
-        }else{
-            sprite.setSubtype(EnumSpriteSubType.SCROLLER);
+    @Override
+    @SuppressWarnings("RedundantArrayCreation")
+    public Sprite get(int index) throws ProvisionException{
+        if(index < 0 || index >= this.sprites.length){
+            throw new ProvisionException("Index out of bounds: " + index + ".", "index");
         }
 
-        this.index = index;
-        this.sprites[index] = sprite;
+        Sprite sprite = this.read(() -> this.sprites[index]);
+        return sprite == null ? this.table.getSprite(index) : sprite;
     }
 
     @Override
-    public String[] getAvailableSprites(){
-        return ROMProvider.NAMES.toArray(new String[0]);
+    public int size(){
+        return this.table.size();
     }
 
-    /**
-     * Reads an unsigned byte at the given PC offset in a readable ROM image.
-     *
-     * @param rom the opened readable ROM image to read from
-     * @param pc the unheadered PC offset to read, which will automatically be
-     * adjusted if a header is found
-     * @return the unsigned byte at the given offset
-     * @throws IOException if reading from the file fails
-     */
-    private int readByte(RandomAccessFile rom, long pc) throws IOException{
-        rom.seek(pc + (rom.length() & 0x200));
-        return rom.readUnsignedByte();
+    @Override
+    public String[] getAvailableSprites(){
+        return ROMProvider.NAMES.toArray(new String[0]);
     }
 
     /**
@@ -287,19 +493,47 @@ public class ROMProvider extends Provider {
 
     @Override
     public Sprite getCurrentSprite(){
-        return this.sprites[this.getLoadedIndex()];
+        return this.read(() -> this.sprites[this.index]);
+    }
+
+    @Override
+    protected Sprite getWritableSprite(){
+        if(this.sprites[this.index] == null){
+            this.sprites[this.index] = this.table.getSprite(this.index);
+        }
+
+        return this.sprites[this.index];
+    }
+
+    @Override
+    protected ProviderSnapshot createSnapshot(){
+        SpriteTable table = this.table.snapshot();
+        return new ProviderSnapshot(this.getAvailableSprites(), new PersistentArray<>(table.size()), table::getSprite);
     }
 
     @Override
     public Sprite startModification(){
-        Sprite sprite = this.getCurrentSprite();
-        this.modified.add(sprite);
+        this.write(() -> this.modified.set(this.index));
+        this.fireModification(this.getLoadedIndex());
 
-        return sprite;
+        return this.getCurrentSprite();
     }
 
     @Override
     public boolean isModified(){
-        return !this.modified.isEmpty();
+        return this.read(() -> {
+            for(int index = this.modified.nextSetBit(0); index >= 0; index = this.modified.nextSetBit(index + 1)){
+                if(this.getModifiedBytes(index) != 0){
+                    return true;
+                }
+            }
+
+            return false;
+        });
+    }
+
+    @Override
+    public boolean isModified(int index){
+        return this.getModifiedBytes(index) != 0;
     }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+/**
+ * A {@code SaveProgress} receives the progress of a {@link Provider} which is
+ * being saved and tells the provider whether it should stop early.
+ * <p>
+ * Providers call it from the thread they're saved on, which might not be the
+ * event dispatch thread.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ * @see Provider#save(java.io.File, SaveProgress)
+ */
+public interface SaveProgress {
+    /**
+     * A {@code SaveProgress} which ignores the progress and is never
+     * cancelled.
+     */
+    SaveProgress NONE = new SaveProgress() {
+        @Override
+        public void setProgress(int done, int total){}
+
+        @Override
+        public boolean isCancelled(){
+            return false;
+        }
+    };
+
+    /**
+     * Reports how much of the save has been completed. Providers report
+     * {@code 0} steps before they start any I/O, so that the save can be
+     * shown and cancelled from the start.
+     *
+     * @param done the amount of completed steps
+     * @param total the total amount of steps
+     */
+    void setProgress(int done, int total);
+
+    /**
+     * Checks whether the save should be stopped. Providers check this between
+     * steps and throw a {@link SavingException} with the subkey
+     * {@code cancelled} if it returns {@code true}.
+     */
+    boolean isCancelled();
+}
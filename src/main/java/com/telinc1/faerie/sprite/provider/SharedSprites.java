@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.util.PersistentArray;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@code SharedSprites} keeps a persistent map of the sprites which a
+ * provider has modified, so that they can be handed to snapshots without
+ * copying them. Each sprite is copied at most once after a snapshot was
+ * taken, right before it's modified again.
+ * <p>
+ * The map also keeps track of the snapshots which are still in use. Before
+ * a provider overwrites its input, it pins the old version of every sprite
+ * it's about to save into them, and once a sprite is saved, it's released
+ * from the map so that the provider can evict it again.
+ * <p>
+ * {@link #acquire(int, Sprite)} and {@link #release(int)} must be called
+ * while holding the write lock of the provider, and
+ * {@link #snapshot(String[], ProviderSnapshot.Loader)} while holding a read
+ * lock.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+class SharedSprites {
+    /**
+     * The sprites which can be shared with snapshots.
+     */
+    private PersistentArray<Sprite> sprites;
+
+    /**
+     * The snapshot generation in which each sprite was last acquired.
+     */
+    private final int[] acquired;
+
+    /**
+     * The amount of snapshots which have been taken.
+     */
+    private final AtomicInteger generation;
+
+    /**
+     * The sprites which were released while a snapshot could still
+     * reference them.
+     */
+    private final BitSet released;
+
+    /**
+     * The snapshots which have been taken and may still be in use.
+     */
+    private final List<WeakReference<ProviderSnapshot>> snapshots;
+
+    /**
+     * Constructs an empty map.
+     *
+     * @param size the amount of sprites of the provider
+     */
+    SharedSprites(int size){
+        this.sprites = new PersistentArray<>(size);
+        this.acquired = new int[size];
+        this.generation = new AtomicInteger();
+        this.released = new BitSet(size);
+        this.snapshots = new ArrayList<>();
+    }
+
+    /**
+     * Returns the sprite which should be modified instead of the given one.
+     * If the sprite may be referenced by a snapshot, it's copied and the
+     * copy is returned, in which case the provider has to replace the sprite
+     * with the copy.
+     *
+     * @param index the index of the sprite
+     * @param sprite the sprite which the provider holds
+     * @return the sprite to modify
+     */
+    Sprite acquire(int index, Sprite sprite){
+        int generation = this.generation.get();
+
+        if(this.released.get(index) || this.sprites.get(index) == sprite && this.acquired[index] != generation){
+            sprite = sprite.copy();
+            this.released.clear(index);
+        }
+
+        if(this.sprites.get(index) != sprite){
+            this.sprites = this.sprites.with(index, sprite);
+        }
+
+        this.acquired[index] = generation;
+        return sprite;
+    }
+
+    /**
+     * Removes a saved sprite from the map. The provider keeps the sprite, but
+     * it's still copied before it's modified again if a snapshot may
+     * reference it.
+     *
+     * @param index the index of the sprite
+     */
+    void release(int index){
+        if(this.sprites.get(index) == null){
+            return;
+        }
+
+        if(this.acquired[index] != this.generation.get()){
+            this.released.set(index);
+        }
+
+        this.sprites = this.sprites.with(index, null);
+    }
+
+    /**
+     * Takes a snapshot which shares the current version of the map. Every
+     * sprite in it will be copied before it's modified again.
+     *
+     * @param names the human-readable names of the sprites
+     * @param loader the function which reads every other sprite from the
+     * input of the provider
+     * @return the new snapshot
+     */
+    ProviderSnapshot snapshot(String[] names, ProviderSnapshot.Loader loader){
+        this.generation.incrementAndGet();
+        ProviderSnapshot snapshot = new ProviderSnapshot(names, this.sprites, loader);
+
+        synchronized(this.snapshots){
+            this.snapshots.removeIf(reference -> reference.get() == null);
+            this.snapshots.add(new WeakReference<>(snapshot));
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Pins the current version of some sprites into every snapshot which
+     * hasn't read them yet. This has to be called before the provider
+     * overwrites them in its input, since the snapshots would otherwise read
+     * the new version. Each sprite is only read once, and only if a snapshot
+     * needs it.
+     *
+     * @param indexes the indexes of the sprites which are about to be
+     * overwritten
+     * @param loader the function which reads the sprites from the input
+     */
+    void pin(BitSet indexes, ProviderSnapshot.Loader loader){
+        List<ProviderSnapshot> snapshots = new ArrayList<>();
+
+        synchronized(this.snapshots){
+            this.snapshots.removeIf(reference -> reference.get() == null);
+
+            for(WeakReference<ProviderSnapshot> reference : this.snapshots){
+                ProviderSnapshot snapshot = reference.get();
+
+                if(snapshot != null){
+                    snapshots.add(snapshot);
+                }
+            }
+        }
+
+        for(int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)){
+            int index = i;
+
+            if(snapshots.stream().noneMatch(snapshot -> snapshot.needs(index))){
+                continue;
+            }
+
+            Sprite sprite = null;
+            ProvisionException failure = null;
+
+            try {
+                sprite = loader.load(index);
+            }catch(ProvisionException exception){
+                failure = exception;
+            }
+
+            for(ProviderSnapshot snapshot : snapshots){
+                snapshot.pin(index, sprite, failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+import com.telinc1.faerie.sprite.Sprite;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@code SpriteLoader} retrieves sprites from a {@link Provider} on a
+ * background thread through {@link Provider#get(int)}. After every request,
+ * the sprites around the requested index are prefetched, so stepping through
+ * the sprites of a provider rarely has to wait for the disk.
+ * <p>
+ * Requested sprites are always loaded before prefetched ones. Prefetched
+ * sprites are kept until they're requested, modified or no longer around
+ * the most recent request, so the loader never holds more than a few
+ * sprites which the provider could otherwise evict.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class SpriteLoader implements ModificationListener {
+    /**
+     * The default amount of sprites which are prefetched in each direction.
+     */
+    public static final int DEFAULT_RADIUS = 4;
+
+    /**
+     * The provider whose sprites are loaded.
+     */
+    private final Provider provider;
+
+    /**
+     * The amount of sprites which are prefetched in each direction.
+     */
+    private final int radius;
+
+    /**
+     * The executor which loads the sprites.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The future of every sprite which is being requested or has been
+     * prefetched.
+     */
+    private final Map<Integer, CompletableFuture<Sprite>> futures;
+
+    /**
+     * A counter used to keep tasks of the same priority in order.
+     */
+    private final AtomicLong sequence;
+
+    /**
+     * Constructs a loader with the default prefetch radius.
+     *
+     * @param provider the provider whose sprites are loaded
+     */
+    public SpriteLoader(Provider provider){
+        this(provider, SpriteLoader.DEFAULT_RADIUS);
+    }
+
+    /**
+     * Constructs a loader.
+     *
+     * @param provider the provider whose sprites are loaded
+     * @param radius the amount of sprites to prefetch in each direction
+     */
+    public SpriteLoader(Provider provider, int radius){
+        this.provider = provider;
+        this.radius = Math.max(radius, 0);
+        this.futures = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Faerie Sprite Loader");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        this.provider.addModificationListener(this);
+    }
+
+    /**
+     * Returns the provider whose sprites are loaded.
+     */
+    public Provider getProvider(){
+        return this.provider;
+    }
+
+    /**
+     * Loads a sprite in the background and prefetches its neighbors.
+     *
+     * @param index the index of the sprite
+     * @return a future which completes with the sprite, or exceptionally
+     * with a {@link ProvisionException}
+     */
+    public CompletableFuture<Sprite> load(int index){
+        // prefetched sprites which are no longer nearby won't be needed soon
+        this.futures.entrySet().removeIf(entry -> {
+            if(Math.abs(entry.getKey() - index) <= this.radius){
+                return false;
+            }
+
+            entry.getValue().cancel(false);
+            return true;
+        });
+
+        CompletableFuture<Sprite> future = this.schedule(index, true);
+
+        // the provider keeps the sprite from now on
+        future.whenComplete((sprite, throwable) -> this.futures.remove(index, future));
+
+        for(int distance = 1; distance <= this.radius; distance++){
+            this.prefetch(index + distance);
+            this.prefetch(index - distance);
+        }
+
+        return future;
+    }
+
+    /**
+     * Returns a sprite if it has already been loaded successfully.
+     *
+     * @param index the index of the sprite
+     * @return the loaded sprite, or {@code null} if it isn't available yet
+     */
+    public Sprite getIfLoaded(int index){
+        CompletableFuture<Sprite> future = this.futures.get(index);
+
+        if(future == null || !future.isDone() || future.isCompletedExceptionally()){
+            return null;
+        }
+
+        return future.join();
+    }
+
+    /**
+     * Schedules a sprite to be loaded in the background if it's in range.
+     *
+     * @param index the index of the sprite
+     */
+    private void prefetch(int index){
+        if(index >= 0 && index < this.provider.size()){
+            this.schedule(index, false);
+        }
+    }
+
+    /**
+     * Schedules a sprite to be loaded in the background, unless it has
+     * already been scheduled.
+     *
+     * @param index the index of the sprite
+     * @param requested whether the sprite is needed right away
+     * @return the future of the sprite
+     */
+    private CompletableFuture<Sprite> schedule(int index, boolean requested){
+        CompletableFuture<Sprite> created = new CompletableFuture<>();
+        CompletableFuture<Sprite> future = this.futures.putIfAbsent(index, created);
+
+        if(future == null){
+            future = created;
+            this.executor.execute(new Task(index, created, requested ? 0 : 1, this.sequence.getAndIncrement()));
+        }else if(requested && !future.isDone()){
+            // move the queued prefetch in front of every other prefetch
+            this.executor.execute(new Task(index, future, 0, this.sequence.getAndIncrement()));
+        }
+
+        return future;
+    }
+
+    @Override
+    public void onModification(ModificationEvent event){
+        // the provider may replace a modified sprite with a copy
+        this.futures.computeIfPresent(event.getIndex(), (index, future) -> future.isDone() ? null : future);
+    }
+
+    /**
+     * Stops the background thread. Sprites which haven't been loaded yet are
+     * never completed.
+     */
+    public void close(){
+        this.provider.removeModificationListener(this);
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * A single queued load.
+     */
+    private class Task implements Runnable, Comparable<Task> {
+        /**
+         * The index of the sprite to load.
+         */
+        private final int index;
+
+        /**
+         * The future to complete.
+         */
+        private final CompletableFuture<Sprite> future;
+
+        /**
+         * The priority of the task, lower values run first.
+         */
+        private final int priority;
+
+        /**
+         * The order in which the task was created.
+         */
+        private final long order;
+
+        /**
+         * Constructs a task.
+         *
+         * @param index the index of the sprite to load
+         * @param future the future to complete
+         * @param priority the priority of the task, lower values run first
+         * @param order the order in which the task was created
+         */
+        Task(int index, CompletableFuture<Sprite> future, int priority, long order){
+            this.index = index;
+            this.future = future;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public void run(){
+            if(this.future.isDone()){
+                return;
+            }
+
+            try {
+                this.future.complete(SpriteLoader.this.provider.get(this.index));
+            }catch(ProvisionException | RuntimeException exception){
+                SpriteLoader.this.futures.remove(this.index, this.future);
+                this.future.completeExceptionally(exception);
+            }
+        }
+
+        @Override
+        public int compareTo(Task other){
+            if(this.priority != other.priority){
+                return Integer.compare(this.priority, other.priority);
+            }
+
+            // newer requests are more relevant than older ones
+            return this.priority == 0 ? Long.compare(other.order, this.order) : Long.compare(this.order, other.order);
+        }
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.sprite.provider;
+
+import com.telinc1.faerie.sprite.Sprite;
+import com.telinc1.faerie.sprite.emitter.Emitter;
+import com.telinc1.faerie.sprite.parser.ParseException;
+import com.telinc1.faerie.sprite.parser.Parser;
+import com.telinc1.faerie.util.FileUtils;
+import com.telinc1.faerie.util.TypeUtils;
+import com.telinc1.faerie.util.locale.Warning;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A {@code ZipProvider} provides every configuration file from a ZIP archive,
+ * such as a community sprite pack. The archive is never extracted; each entry
+ * is only read and parsed when it's first loaded.
+ * <p>
+ * Parsed sprites are published through an atomic array, so any thread may
+ * retrieve them. Each entry is only parsed once, even if several threads
+ * retrieve it at the same time. The modification state is guarded by the lock
+ * of the provider. Snapshots share the modified sprites and read every other
+ * sprite from the archive. Saving pins the old version of every modified
+ * sprite into them before the archive is replaced, and entries are never read
+ * while the archive is closed for the replacement.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class ZipProvider extends Provider {
+    /**
+     * The input file to this {@code ZipProvider}.
+     */
+    private volatile File input;
+
+    /**
+     * The opened archive which entries are read from, or {@code null} if it
+     * couldn't be opened again after a save.
+     */
+    private ZipFile archive;
+
+    /**
+     * The lock which keeps entries from being read while the archive is
+     * replaced.
+     */
+    private final ReadWriteLock archiveLock;
+
+    /**
+     * The names of all configuration entries in the archive.
+     */
+    private String[] entries;
+
+    /**
+     * An array of all sprites which have been parsed so far. Entries are set
+     * once when they're parsed, and are only replaced by the writer when a
+     * sprite shared with a snapshot is copied.
+     */
+    private final AtomicReferenceArray<Sprite> sprites;
+
+    /**
+     * The monitor of each entry, which is held while the entry is parsed so
+     * that concurrent readers wait for it instead of parsing it again.
+     */
+    private final Object[] parsing;
+
+    /**
+     * The modified sprites which can be shared with snapshots.
+     */
+    private final SharedSprites shared;
+
+    /**
+     * The warnings created while parsing each sprite.
+     */
+    private final AtomicReferenceArray<Warning[]> warnings;
+
+    /**
+     * The index of the sprite which is currently loaded.
+     */
+    private volatile int index;
+
+    /**
+     * The indexes of the sprites which have been modified.
+     */
+    private final BitSet modified;
+
+    /**
+     * Constructs a {@code ZipProvider} for the given archive.
+     *
+     * @param input the input file to the provider
+     * @throws LoadingException if the archive is unreadable or contains no
+     * configuration files
+     * @throws NullPointerException if the file is {@code null}
+     */
+    @SuppressWarnings("RedundantArrayCreation")
+    public ZipProvider(File input) throws LoadingException{
+        super();
+        this.input = input;
+        this.modified = new BitSet();
+        this.archiveLock = new ReentrantReadWriteLock();
+
+        if(this.getInput() == null){
+            throw new NullPointerException("An archive file must be provided.");
+        }
+
+        if(!TypeUtils.isArchive(this.getInput())){
+            throw new LoadingException("Unknown archive type.", "zip.type");
+        }
+
+        try {
+            this.archive = new ZipFile(this.getInput());
+        }catch(IOException exception){
+            throw new LoadingException("Error reading the archive.", "zip.read", exception, true, new Object[]{});
+        }
+
+        this.entries = this.listEntries();
+
+        if(this.entries.length == 0){
+            this.close();
+            throw new LoadingException("The archive has no configuration files.", "zip.empty");
+        }
+
+        this.sprites = new AtomicReferenceArray<>(this.entries.length);
+        this.parsing = new Object[this.entries.length];
+        Arrays.setAll(this.parsing, i -> new Object());
+        this.warnings = new AtomicReferenceArray<>(this.entries.length);
+        this.shared = new SharedSprites(this.entries.length);
+    }
+
+    /**
+     * Lists the names of every configuration entry in the opened archive.
+     *
+     * @return the names of the entries, in archive order
+     */
+    private String[] listEntries(){
+        List<String> names = new ArrayList<>();
+        Enumeration<? extends ZipEntry> enumeration = this.archive.entries();
+
+        while(enumeration.hasMoreElements()){
+            ZipEntry entry = enumeration.nextElement();
+
+            if(!entry.isDirectory() && TypeUtils.isConfiguration(entry.getName())){
+                names.add(entry.getName());
+            }
+        }
+
+        return names.toArray(new String[0]);
+    }
+
+    @Override
+    public File getInput(){
+        return this.input;
+    }
+
+    @Override
+    @SuppressWarnings("RedundantArrayCreation")
+    public Provider save(File file, SaveProgress progress) throws SavingException{
+        if(TypeUtils.isConfiguration(file)){
+            ConfigurationProvider provider = new ConfigurationProvider(file);
+            provider.setSprite(this.getCurrentSprite());
+            provider.save(file, progress);
+
+            return provider;
+        }
+
+        if(!TypeUtils.isArchive(file)){
+            throw new SavingException("Unsupported file type.", "zip.type", null, false, new Object[]{});
+        }
+
+        File temporary;
+
+        try {
+            temporary = FileUtils.createTemporary(file);
+        }catch(IOException | SecurityException exception){
+            throw new SavingException("Can't create file.", "zip.write", exception);
+        }
+
+        try {
+            this.writeArchive(temporary, progress);
+        }catch(IOException | SecurityException exception){
+            temporary.delete();
+            throw new SavingException("Can't write to file.", "zip.write", exception);
+        }catch(SavingException exception){
+            temporary.delete();
+            throw exception;
+        }
+
+        BitSet touched = this.read(() -> (BitSet)this.modified.clone());
+        this.shared.pin(touched, this::parse);
+
+        this.archiveLock.writeLock().lock();
+
+        try {
+            // the archive has to be closed before it can be replaced on some systems
+            this.close();
+
+            try {
+                FileUtils.replace(temporary, file);
+            }catch(IOException | SecurityException exception){
+                temporary.delete();
+                SavingException failure = new SavingException("Can't write to file.", "zip.write", exception);
+
+                try {
+                    this.reopen(this.getInput());
+                }catch(SavingException secondary){
+                    failure.addSuppressed(secondary);
+                }
+
+                throw failure;
+            }
+
+            try {
+                this.reopen(file);
+            }catch(SavingException failure){
+                // the provider stays on the previous archive, which might still be readable
+                if(!file.getAbsoluteFile().equals(this.getInput().getAbsoluteFile())){
+                    try {
+                        this.reopen(this.getInput());
+                    }catch(SavingException secondary){
+                        failure.addSuppressed(secondary);
+                    }
+                }
+
+                throw failure;
+            }
+        }finally{
+            this.archiveLock.writeLock().unlock();
+        }
+
+        this.write(() -> {
+            this.input = file;
+            this.modified.clear();
+            touched.stream().forEach(this.shared::release);
+        });
+
+        return null;
+    }
+
+    /**
+     * Opens the given file as the archive which entries are read from. If it
+     * can't be opened, the provider is left without an archive and every
+     * read fails with a {@link ProvisionException}.
+     *
+     * @param file the archive to open
+     * @throws SavingException if the archive can't be opened
+     */
+    private void reopen(File file) throws SavingException{
+        try {
+            this.archive = new ZipFile(file);
+        }catch(IOException exception){
+            throw new SavingException("Can't reopen the archive.", "zip.write", exception);
+        }
+    }
+
+    /**
+     * Writes a copy of the opened archive into the given file. Modified
+     * sprites are emitted again, while every other entry is copied as-is.
+     *
+     * @param file the file to write to
+     * @param progress the progress of the save
+     * @throws IOException if reading the archive or writing the file fails
+     * @throws SavingException if the save is cancelled
+     */
+    private void writeArchive(File file, SaveProgress progress) throws IOException, SavingException{
+        Map<String, Integer> indexes = new HashMap<>();
+
+        for(int i = 0; i < this.entries.length; i++){
+            indexes.put(this.entries[i], i);
+        }
+
+        if(this.archive == null){
+            throw new SavingException("The archive is closed.", "zip.closed");
+        }
+
+        byte[] buffer = new byte[8192];
+        int total = this.archive.size();
+        int done = 0;
+
+        progress.setProgress(0, total);
+
+        try(ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(file.toPath()))) {
+            Enumeration<? extends ZipEntry> enumeration = this.archive.entries();
+
+            while(enumeration.hasMoreElements()){
+                Provider.checkCancelled(progress);
+
+                ZipEntry entry = enumeration.nextElement();
+                Integer index = indexes.get(entry.getName());
+
+                ZipEntry copy = new ZipEntry(entry.getName());
+                copy.setTime(entry.getTime());
+                copy.setComment(entry.getComment());
+                output.putNextEntry(copy);
+
+                if(index != null && this.modified.get(index)){
+                    Emitter emitter = Emitter.create(TypeUtils.getExtension(entry.getName()), this.sprites.get(index));
+                    Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+                    emitter.emit(writer);
+                }else{
+                    try(InputStream stream = this.archive.getInputStream(entry)) {
+                        int read;
+
+                        while((read = stream.read(buffer)) != -1){
+                            output.write(buffer, 0, read);
+                        }
+                    }
+                }
+
+                output.closeEntry();
+                progress.setProgress(++done, total);
+            }
+        }
+    }
+
+    @Override
+    public String[] getAvailableSprites(){
+        return this.entries.clone();
+    }
+
+    @Override
+    public void loadSprite(int index) throws ProvisionException{
+        this.get(index);
+        this.index = index;
+    }
+
+    @Override
+    @SuppressWarnings("RedundantArrayCreation")
+    public Sprite get(int index) throws ProvisionException{
+        if(index < 0 || index >= this.entries.length){
+            throw new ProvisionException("Index out of bounds: " + index + ".", "index");
+        }
+
+        Sprite sprite = this.sprites.get(index);
+
+        if(sprite != null){
+            return sprite;
+        }
+
+        synchronized(this.parsing[index]){
+            sprite = this.sprites.get(index);
+
+            if(sprite == null){
+                sprite = this.parse(index);
+                this.sprites.set(index, sprite);
+            }
+
+            return sprite;
+        }
+    }
+
+    @Override
+    public int size(){
+        return this.entries.length;
+    }
+
+    /**
+     * Reads and parses a single configuration entry from the archive.
+     *
+     * @param index the index of the entry to parse
+     * @return the parsed sprite
+     * @throws ProvisionException if the entry can't be read or is malformed
+     */
+    @SuppressWarnings("RedundantArrayCreation")
+    private Sprite parse(int index) throws ProvisionException{
+        String name = this.entries[index];
+        this.archiveLock.readLock().lock();
+
+        try {
+            return this.parse(index, name);
+        }finally{
+            this.archiveLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Parses a single configuration entry from the opened archive while
+     * holding the read lock of the archive.
+     *
+     * @param index the index of the entry to parse
+     * @param name the name of the entry
+     * @return the parsed sprite
+     * @throws ProvisionException if the entry can't be read or is malformed
+     */
+    @SuppressWarnings("RedundantArrayCreation")
+    private Sprite parse(int index, String name) throws ProvisionException{
+        if(this.archive == null){
+            throw new ProvisionException("The archive is closed.", "zip.closed");
+        }
+
+        ZipEntry entry = this.archive.getEntry(name);
+
+        if(entry == null){
+            throw new ProvisionException("Missing archive entry.", "configuration.io", null, false, new Object[]{});
+        }
+
+        try(Reader reader = new InputStreamReader(this.archive.getInputStream(entry), StandardCharsets.UTF_8)) {
+            Parser parser = Parser.create(TypeUtils.getExtension(name), reader);
+
+            if(parser == null){
+                throw new ProvisionException("Unknown file type.", "configuration.type");
+            }
+
+            Sprite sprite = parser.parse();
+            this.warnings.set(index, parser.getWarnings().toArray(new Warning[0]));
+
+            return sprite;
+        }catch(IOException exception){
+            throw new ProvisionException("Can't read archive entry.", "configuration.io", exception, false, new Object[]{});
+        }catch(ParseException exception){
+            throw new ProvisionException("Malformed file.", "configuration.malformed", exception, "message", exception.getLocalizedMessage());
+        }
+    }
+
+    @Override
+    public Warning[] getWarnings(){
+        Warning[] warnings = this.warnings.get(this.getLoadedIndex());
+        return warnings == null ? new Warning[0] : warnings;
+    }
+
+    @Override
+    public int getLoadedIndex(){
+        return this.index;
+    }
+
+    @Override
+    public Sprite getCurrentSprite(){
+        return this.sprites.get(this.getLoadedIndex());
+    }
+
+    @Override
+    protected Sprite getWritableSprite(){
+        Sprite sprite = this.shared.acquire(this.index, this.sprites.get(this.index));
+        this.sprites.set(this.index, sprite);
+
+        return sprite;
+    }
+
+    @Override
+    protected ProviderSnapshot createSnapshot(){
+        return this.shared.snapshot(this.getAvailableSprites(), this::parse);
+    }
+
+    @Override
+    public Sprite startModification(){
+        this.write(() -> {
+            this.modified.set(this.index);
+            this.getWritableSprite();
+        });
+
+        this.fireModification(this.getLoadedIndex());
+
+        return this.getCurrentSprite();
+    }
+
+    @Override
+    public boolean isModified(){
+        return this.read(() -> !this.modified.isEmpty());
+    }
+
+    @Override
+    public boolean isModified(int index){
+        return this.read(() -> this.modified.get(index));
+    }
+
+    @Override
+    public void close(){
+        if(this.archive == null){
+            return;
+        }
+
+        try {
+            this.archive.close();
+        }catch(IOException exception){
+            // nothing left to release
+        }
+
+        this.archive = null;
+    }
+}
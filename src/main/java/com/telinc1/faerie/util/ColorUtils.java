@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.util;
+
+/**
+ * The {@code ColorUtils} static class converts between 15-bit SNES colors
+ * and 24-bit RGB colors. SNES colors are stored as BGR555, with red in the
+ * lowest five bits, while RGB colors use the format of
+ * {@link java.awt.Color#getRGB()}.
+ * <p>
+ * Every SNES color is converted once into a lookup table, so converting a
+ * color is a single array read. Each 5-bit component is scaled to 8 bits by
+ * repeating its highest bits, so that white stays pure white.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public final class ColorUtils {
+    /**
+     * The amount of distinct SNES colors.
+     */
+    public static final int SNES_COLORS = 0x8000;
+
+    /**
+     * The opaque ARGB value of every SNES color.
+     */
+    private static final int[] ARGB = new int[ColorUtils.SNES_COLORS];
+
+    static {
+        for(int color = 0; color < ColorUtils.SNES_COLORS; color++){
+            ColorUtils.ARGB[color] = 0xFF000000
+                | (ColorUtils.expand(ColorUtils.getRed(color)) << 16)
+                | (ColorUtils.expand(ColorUtils.getGreen(color)) << 8)
+                | ColorUtils.expand(ColorUtils.getBlue(color));
+        }
+    }
+
+    /**
+     * Converts a SNES color to an opaque ARGB color.
+     *
+     * @param color the BGR555 color, only the lower 15 bits are used
+     * @return the color in the format of {@link java.awt.Color#getRGB()}
+     */
+    public static int toARGB(int color){
+        return ColorUtils.ARGB[color & 0x7FFF];
+    }
+
+    /**
+     * Converts an RGB color to the nearest lower SNES color. The alpha
+     * channel is ignored.
+     *
+     * @param rgb the color in the format of {@link java.awt.Color#getRGB()}
+     * @return the BGR555 color
+     */
+    public static int toBGR555(int rgb){
+        return ((rgb >> 19) & 0x1F) | ((rgb >> 6) & 0x3E0) | ((rgb << 7) & 0x7C00);
+    }
+
+    /**
+     * Converts separate RGB components to the nearest lower SNES color.
+     *
+     * @param red the red component, from 0 to 255
+     * @param green the green component, from 0 to 255
+     * @param blue the blue component, from 0 to 255
+     * @return the BGR555 color
+     */
+    public static int toBGR555(int red, int green, int blue){
+        return ((red >> 3) & 0x1F) | (((green >> 3) & 0x1F) << 5) | (((blue >> 3) & 0x1F) << 10);
+    }
+
+    /**
+     * Returns the 5-bit red component of a SNES color.
+     *
+     * @param color the BGR555 color
+     * @return the red component, from 0 to 31
+     */
+    public static int getRed(int color){
+        return color & 0x1F;
+    }
+
+    /**
+     * Returns the 5-bit green component of a SNES color.
+     *
+     * @param color the BGR555 color
+     * @return the green component, from 0 to 31
+     */
+    public static int getGreen(int color){
+        return (color >> 5) & 0x1F;
+    }
+
+    /**
+     * Returns the 5-bit blue component of a SNES color.
+     *
+     * @param color the BGR555 color
+     * @return the blue component, from 0 to 31
+     */
+    public static int getBlue(int color){
+        return (color >> 10) & 0x1F;
+    }
+
+    /**
+     * Scales a 5-bit component to 8 bits.
+     *
+     * @param component the 5-bit component
+     * @return the 8-bit component
+     */
+    private static int expand(int component){
+        return (component << 3) | (component >> 2);
+    }
+}
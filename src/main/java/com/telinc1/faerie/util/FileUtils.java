@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The {@code FileUtils} static class contains methods for safely replacing
+ * files. Files are first written to a temporary file in the same directory,
+ * which is then moved over the original, so that an interrupted save never
+ * leaves a half-written file behind.
+ *
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public final class FileUtils {
+    /**
+     * Creates an empty temporary file next to the given target file. The
+     * temporary file has the same extension as the target.
+     *
+     * @param target the file which will eventually be replaced
+     * @return the new temporary file
+     * @throws IOException if the file can't be created
+     */
+    public static File createTemporary(File target) throws IOException{
+        String extension = TypeUtils.getExtension(target);
+        File directory = target.getAbsoluteFile().getParentFile();
+
+        return File.createTempFile("faerie", extension.isEmpty() ? null : "." + extension, directory);
+    }
+
+    /**
+     * Moves a temporary file over the target file. The move is atomic if the
+     * file system supports it.
+     *
+     * @param temporary the file to move
+     * @param target the file to replace
+     * @throws IOException if the file can't be moved
+     */
+    public static void replace(File temporary, File target) throws IOException{
+        try {
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }catch(AtomicMoveNotSupportedException exception){
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An {@code LRUCache} is a map which holds at most a given amount of entries.
+ * When a new entry would exceed the capacity, the least recently accessed
+ * entry is evicted.
+ * <p>
+ * Like {@link LinkedHashMap}, the cache is not synchronized. Note that
+ * {@link #get(Object)} changes the order of the entries, so even reads have
+ * to be synchronized externally.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public class LRUCache<K, V> extends LinkedHashMap<K, V> {
+    /**
+     * The maximum amount of entries in the cache.
+     */
+    private final int capacity;
+
+    /**
+     * Constructs an empty {@code LRUCache}.
+     *
+     * @param capacity the maximum amount of entries in the cache
+     * @throws IllegalArgumentException if the capacity isn't positive
+     */
+    public LRUCache(int capacity){
+        super(16, 0.75f, true);
+
+        if(capacity <= 0){
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the maximum amount of entries in the cache.
+     */
+    public int getCapacity(){
+        return this.capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest){
+        return this.size() > this.getCapacity();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2018 Telinc1
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.telinc1.faerie.util;
+
+/**
+ * A {@code PersistentArray} is an immutable array of a fixed length. Instead
+ * of changing the array, {@link #with(int, Object)} returns a new version of
+ * it, while the old version stays untouched.
+ * <p>
+ * The elements are stored in a tree with 32 children per node, so a new
+ * version only copies the handful of nodes on the path to the changed
+ * element and shares all other nodes with the old version. Every version can
+ * be read from any thread without synchronization.
+ *
+ * @param <E> the type of the elements
+ * @author Telinc1
+ * @since 1.0.0
+ */
+public final class PersistentArray<E> {
+    /**
+     * The amount of index bits used by each level of the tree.
+     */
+    private static final int BITS = 5;
+
+    /**
+     * The amount of children of each node.
+     */
+    private static final int WIDTH = 1 << PersistentArray.BITS;
+
+    /**
+     * The mask of the index bits used by a single level.
+     */
+    private static final int MASK = PersistentArray.WIDTH - 1;
+
+    /**
+     * The length of the array.
+     */
+    private final int length;
+
+    /**
+     * The amount of bits the index is shifted by at the root of the tree.
+     */
+    private final int shift;
+
+    /**
+     * The root node of the tree. Missing children stand for elements which
+     * are {@code null}.
+     */
+    private final Object[] root;
+
+    /**
+     * Constructs an array of the given length whose elements are all
+     * {@code null}.
+     *
+     * @param length the length of the array
+     * @throws IllegalArgumentException if the length is negative
+     */
+    public PersistentArray(int length){
+        if(length < 0){
+            throw new IllegalArgumentException("The length can't be negative.");
+        }
+
+        int shift = 0;
+
+        while((Math.max(length - 1, 0) >>> shift) >= PersistentArray.WIDTH){
+            shift += PersistentArray.BITS;
+        }
+
+        this.length = length;
+        this.shift = shift;
+        this.root = new Object[PersistentArray.WIDTH];
+    }
+
+    /**
+     * Constructs a new version of an array.
+     *
+     * @param length the length of the array
+     * @param shift the shift at the root of the tree
+     * @param root the root node of the tree
+     */
+    private PersistentArray(int length, int shift, Object[] root){
+        this.length = length;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /**
+     * Returns the length of the array.
+     */
+    public int length(){
+        return this.length;
+    }
+
+    /**
+     * Returns an element of the array.
+     *
+     * @param index the index of the element
+     * @return the element, which may be {@code null}
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index){
+        this.checkIndex(index);
+        Object[] node = this.root;
+
+        for(int level = this.shift; level > 0; level -= PersistentArray.BITS){
+            node = (Object[])node[(index >>> level) & PersistentArray.MASK];
+
+            if(node == null){
+                return null;
+            }
+        }
+
+        return (E)node[index & PersistentArray.MASK];
+    }
+
+    /**
+     * Returns a new version of the array with a single element replaced. This
+     * array isn't changed.
+     *
+     * @param index the index of the element
+     * @param element the new element, which may be {@code null}
+     * @return the new version of the array
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public PersistentArray<E> with(int index, E element){
+        this.checkIndex(index);
+        return new PersistentArray<>(this.length, this.shift, PersistentArray.with(this.root, this.shift, index, element));
+    }
+
+    /**
+     * Copies the path to an element and replaces it in the copy.
+     *
+     * @param node the node to copy, or {@code null} if it doesn't exist yet
+     * @param level the shift of the index at the node
+     * @param index the index of the element
+     * @param element the new element
+     * @return the copy of the node
+     */
+    private static Object[] with(Object[] node, int level, int index, Object element){
+        Object[] copy = node == null ? new Object[PersistentArray.WIDTH] : node.clone();
+
+        if(level == 0){
+            copy[index & PersistentArray.MASK] = element;
+        }else{
+            int slot = (index >>> level) & PersistentArray.MASK;
+            copy[slot] = PersistentArray.with((Object[])copy[slot], level - PersistentArray.BITS, index, element);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Verifies that an index is valid.
+     *
+     * @param index the index to verify
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    private void checkIndex(int index){
+        if(index < 0 || index >= this.length){
+            throw new IndexOutOfBoundsException("Index out of bounds: " + index + ".");
+        }
+    }
+}
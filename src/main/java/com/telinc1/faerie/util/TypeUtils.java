@@ -67,6 +67,27 @@ public final class TypeUtils {
      */
     public static final String TYPE_SNES_PALETTE = "mw3";
 
+    /**
+     * The file extension of a PNG image, which a palette can be imported from.
+     */
+    public static final String TYPE_PNG_IMAGE = "png";
+
+    /**
+     * The file extension of an uncompressed graphics file, such as an ExGFX
+     * file.
+     */
+    public static final String TYPE_GRAPHICS = "bin";
+
+    /**
+     * The file extension of a ZIP archive, usually a sprite pack.
+     */
+    public static final String TYPE_ZIP = "zip";
+
+    /**
+     * The file extension of a sprite list, such as PIXI's {@code list.txt}.
+     */
+    public static final String TYPE_LIST = "txt";
+
     /**
      * Checks if the given file is a sprite configuration file.
      *
@@ -74,7 +95,17 @@ public final class TypeUtils {
      * @return whether the file's extension is one of (CFG, JSON)
      */
     public static boolean isConfiguration(File file){
-        String extension = TypeUtils.getExtension(file);
+        return TypeUtils.isConfiguration(file.getName());
+    }
+
+    /**
+     * Checks if the given file name belongs to a sprite configuration file.
+     *
+     * @param name the file name to check
+     * @return whether the name's extension is one of (CFG, JSON)
+     */
+    public static boolean isConfiguration(String name){
+        String extension = TypeUtils.getExtension(name);
 
         return TypeUtils.TYPE_CFG.equalsIgnoreCase(extension)
             || TypeUtils.TYPE_JSON.equalsIgnoreCase(extension);
@@ -87,7 +118,16 @@ public final class TypeUtils {
      * @return the file extension
      */
     public static String getExtension(File file){
-        String name = file.getName();
+        return TypeUtils.getExtension(file.getName());
+    }
+
+    /**
+     * Returns the extension of a file name.
+     *
+     * @param name the file name which should be processed
+     * @return the file extension
+     */
+    public static String getExtension(String name){
         int dotIndex = name.lastIndexOf('.');
 
         return (dotIndex > 0 && dotIndex < name.length() - 1) ? name.substring(dotIndex + 1).toLowerCase() : "";
@@ -119,4 +159,45 @@ public final class TypeUtils {
             || TypeUtils.TYPE_TPL_PALETTE.equalsIgnoreCase(extension)
             || TypeUtils.TYPE_SNES_PALETTE.equalsIgnoreCase(extension);
     }
+
+    /**
+     * Checks if the given file is an image which a palette can be imported
+     * from.
+     *
+     * @param file the file to check
+     * @return whether the file's extension is PNG
+     */
+    public static boolean isImage(File file){
+        return TypeUtils.TYPE_PNG_IMAGE.equalsIgnoreCase(TypeUtils.getExtension(file));
+    }
+
+    /**
+     * Checks if the given file is an uncompressed graphics file.
+     *
+     * @param file the file to check
+     * @return whether the file's extension is BIN
+     */
+    public static boolean isGraphics(File file){
+        return TypeUtils.TYPE_GRAPHICS.equalsIgnoreCase(TypeUtils.getExtension(file));
+    }
+
+    /**
+     * Checks if the given file is an archive of configuration files.
+     *
+     * @param file the file to check
+     * @return whether the file's extension is ZIP
+     */
+    public static boolean isArchive(File file){
+        return TypeUtils.TYPE_ZIP.equalsIgnoreCase(TypeUtils.getExtension(file));
+    }
+
+    /**
+     * Checks if the given file is a sprite list of an insertion tool.
+     *
+     * @param file the file to check
+     * @return whether the file's extension is TXT
+     */
+    public static boolean isSpriteList(File file){
+        return TypeUtils.TYPE_LIST.equalsIgnoreCase(TypeUtils.getExtension(file));
+    }
 }